@@ -3,6 +3,7 @@ package com.carsales;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 汽车销售管理系统主应用类
@@ -10,6 +11,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 @MapperScan("com.carsales.mapper")
+@EnableScheduling
 public class CarSalesApplication {
 
     public static void main(String[] args) {
@@ -1,9 +1,10 @@
 package com.carsales.aspect;
 
 import com.carsales.annotation.OperationLog;
-import com.carsales.util.JwtUtil;
+import com.carsales.common.LoginUser;
+import com.carsales.util.IpUtil;
+import com.carsales.util.UserContext;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -23,10 +24,8 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 @Aspect
 @Component
-@RequiredArgsConstructor
 public class OperationLogAspect {
 
-    private final JwtUtil jwtUtil;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Around("@annotation(com.carsales.annotation.OperationLog)")
@@ -45,16 +44,12 @@ public class OperationLogAspect {
 
         if (attributes != null) {
             HttpServletRequest request = attributes.getRequest();
-            ip = getIpAddress(request);
+            ip = IpUtil.getIpAddress(request);
 
-            // 尝试从 Token 获取用户名
-            String token = request.getHeader("Authorization");
-            if (token != null && token.startsWith("Bearer ")) {
-                try {
-                    username = jwtUtil.getUsernameFromToken(token.substring(7));
-                } catch (Exception e) {
-                    // Token 解析失败，使用默认值
-                }
+            // 从请求上下文获取已验证的登录用户（由 AuthInterceptor 解析）
+            LoginUser loginUser = UserContext.getCurrentUser();
+            if (loginUser != null) {
+                username = loginUser.getUsername();
             }
         }
 
@@ -93,21 +88,4 @@ public class OperationLogAspect {
 
         return result;
     }
-
-    /**
-     * 获取客户端 IP 地址
-     */
-    private String getIpAddress(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        return ip;
-    }
 }
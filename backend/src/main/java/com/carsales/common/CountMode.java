@@ -0,0 +1,42 @@
+package com.carsales.common;
+
+import com.carsales.exception.BusinessException;
+
+/**
+ * 分页查询的总数统计方式
+ */
+public enum CountMode {
+
+    /**
+     * 精确统计（每次执行 COUNT 查询，默认）
+     */
+    EXACT,
+
+    /**
+     * 不统计总数（无限滚动等不显示总数的场景）
+     */
+    NONE,
+
+    /**
+     * 估算：按筛选条件缓存总数，表数据变更后失效重新统计
+     */
+    ESTIMATE;
+
+    /**
+     * 解析统计方式（不区分大小写，为空时取 EXACT）
+     *
+     * @param value 请求参数值
+     * @return 统计方式
+     */
+    public static CountMode of(String value) {
+        if (value == null || value.isEmpty()) {
+            return EXACT;
+        }
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new BusinessException(2003, "countMode 只能为 exact、none 或 estimate");
+    }
+}
@@ -0,0 +1,35 @@
+package com.carsales.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 按排序键加主键做键集分页，下一页用 nextCursor 请求；不返回总数和页码
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标（没有更多数据时为空）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,72 @@
+package com.carsales.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 当前登录用户（已验签的 Token 主体或 API Key 调用方）
+ * 每个请求只解析一次 Token，结果保存在请求属性中供控制器、服务和切面使用
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LoginUser implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 角色
+     */
+    private final String role;
+
+    /**
+     * Token ID（jti，用于登出注销）
+     */
+    private final String tokenId;
+
+    /**
+     * Token 过期时间
+     */
+    private final Date expiration;
+
+    /**
+     * 是否为 API Key 调用方（无对应的系统用户）
+     */
+    private final boolean apiKey;
+
+    public LoginUser(Long userId, String username, String role, String tokenId, Date expiration) {
+        this(userId, username, role, tokenId, expiration, false);
+    }
+
+    /**
+     * 创建 API Key 调用方
+     *
+     * @param name API Key 名称
+     * @param role 角色
+     * @return 登录用户（userId 为空）
+     */
+    public static LoginUser ofApiKey(String name, String role) {
+        return new LoginUser(null, "apikey:" + name, role, null, null, true);
+    }
+
+    /**
+     * 判断 Token 是否已过期
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+}
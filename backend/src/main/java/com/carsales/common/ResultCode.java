@@ -16,6 +16,8 @@ public enum ResultCode {
     AUTH_USERNAME_PASSWORD_ERROR(1001, "用户名或密码错误"),
     AUTH_TOKEN_INVALID(1002, "Token无效或已过期"),
     AUTH_PERMISSION_DENIED(1003, "权限不足"),
+    AUTH_TOO_MANY_ATTEMPTS(1004, "登录尝试过于频繁"),
+    AUTH_SERVICE_BUSY(1005, "登录服务繁忙"),
 
     // 2xxx: 参数验证错误
     PARAM_MISSING(2001, "必填参数缺失"),
@@ -29,6 +31,8 @@ public enum ResultCode {
     BUSINESS_VIN_EXISTS(3004, "VIN已存在"),
     BUSINESS_CUSTOMER_HAS_ORDERS(3005, "客户有关联订单，无法删除"),
     BUSINESS_CAR_SOLD_CANNOT_DELETE(3006, "已售车辆无法删除"),
+    BUSINESS_CAR_STATUS_CONFLICT(3008, "车辆状态已被其他操作修改"),
+    BUSINESS_IMPORT_JOB_NOT_FOUND(3009, "导入任务不存在"),
 
     // 4xxx: 数据库错误
     DB_UNIQUE_CONSTRAINT_VIOLATION(4001, "唯一约束冲突"),
@@ -40,7 +44,10 @@ public enum ResultCode {
     SYSTEM_FILE_UPLOAD_ERROR(5001, "文件上传失败"),
     SYSTEM_FILE_PARSE_ERROR(5002, "文件解析失败"),
     SYSTEM_DB_CONNECTION_ERROR(5003, "数据库连接失败"),
-    SYSTEM_UNKNOWN_ERROR(5004, "未知系统错误");
+    SYSTEM_UNKNOWN_ERROR(5004, "未知系统错误"),
+    SYSTEM_IMPORT_BUSY(5005, "导入任务繁忙"),
+    SYSTEM_IMPORT_CANCELLED(5006, "导入已取消"),
+    SYSTEM_EXPORT_BUSY(5007, "导出任务繁忙");
 
     private final Integer code;
     private final String message;
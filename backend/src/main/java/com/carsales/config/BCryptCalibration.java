@@ -0,0 +1,58 @@
+package com.carsales.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * BCrypt 强度校准结果
+ * 启动时根据目标校验耗时测得，供密码编码器和登录时的重新哈希使用
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BCryptCalibration {
+
+    /**
+     * 选定的 BCrypt 强度（work factor，log2 轮数）
+     */
+    private final int strength;
+
+    /**
+     * 该强度下单次校验的实测耗时（毫秒）
+     */
+    private final long measuredMillis;
+
+    /**
+     * 目标校验耗时（毫秒）
+     */
+    private final long targetMillis;
+
+    /**
+     * 从 BCrypt 哈希中解析强度，格式：$2a$10$...
+     *
+     * @param hash BCrypt 哈希
+     * @return 强度，无法解析时返回 -1
+     */
+    public static int strengthOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 判断已存储的哈希是否需要按当前强度重新哈希
+     *
+     * @param hash 已存储的 BCrypt 哈希
+     * @return true-强度与当前不一致
+     */
+    public boolean needsRehash(String hash) {
+        int stored = strengthOf(hash);
+        return stored > 0 && stored != strength;
+    }
+}
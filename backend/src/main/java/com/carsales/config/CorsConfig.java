@@ -58,6 +58,7 @@ public class CorsConfig {
 
         // 暴露的响应头
         config.addExposedHeader("Authorization");
+        config.addExposedHeader("ETag");
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
@@ -0,0 +1,50 @@
+package com.carsales.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录准入控制配置
+ * 对应配置前缀：login.admission
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "login.admission")
+public class LoginAdmissionProperties {
+
+    /**
+     * 密码校验线程数，0 表示取 CPU 核数的一半（至少 1）
+     */
+    private int poolSize = 0;
+
+    /**
+     * 密码校验等待队列长度，队列满时直接拒绝
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 等待密码校验结果的超时时间（毫秒）
+     */
+    private long timeoutMillis = 3000;
+
+    /**
+     * 每个用户名的令牌桶容量
+     */
+    private long userBurst = 5;
+
+    /**
+     * 每个用户名每分钟补充的令牌数
+     */
+    private long userPerMinute = 5;
+
+    /**
+     * 每个 IP 的令牌桶容量（门店通常共用出口 IP，需留足余量）
+     */
+    private long ipBurst = 50;
+
+    /**
+     * 每个 IP 每分钟补充的令牌数
+     */
+    private long ipPerMinute = 120;
+}
@@ -1,5 +1,7 @@
 package com.carsales.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,17 +10,87 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
  * 安全配置类
  * 提供密码加密等安全相关的Bean
  */
+@Slf4j
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * BCrypt 允许的最大强度
+     */
+    private static final int MAX_STRENGTH = 16;
+
+    /**
+     * 校准时每个强度的测量次数（取最小值，排除 JIT 预热和调度抖动）
+     */
+    private static final int SAMPLES = 3;
+
+    /**
+     * 目标单次密码校验耗时（毫秒）
+     */
+    @Value("${security.bcrypt.target-millis:80}")
+    private long targetMillis;
+
+    /**
+     * 最低强度（安全下限，硬件再慢也不低于此值）
+     */
+    @Value("${security.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    /**
+     * 固定强度，大于 0 时跳过校准（硬件不一致的多实例集群建议固定，避免在不同实例间来回重新哈希）
+     */
+    @Value("${security.bcrypt.strength:0}")
+    private int fixedStrength;
+
+    /**
+     * BCrypt 强度校准
+     * 从最低强度开始测量单次校验耗时，强度每加 1 耗时翻倍，
+     * 选择不超过目标耗时的最大强度
+     * 
+     * @return 校准结果
+     */
+    @Bean
+    public BCryptCalibration bCryptCalibration() {
+        if (fixedStrength > 0) {
+            long millis = measure(fixedStrength);
+            log.info("BCrypt 强度已固定 - 强度: {}, 单次校验耗时: {}ms", fixedStrength, millis);
+            return new BCryptCalibration(fixedStrength, millis, targetMillis);
+        }
+
+        int strength = minStrength;
+        long millis = measure(strength);
+        while (strength < MAX_STRENGTH && millis * 2 <= targetMillis) {
+            strength++;
+            millis = measure(strength);
+        }
+
+        log.info("BCrypt 强度校准完成 - 强度: {}, 单次校验耗时: {}ms, 目标: {}ms", strength, millis, targetMillis);
+        return new BCryptCalibration(strength, millis, targetMillis);
+    }
+
     /**
      * BCrypt密码编码器
-     * 用于密码加密和验证
+     * 用于密码加密和验证，强度取校准结果
      * 
      * @return BCryptPasswordEncoder实例
      */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(BCryptCalibration bCryptCalibration) {
+        return new BCryptPasswordEncoder(bCryptCalibration.getStrength());
+    }
+
+    /**
+     * 测量指定强度下单次密码校验的耗时（毫秒）
+     */
+    private long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String hash = encoder.encode("calibration-sample");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibration-sample", hash);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
     }
 }
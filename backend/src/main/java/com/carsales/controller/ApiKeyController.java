@@ -0,0 +1,85 @@
+package com.carsales.controller;
+
+import com.carsales.annotation.OperationLog;
+import com.carsales.annotation.RequireRole;
+import com.carsales.common.Result;
+import com.carsales.dto.ApiKeyCreateRequest;
+import com.carsales.dto.ApiKeyCreateResponse;
+import com.carsales.entity.ApiKey;
+import com.carsales.service.ApiKeyService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * API Key 管理控制器
+ * 提供机器调用方凭证的创建、查询、启用/禁用和删除接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/api-keys")
+@RequiredArgsConstructor
+public class ApiKeyController {
+
+    private final ApiKeyService apiKeyService;
+
+    /**
+     * 创建 API Key（明文 Key 只在响应中返回一次）
+     *
+     * @param request 创建请求
+     * @return 创建结果
+     */
+    @PostMapping
+    @RequireRole({ "ADMIN" })
+    @OperationLog("创建API Key")
+    public Result<ApiKeyCreateResponse> createApiKey(@Valid @RequestBody ApiKeyCreateRequest request) {
+        log.info("收到API Key创建请求 - 名称: {}, 角色: {}", request.getName(), request.getRole());
+        return Result.success(apiKeyService.createApiKey(request));
+    }
+
+    /**
+     * 查询所有 API Key
+     *
+     * @return API Key 列表
+     */
+    @GetMapping
+    @RequireRole({ "ADMIN" })
+    public Result<List<ApiKey>> listApiKeys() {
+        log.info("收到API Key列表查询请求");
+        return Result.success(apiKeyService.listApiKeys());
+    }
+
+    /**
+     * 修改 API Key 状态（启用/禁用）
+     *
+     * @param id     API Key ID
+     * @param status 状态：0-禁用, 1-启用
+     * @return 成功响应
+     */
+    @PutMapping("/{id}/status")
+    @RequireRole({ "ADMIN" })
+    @OperationLog("修改API Key状态")
+    public Result<String> updateStatus(@PathVariable Long id, @RequestParam Integer status) {
+        log.info("收到API Key状态修改请求 - ID: {}, 状态: {}", id, status);
+        apiKeyService.updateStatus(id, status);
+        return Result.success("API Key状态修改成功");
+    }
+
+    /**
+     * 删除 API Key
+     *
+     * @param id API Key ID
+     * @return 成功响应
+     */
+    @DeleteMapping("/{id}")
+    @RequireRole({ "ADMIN" })
+    @OperationLog("删除API Key")
+    public Result<String> deleteApiKey(@PathVariable Long id) {
+        log.info("收到API Key删除请求 - ID: {}", id);
+        apiKeyService.deleteApiKey(id);
+        return Result.success("API Key删除成功");
+    }
+}
@@ -5,6 +5,8 @@ import com.carsales.common.Result;
 import com.carsales.dto.LoginRequest;
 import com.carsales.dto.LoginResponse;
 import com.carsales.service.UserService;
+import com.carsales.util.IpUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,28 +27,29 @@ public class AuthController {
     /**
      * 用户登录
      * 
-     * @param request 登录请求
+     * @param request     登录请求
+     * @param httpRequest HTTP 请求（用于获取客户端 IP）
      * @return 登录响应（包含Token和用户信息）
      */
     @PostMapping("/login")
     @OperationLog("用户登录")
-    public Result<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+    public Result<LoginResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         log.info("收到登录请求 - 用户名: {}", request.getUsername());
-        LoginResponse response = userService.login(request);
+        LoginResponse response = userService.login(request, IpUtil.getIpAddress(httpRequest));
         return Result.success(response);
     }
 
     /**
      * 用户登出
      * 
-     * @param username 用户名（从请求头或参数获取）
+     * @param token JWT Token（从请求头获取）
      * @return 成功响应
      */
     @PostMapping("/logout")
-    public Result<String> logout(@RequestParam(required = false) String username) {
-        log.info("收到登出请求 - 用户名: {}", username);
-        if (username != null) {
-            userService.logout(username);
+    public Result<String> logout(@RequestHeader(value = "Authorization", required = false) String token) {
+        log.info("收到登出请求");
+        if (token != null && token.startsWith("Bearer ")) {
+            userService.logout(token.substring(7));
         }
         return Result.success("登出成功");
     }
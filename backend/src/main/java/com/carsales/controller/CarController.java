@@ -1,27 +1,52 @@
 package com.carsales.controller;
 
 import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.carsales.annotation.OperationLog;
 import com.carsales.annotation.RequireRole;
+import com.carsales.common.CursorPage;
+import com.carsales.common.LoginUser;
 import com.carsales.common.Result;
+import com.carsales.dto.CarBulkUpdateRequest;
 import com.carsales.dto.CarCreateRequest;
+import com.carsales.dto.CarFacetsVO;
 import com.carsales.dto.CarQueryRequest;
+import com.carsales.dto.CarStatusRequest;
 import com.carsales.dto.CarUpdateRequest;
+import com.carsales.entity.CarImportJob;
 import com.carsales.entity.CarInfo;
+import com.carsales.exception.BusinessException;
+import com.carsales.service.CarExportService;
+import com.carsales.service.CarFacetService;
+import com.carsales.service.CarImportService;
 import com.carsales.service.CarService;
+import com.carsales.service.DataVersionService;
+import com.carsales.service.ReservationService;
+import com.carsales.util.ETagUtil;
+import com.carsales.util.UserContext;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 车辆管理控制器
@@ -34,6 +59,11 @@ import java.util.Map;
 public class CarController {
 
     private final CarService carService;
+    private final CarFacetService carFacetService;
+    private final CarImportService carImportService;
+    private final CarExportService carExportService;
+    private final DataVersionService dataVersionService;
+    private final ReservationService reservationService;
 
     /**
      * 创建车辆
@@ -68,6 +98,42 @@ public class CarController {
         return Result.success("车辆更新成功", carInfo);
     }
 
+    /**
+     * 批量更新车辆价格（按ID列表或筛选条件，已售车辆不参与）
+     * 
+     * @param request 批量更新请求
+     * @return 更新结果（更新数量、分块数）
+     */
+    @PutMapping("/bulk")
+    @RequireRole({ "ADMIN" })
+    @OperationLog("批量更新车辆")
+    public Result<Map<String, Object>> bulkUpdate(@Valid @RequestBody CarBulkUpdateRequest request) {
+        log.info("收到车辆批量更新请求 - ID数: {}, 品牌: {}, 型号: {}, 年份: {}, 价格: {}, 调价: {}%",
+                request.getIds() == null ? 0 : request.getIds().size(), request.getBrand(), request.getModel(),
+                request.getYear(), request.getPrice(), request.getPriceChangePercent());
+        Map<String, Object> result = carService.bulkUpdate(request);
+        return Result.success("批量更新完成，共更新 " + result.get("updatedCount") + " 辆车", result);
+    }
+
+    /**
+     * 变更车辆状态（乐观锁，并发冲突时返回 3008 而不是等待）
+     * 售出只能通过下单；解除锁定时车辆有预留则按释放预留处理
+     * 
+     * @param id      车辆ID
+     * @param request 状态变更请求（期望的当前状态、目标状态、可选的版本号）
+     * @return 变更后的车辆信息
+     */
+    @PutMapping("/{id}/status")
+    @RequireRole({ "ADMIN", "SALESPERSON" })
+    @OperationLog("变更车辆状态")
+    public Result<CarInfo> changeStatus(@PathVariable Long id,
+            @Valid @RequestBody CarStatusRequest request) {
+        log.info("收到车辆状态变更请求 - ID: {}, {} -> {}, 版本: {}",
+                id, request.getFromStatus(), request.getToStatus(), request.getVersion());
+        CarInfo carInfo = reservationService.changeCarStatus(id, request, currentUser());
+        return Result.success("车辆状态变更成功", carInfo);
+    }
+
     /**
      * 删除车辆
      * 
@@ -86,24 +152,32 @@ public class CarController {
     /**
      * 根据ID查询车辆
      * 
-     * @param id 车辆ID
+     * @param id         车辆ID
+     * @param webRequest 请求（If-None-Match 与当前 ETag 一致时返回 304）
      * @return 车辆信息
      */
     @GetMapping("/{id}")
-    public Result<CarInfo> getCarById(@PathVariable Long id) {
+    public Result<CarInfo> getCarById(@PathVariable Long id, WebRequest webRequest) {
         log.info("收到车辆查询请求 - ID: {}", id);
         CarInfo carInfo = carService.getCarById(id);
+        if (webRequest.checkNotModified(ETagUtil.forRow("car", id, carInfo.getVersion(), carInfo.getUpdateTime()))) {
+            return null;
+        }
         return Result.success(carInfo);
     }
 
     /**
      * 分页查询车辆列表（支持多条件筛选）
      * 
-     * @param request 查询请求
+     * @param request    查询请求
+     * @param webRequest 请求（车辆数据未变更时不执行查询，直接返回 304）
      * @return 分页结果
      */
     @GetMapping
-    public Result<Page<CarInfo>> queryCarList(CarQueryRequest request) {
+    public Result<Page<CarInfo>> queryCarList(CarQueryRequest request, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.listETag("cars", request, DataVersionService.CAR_INFO))) {
+            return null;
+        }
         log.info("收到车辆列表查询请求 - 品牌: {}, 价格区间: [{}, {}], 状态: {}, 页码: {}",
                 request.getBrand(), request.getMinPrice(), request.getMaxPrice(),
                 request.getStatus(), request.getPageNum());
@@ -112,17 +186,19 @@ public class CarController {
     }
 
     /**
-     * 批量导入车辆
+     * 批量导入车辆（提交后台导入任务，立即返回任务，通过任务接口查询进度）
      * 
      * @param file Excel 文件
-     * @return 导入结果
+     * @param mode 提交模式：atomic-整体提交（默认，任何一行失败整体回滚）, chunked-分块提交（跳过失败的行）
+     * @return 导入任务
      */
     @PostMapping("/import")
     @RequireRole({ "ADMIN" })
     @OperationLog("批量导入车辆")
-    public Result<Map<String, Object>> importCars(@RequestParam("file") MultipartFile file) {
-        log.info("收到车辆导入请求 - 文件名: {}, 大小: {} bytes",
-                file.getOriginalFilename(), file.getSize());
+    public Result<CarImportJob> importCars(@RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String mode) {
+        log.info("收到车辆导入请求 - 文件名: {}, 大小: {} bytes, 模式: {}",
+                file.getOriginalFilename(), file.getSize(), mode);
 
         if (file.isEmpty()) {
             return Result.error(5001, "文件不能为空");
@@ -133,44 +209,151 @@ public class CarController {
             return Result.error(5002, "文件格式错误，只支持 .xlsx 或 .xls 格式");
         }
 
-        Map<String, Object> result = carService.importCars(file);
-        return Result.success("导入完成", result);
+        CarImportJob job = carImportService.submit(file, mode, currentUser());
+        return Result.success("导入任务已提交", job);
     }
 
     /**
-     * 导出车辆列表
+     * 查询最近的导入任务
      * 
-     * @param request  查询条件
+     * @param limit 最多返回条数（默认 20）
+     * @return 导入任务列表
+     */
+    @GetMapping("/import-jobs")
+    @RequireRole({ "ADMIN" })
+    public Result<List<CarImportJob>> listImportJobs(@RequestParam(required = false) Integer limit) {
+        return Result.success(carImportService.listJobs(limit));
+    }
+
+    /**
+     * 查询导入任务进度（已读取、校验通过、已写入、失败行数）
+     * 
+     * @param id 任务ID
+     * @return 导入任务
+     */
+    @GetMapping("/import-jobs/{id}")
+    @RequireRole({ "ADMIN" })
+    public Result<CarImportJob> getImportJob(@PathVariable Long id) {
+        return Result.success(carImportService.getJob(id));
+    }
+
+    /**
+     * 下载导入任务的错误文件（失败的行和原因，修改后可直接重新导入）
+     * 
+     * @param id       任务ID
      * @param response HTTP 响应
      */
-    @GetMapping("/export")
-    public void exportCars(CarQueryRequest request, HttpServletResponse response) {
-        log.info("收到车辆导出请求 - 品牌: {}, 价格区间: [{}, {}], 状态: {}",
-                request.getBrand(), request.getMinPrice(), request.getMaxPrice(), request.getStatus());
+    @GetMapping("/import-jobs/{id}/errors")
+    @RequireRole({ "ADMIN" })
+    public void downloadImportErrors(@PathVariable Long id, HttpServletResponse response) {
+        Path errorFile = carImportService.getErrorFile(id);
+        log.info("收到导入错误文件下载请求 - 任务ID: {}", id);
 
         try {
-            // 设置响应头
             response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
             response.setCharacterEncoding("utf-8");
 
-            String fileName = URLEncoder.encode("车辆列表", StandardCharsets.UTF_8).replaceAll("\\+", "%20");
+            String fileName = URLEncoder.encode("车辆导入错误行", StandardCharsets.UTF_8).replaceAll("\\+", "%20");
             response.setHeader("Content-disposition", "attachment;filename*=utf-8''" + fileName + ".xlsx");
+            response.setContentLengthLong(Files.size(errorFile));
 
-            // 查询数据
-            List<CarInfo> carList = carService.exportCars(request);
+            Files.copy(errorFile, response.getOutputStream());
+        } catch (IOException e) {
+            log.error("导入错误文件下载失败 - 任务ID: {}", id, e);
+            throw new RuntimeException("错误文件下载失败");
+        }
+    }
 
-            // 写入 Excel，设置列宽自适应
-            EasyExcel.write(response.getOutputStream(), CarInfo.class)
-                    .sheet("车辆列表")
-                    .registerWriteHandler(
-                            new com.alibaba.excel.write.style.column.LongestMatchColumnWidthStyleStrategy())
-                    .doWrite(carList);
+    /**
+     * 取消导入任务（整体提交模式回滚已写入的数据，分块提交模式保留已提交的分块）
+     * 
+     * @param id 任务ID
+     * @return 成功响应
+     */
+    @PostMapping("/import-jobs/{id}/cancel")
+    @RequireRole({ "ADMIN" })
+    @OperationLog("取消车辆导入")
+    public Result<String> cancelImportJob(@PathVariable Long id) {
+        log.info("收到取消车辆导入请求 - 任务ID: {}", id);
+        carImportService.cancel(id);
+        return Result.success("已请求取消导入");
+    }
 
-            log.info("车辆导出成功 - 数量: {}", carList.size());
+    /**
+     * 导出车辆列表（游标流式读取，边查询边写入响应，内存占用与导出总数无关）
+     * csv 和 ndjson 格式不经过 Excel 样式和列宽计算，适合 BI 加载、脚本等程序消费方；
+     * 同时导出数和单次导出时间有上限（见 CarExportService），开始写出后的失败直接断开连接
+     * 
+     * @param request 查询条件
+     * @param format  导出格式：xlsx（默认）、csv、ndjson
+     * @param gzip    是否 gzip 压缩（仅 csv、ndjson，文件名加 .gz）
+     * @param webRequest 当前请求
+     * @return 流式响应
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCars(CarQueryRequest request,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            WebRequest webRequest) {
+        String exportFormat = CarExportService.parseFormat(format);
+        log.info("收到车辆导出请求 - 品牌: {}, 价格区间: [{}, {}], 状态: {}, 格式: {}, 压缩: {}",
+                request.getBrand(), request.getMinPrice(), request.getMaxPrice(), request.getStatus(),
+                exportFormat, gzip);
 
-        } catch (IOException e) {
-            log.error("车辆导出失败", e);
-            throw new RuntimeException("导出失败");
+        StreamingResponseBody body;
+        String contentType;
+        String extension;
+        switch (exportFormat) {
+            case "csv" -> {
+                body = out -> carExportService.writeCsv(request, out);
+                contentType = "text/csv;charset=UTF-8";
+                extension = ".csv";
+            }
+            case "ndjson" -> {
+                body = out -> carExportService.writeNdjson(request, out);
+                contentType = "application/x-ndjson";
+                extension = ".ndjson";
+            }
+            default -> {
+                body = out -> writeXlsx(request, out);
+                contentType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+                extension = ".xlsx";
+            }
+        }
+        if (gzip && !"xlsx".equals(exportFormat)) {
+            // xlsx 本身是 zip 格式，不再压缩
+            StreamingResponseBody plain = body;
+            body = out -> {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, CarExportService.BUFFER_SIZE);
+                plain.writeTo(gzipOut);
+                gzipOut.finish();
+            };
+            contentType = "application/gzip";
+            extension += ".gz";
+        }
+
+        // 名额在写出前占用，不足时按普通错误返回 5007
+        body = carExportService.guard(exportFormat + (gzip ? "+gzip" : ""), webRequest, body);
+
+        String fileName = URLEncoder.encode("车辆列表", StandardCharsets.UTF_8).replaceAll("\\+", "%20");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename*=utf-8''" + fileName + extension)
+                .contentType(MediaType.parseMediaType(contentType))
+                .body(body);
+    }
+
+    /**
+     * 边查询边写入 Excel（EasyExcel 使用 SXSSF，只在内存中保留最近写入的行），设置列宽自适应
+     */
+    private void writeXlsx(CarQueryRequest request, OutputStream out) throws IOException {
+        try (ExcelWriter excelWriter = EasyExcel.write(out, CarInfo.class)
+                .autoCloseStream(false)
+                .registerWriteHandler(
+                        new com.alibaba.excel.write.style.column.LongestMatchColumnWidthStyleStrategy())
+                .build()) {
+            WriteSheet writeSheet = EasyExcel.writerSheet("车辆列表").build();
+            int total = carExportService.exportPages(request, page -> excelWriter.write(page, writeSheet));
+            log.info("车辆导出成功 - 数量: {}", total);
         }
     }
 
@@ -205,4 +388,56 @@ public class CarController {
             throw new RuntimeException("模板下载失败");
         }
     }
+
+    /**
+     * 游标分页查询车辆列表（用于移动端无限滚动，翻页深度不影响查询速度）
+     * 
+     * @param request    查询请求（cursor 为上一页返回的 nextCursor）
+     * @param webRequest 请求（车辆数据未变更时不执行查询，直接返回 304）
+     * @return 游标分页结果
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPage<CarInfo>> queryCarListByCursor(CarQueryRequest request, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.listETag("cars-cursor", request, DataVersionService.CAR_INFO))) {
+            return null;
+        }
+        log.info("收到车辆游标查询请求 - 品牌: {}, 价格区间: [{}, {}], 状态: {}",
+                request.getBrand(), request.getMinPrice(), request.getMaxPrice(), request.getStatus());
+        return Result.success(carService.queryCarListByCursor(request));
+    }
+
+    /**
+     * 按 VIN 片段查询车辆
+     * 
+     * @param q     VIN 片段（至少 4 位，可以是任意位置，如后 6~8 位）
+     * @param limit 最多返回条数（默认 20，最大 100）
+     * @return 匹配的车辆（按创建时间倒序）
+     */
+    @GetMapping("/vin-search")
+    public Result<List<CarInfo>> searchByVin(@RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        log.info("收到 VIN 片段查询请求 - 片段: {}, 条数: {}", q, limit);
+        return Result.success(carService.searchByVin(q, limit));
+    }
+
+    /**
+     * 查询车辆分面统计（筛选侧栏的品牌、状态、价格区间、年份数量）
+     * 
+     * @param request 查询请求（当前筛选条件）
+     * @return 分面统计
+     */
+    @GetMapping("/facets")
+    public Result<CarFacetsVO> getFacets(CarQueryRequest request) {
+        log.info("收到车辆分面统计请求 - 品牌: {}, 价格区间: [{}, {}], 状态: {}",
+                request.getBrand(), request.getMinPrice(), request.getMaxPrice(), request.getStatus());
+        return Result.success(carFacetService.getFacets(request));
+    }
+
+    private LoginUser currentUser() {
+        LoginUser loginUser = UserContext.getCurrentUser();
+        if (loginUser == null) {
+            throw new BusinessException(1002, "未登录或 Token 无效");
+        }
+        return loginUser;
+    }
 }
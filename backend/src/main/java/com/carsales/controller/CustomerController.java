@@ -2,16 +2,20 @@ package com.carsales.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.carsales.annotation.RequireRole;
+import com.carsales.common.CursorPage;
 import com.carsales.common.Result;
 import com.carsales.dto.CustomerCreateRequest;
 import com.carsales.dto.CustomerQueryRequest;
 import com.carsales.dto.CustomerUpdateRequest;
 import com.carsales.entity.Customer;
 import com.carsales.service.CustomerService;
+import com.carsales.service.DataVersionService;
+import com.carsales.util.ETagUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * 客户管理控制器
@@ -24,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final DataVersionService dataVersionService;
 
     /**
      * 创建客户
@@ -71,27 +76,51 @@ public class CustomerController {
     /**
      * 根据ID查询客户
      * 
-     * @param id 客户ID
+     * @param id         客户ID
+     * @param webRequest 请求（If-None-Match 与当前 ETag 一致时返回 304）
      * @return 客户信息
      */
     @GetMapping("/{id}")
-    public Result<Customer> getCustomerById(@PathVariable Long id) {
+    public Result<Customer> getCustomerById(@PathVariable Long id, WebRequest webRequest) {
         log.info("收到客户查询请求 - ID: {}", id);
         Customer customer = customerService.getCustomerById(id);
+        if (webRequest.checkNotModified(ETagUtil.forRow("customer", id, null, customer.getUpdateTime()))) {
+            return null;
+        }
         return Result.success(customer);
     }
 
     /**
      * 分页查询客户列表（支持姓名模糊搜索和手机号精确搜索）
      * 
-     * @param request 查询请求
+     * @param request    查询请求
+     * @param webRequest 请求（客户数据未变更时不执行查询，直接返回 304）
      * @return 分页结果
      */
     @GetMapping
-    public Result<Page<Customer>> queryCustomerList(CustomerQueryRequest request) {
+    public Result<Page<Customer>> queryCustomerList(CustomerQueryRequest request, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.listETag("customers", request, DataVersionService.CUSTOMER))) {
+            return null;
+        }
         log.info("收到客户列表查询请求 - 姓名: {}, 手机号: {}, 页码: {}",
                 request.getName(), request.getPhone(), request.getPageNum());
         Page<Customer> page = customerService.queryCustomerList(request);
         return Result.success(page);
     }
+
+    /**
+     * 游标分页查询客户列表（用于移动端无限滚动，翻页深度不影响查询速度）
+     * 
+     * @param request    查询请求（cursor 为上一页返回的 nextCursor）
+     * @param webRequest 请求（客户数据未变更时不执行查询，直接返回 304）
+     * @return 游标分页结果
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPage<Customer>> queryCustomerListByCursor(CustomerQueryRequest request, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.listETag("customers-cursor", request, DataVersionService.CUSTOMER))) {
+            return null;
+        }
+        log.info("收到客户游标查询请求 - 姓名: {}, 手机号: {}", request.getName(), request.getPhone());
+        return Result.success(customerService.queryCustomerListByCursor(request));
+    }
 }
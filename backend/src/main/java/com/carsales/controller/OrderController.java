@@ -2,16 +2,22 @@ package com.carsales.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.carsales.annotation.OperationLog;
+import com.carsales.common.CursorPage;
+import com.carsales.common.LoginUser;
 import com.carsales.common.Result;
 import com.carsales.dto.OrderCreateRequest;
 import com.carsales.dto.OrderDetailVO;
 import com.carsales.dto.OrderQueryRequest;
 import com.carsales.entity.SalesOrder;
+import com.carsales.exception.BusinessException;
+import com.carsales.service.DataVersionService;
 import com.carsales.service.OrderService;
+import com.carsales.util.UserContext;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * 订单管理控制器
@@ -24,39 +30,42 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final DataVersionService dataVersionService;
 
     /**
      * 创建订单（调用存储过程）
      * 
      * @param request 订单创建请求
-     * @param token   JWT Token（从请求头获取）
      * @return 创建的订单详情
      */
     @PostMapping
     @OperationLog("创建订单")
-    public Result<OrderDetailVO> createOrder(
-            @Valid @RequestBody OrderCreateRequest request,
-            @RequestHeader("Authorization") String token) {
+    public Result<OrderDetailVO> createOrder(@Valid @RequestBody OrderCreateRequest request) {
         log.info("收到订单创建请求 - 客户ID: {}, 车辆ID: {}, 成交价: {}",
                 request.getCustomerId(), request.getCarId(), request.getActualPrice());
 
-        // 移除 "Bearer " 前缀
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
+        // 当前登录用户由 AuthInterceptor 验证后写入请求上下文
+        LoginUser loginUser = UserContext.getCurrentUser();
+        if (loginUser == null) {
+            throw new BusinessException(1002, "未登录或 Token 无效");
         }
 
-        OrderDetailVO orderDetail = orderService.createOrder(request, token);
+        OrderDetailVO orderDetail = orderService.createOrder(request, loginUser);
         return Result.success("订单创建成功", orderDetail);
     }
 
     /**
      * 根据ID查询订单详情
      * 
-     * @param id 订单ID
+     * @param id         订单ID
+     * @param webRequest 请求（订单及关联的客户、车辆数据未变更时不执行查询，直接返回 304）
      * @return 订单详情（包含关联的用户、客户、车辆信息）
      */
     @GetMapping("/{id}")
-    public Result<OrderDetailVO> getOrderDetailById(@PathVariable Long id) {
+    public Result<OrderDetailVO> getOrderDetailById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.listETag("order", id, DataVersionService.SALES_ORDER, DataVersionService.CAR_INFO, DataVersionService.CUSTOMER))) {
+            return null;
+        }
         log.info("收到订单详情查询请求 - ID: {}", id);
         OrderDetailVO orderDetail = orderService.getOrderDetailById(id);
         return Result.success(orderDetail);
@@ -65,15 +74,36 @@ public class OrderController {
     /**
      * 分页查询订单列表（支持多条件筛选）
      * 
-     * @param request 查询请求
+     * @param request    查询请求
+     * @param webRequest 请求（订单及关联的客户、车辆数据未变更时不执行查询，直接返回 304）
      * @return 分页结果（包含关联的用户、客户、车辆信息）
      */
     @GetMapping
-    public Result<Page<OrderDetailVO>> queryOrderList(OrderQueryRequest request) {
+    public Result<Page<OrderDetailVO>> queryOrderList(OrderQueryRequest request, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.listETag("orders", request, DataVersionService.SALES_ORDER, DataVersionService.CAR_INFO, DataVersionService.CUSTOMER))) {
+            return null;
+        }
         log.info("收到订单列表查询请求 - 日期区间: [{}, {}], 销售员ID: {}, 状态: {}, 页码: {}",
                 request.getStartDate(), request.getEndDate(), request.getSalesUserId(),
                 request.getStatus(), request.getPageNum());
         Page<OrderDetailVO> page = orderService.queryOrderList(request);
         return Result.success(page);
     }
+
+    /**
+     * 游标分页查询订单列表（用于移动端无限滚动，翻页深度不影响查询速度）
+     * 
+     * @param request    查询请求（cursor 为上一页返回的 nextCursor）
+     * @param webRequest 请求（订单及关联的客户、车辆数据未变更时不执行查询，直接返回 304）
+     * @return 游标分页结果
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPage<OrderDetailVO>> queryOrderListByCursor(OrderQueryRequest request, WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersionService.listETag("orders-cursor", request, DataVersionService.SALES_ORDER, DataVersionService.CAR_INFO, DataVersionService.CUSTOMER))) {
+            return null;
+        }
+        log.info("收到订单游标查询请求 - 日期区间: [{}, {}], 销售员ID: {}, 状态: {}",
+                request.getStartDate(), request.getEndDate(), request.getSalesUserId(), request.getStatus());
+        return Result.success(orderService.queryOrderListByCursor(request));
+    }
 }
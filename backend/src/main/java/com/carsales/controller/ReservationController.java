@@ -0,0 +1,79 @@
+package com.carsales.controller;
+
+import com.carsales.annotation.OperationLog;
+import com.carsales.annotation.RequireRole;
+import com.carsales.common.LoginUser;
+import com.carsales.common.Result;
+import com.carsales.dto.ReservationCreateRequest;
+import com.carsales.entity.CarReservation;
+import com.carsales.exception.BusinessException;
+import com.carsales.service.ReservationService;
+import com.carsales.util.UserContext;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 车辆预留控制器
+ * 提供限时预留、提前释放、查询预留接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    /**
+     * 预留车辆（到期自动释放）
+     * 
+     * @param request 预留请求
+     * @return 预留记录
+     */
+    @PostMapping
+    @RequireRole({ "ADMIN", "SALESPERSON" })
+    @OperationLog("预留车辆")
+    public Result<CarReservation> reserve(@Valid @RequestBody ReservationCreateRequest request) {
+        log.info("收到车辆预留请求 - 车辆ID: {}, 时长: {} 分钟", request.getCarId(), request.getMinutes());
+        CarReservation reservation = reservationService.reserve(request, currentUser());
+        return Result.success("车辆预留成功", reservation);
+    }
+
+    /**
+     * 提前释放预留
+     * 
+     * @param id 预留记录ID
+     * @return 成功响应
+     */
+    @DeleteMapping("/{id}")
+    @RequireRole({ "ADMIN", "SALESPERSON" })
+    @OperationLog("释放车辆预留")
+    public Result<String> release(@PathVariable Long id) {
+        log.info("收到释放车辆预留请求 - 预留ID: {}", id);
+        reservationService.release(id, currentUser());
+        return Result.success("预留已释放");
+    }
+
+    /**
+     * 查询预留中的记录（销售员只能看到自己的预留）
+     * 
+     * @return 预留记录列表
+     */
+    @GetMapping
+    @RequireRole({ "ADMIN", "SALESPERSON" })
+    public Result<List<CarReservation>> listActive() {
+        return Result.success(reservationService.listActive(currentUser()));
+    }
+
+    private LoginUser currentUser() {
+        LoginUser loginUser = UserContext.getCurrentUser();
+        if (loginUser == null) {
+            throw new BusinessException(1002, "未登录或 Token 无效");
+        }
+        return loginUser;
+    }
+}
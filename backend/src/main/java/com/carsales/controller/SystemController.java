@@ -0,0 +1,72 @@
+package com.carsales.controller;
+
+import com.carsales.annotation.RequireRole;
+import com.carsales.common.Result;
+import com.carsales.config.BCryptCalibration;
+import com.carsales.service.ApiKeyService;
+import com.carsales.service.CarImportService;
+import com.carsales.service.CarInventoryIndex;
+import com.carsales.service.LoginAdmissionService;
+import com.carsales.service.PageCountService;
+import com.carsales.service.ReservationService;
+import com.carsales.service.TokenBlocklistService;
+import com.carsales.service.UserService;
+import com.carsales.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 系统监控控制器
+ * 提供缓存、登录准入等运行时指标查询接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/system")
+@RequiredArgsConstructor
+public class SystemController {
+
+    private final JwtUtil jwtUtil;
+    private final LoginAdmissionService loginAdmissionService;
+    private final TokenBlocklistService tokenBlocklistService;
+    private final BCryptCalibration bCryptCalibration;
+    private final UserService userService;
+    private final ApiKeyService apiKeyService;
+    private final PageCountService pageCountService;
+    private final CarInventoryIndex carInventoryIndex;
+    private final ReservationService reservationService;
+    private final CarImportService carImportService;
+
+    /**
+     * 查询运行时指标
+     *
+     * @return 各项指标
+     */
+    @GetMapping("/metrics")
+    @RequireRole({ "ADMIN" })
+    public Result<Map<String, Object>> getMetrics() {
+        log.info("收到运行时指标查询请求");
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("tokenCache", jwtUtil.getTokenCacheStats());
+        metrics.put("loginAdmission", loginAdmissionService.getStats());
+        metrics.put("revokedTokens", tokenBlocklistService.size());
+
+        Map<String, Object> bcrypt = new LinkedHashMap<>();
+        bcrypt.put("strength", bCryptCalibration.getStrength());
+        bcrypt.put("measuredMillis", bCryptCalibration.getMeasuredMillis());
+        bcrypt.put("targetMillis", bCryptCalibration.getTargetMillis());
+        bcrypt.put("rehashCount", userService.getRehashCount());
+        metrics.put("bcrypt", bcrypt);
+        metrics.put("apiKeys", apiKeyService.getStats());
+        metrics.put("pageCountCache", pageCountService.getStats());
+        metrics.put("carIndex", carInventoryIndex.getStats());
+        metrics.put("reservations", reservationService.getStats());
+        metrics.put("carImport", carImportService.getStats());
+        return Result.success(metrics);
+    }
+}
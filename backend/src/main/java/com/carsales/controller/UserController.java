@@ -0,0 +1,54 @@
+package com.carsales.controller;
+
+import com.carsales.annotation.OperationLog;
+import com.carsales.annotation.RequireRole;
+import com.carsales.common.Result;
+import com.carsales.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 用户管理控制器
+ * 提供用户角色、状态修改接口
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class UserController {
+
+    private final UserService userService;
+
+    /**
+     * 修改用户状态（启用/禁用）
+     *
+     * @param id     用户ID
+     * @param status 状态：0-禁用, 1-启用
+     * @return 成功响应
+     */
+    @PutMapping("/{id}/status")
+    @RequireRole({ "ADMIN" })
+    @OperationLog("修改用户状态")
+    public Result<String> updateUserStatus(@PathVariable Long id, @RequestParam Integer status) {
+        log.info("收到用户状态修改请求 - ID: {}, 状态: {}", id, status);
+        userService.updateUserStatus(id, status);
+        return Result.success("用户状态修改成功");
+    }
+
+    /**
+     * 修改用户角色
+     *
+     * @param id   用户ID
+     * @param role 角色：ADMIN-管理员, SALESPERSON-销售员
+     * @return 成功响应
+     */
+    @PutMapping("/{id}/role")
+    @RequireRole({ "ADMIN" })
+    @OperationLog("修改用户角色")
+    public Result<String> updateUserRole(@PathVariable Long id, @RequestParam String role) {
+        log.info("收到用户角色修改请求 - ID: {}, 角色: {}", id, role);
+        userService.updateUserRole(id, role);
+        return Result.success("用户角色修改成功");
+    }
+}
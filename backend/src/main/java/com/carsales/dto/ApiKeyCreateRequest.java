@@ -0,0 +1,33 @@
+package com.carsales.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+/**
+ * API Key 创建请求DTO
+ */
+@Data
+public class ApiKeyCreateRequest {
+
+    /**
+     * 名称（调用方标识）
+     */
+    @NotBlank(message = "名称不能为空")
+    @Size(max = 50, message = "名称不能超过50个字符")
+    private String name;
+
+    /**
+     * 角色：只能为 SALESPERSON-销售员（API Key 不授予管理员权限，不能管理 Key 和用户）
+     */
+    @NotBlank(message = "角色不能为空")
+    @Pattern(regexp = "SALESPERSON", message = "API Key 角色只能为 SALESPERSON")
+    private String role;
+
+    /**
+     * 每分钟允许的调用次数
+     */
+    @NotNull(message = "调用频率限制不能为空")
+    @Min(value = 1, message = "调用频率限制不能小于1")
+    @Max(value = 100000, message = "调用频率限制不能大于100000")
+    private Integer rateLimit;
+}
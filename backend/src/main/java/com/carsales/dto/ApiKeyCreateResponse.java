@@ -0,0 +1,42 @@
+package com.carsales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * API Key 创建响应DTO
+ * 明文 Key 只在创建时返回一次，服务端不保存
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiKeyCreateResponse {
+
+    /**
+     * API Key ID
+     */
+    private Long id;
+
+    /**
+     * 名称
+     */
+    private String name;
+
+    /**
+     * 明文 Key（请求头 X-API-Key 使用）
+     */
+    private String apiKey;
+
+    /**
+     * 角色
+     */
+    private String role;
+
+    /**
+     * 每分钟允许的调用次数
+     */
+    private Integer rateLimit;
+}
@@ -0,0 +1,65 @@
+package com.carsales.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 车辆批量更新请求DTO
+ * 按车辆ID列表或筛选条件（与列表查询相同，另支持型号、年份）选择车辆，批量修改价格。
+ * 已售车辆不参与批量更新；状态变更涉及预留和订单，不支持批量修改。
+ */
+@Data
+public class CarBulkUpdateRequest {
+
+    /**
+     * 车辆ID列表（指定后忽略筛选条件）
+     */
+    @Size(max = 50000, message = "一次最多更新50000辆车")
+    private List<Long> ids;
+
+    /**
+     * 品牌（精确匹配）
+     */
+    private String brand;
+
+    /**
+     * 型号（精确匹配）
+     */
+    private String model;
+
+    /**
+     * 年份
+     */
+    private Integer year;
+
+    /**
+     * 最低价格
+     */
+    private BigDecimal minPrice;
+
+    /**
+     * 最高价格
+     */
+    private BigDecimal maxPrice;
+
+    /**
+     * 状态：0-在库, 1-锁定
+     */
+    private Integer status;
+
+    /**
+     * 修改为指定价格
+     */
+    @DecimalMin(value = "0.01", message = "价格必须大于0")
+    private BigDecimal price;
+
+    /**
+     * 按百分比调价（如 -3 表示降价 3%）
+     */
+    @DecimalMin(value = "-99", message = "调价幅度不能低于-99%")
+    @DecimalMax(value = "1000", message = "调价幅度不能超过1000%")
+    private BigDecimal priceChangePercent;
+}
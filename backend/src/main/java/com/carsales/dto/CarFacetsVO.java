@@ -0,0 +1,80 @@
+package com.carsales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 车辆分面统计VO（筛选侧栏各选项的数量）
+ * 每个分面统计时不应用该分面自身的筛选条件，其余条件照常应用
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarFacetsVO {
+
+    /**
+     * 符合全部筛选条件的车辆数
+     */
+    private Long total;
+
+    /**
+     * 按品牌统计（按数量倒序）
+     */
+    private List<FacetCount> brands;
+
+    /**
+     * 按状态统计（0-在库, 1-锁定, 2-已售）
+     */
+    private List<FacetCount> statuses;
+
+    /**
+     * 按价格区间统计
+     */
+    private List<FacetCount> priceRanges;
+
+    /**
+     * 按年份统计（按年份倒序，未填写年份的车辆不统计）
+     */
+    private List<FacetCount> years;
+
+    /**
+     * 分面选项及数量
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount {
+
+        /**
+         * 选项值（品牌名、状态值、年份；价格区间为空）
+         */
+        private String value;
+
+        /**
+         * 显示名称
+         */
+        private String label;
+
+        /**
+         * 价格区间下限（含，仅价格区间）
+         */
+        private BigDecimal minPrice;
+
+        /**
+         * 价格区间上限（不含，仅价格区间，最高区间为空）
+         */
+        private BigDecimal maxPrice;
+
+        /**
+         * 数量
+         */
+        private Long count;
+    }
+}
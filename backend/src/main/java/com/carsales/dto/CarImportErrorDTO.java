@@ -0,0 +1,20 @@
+package com.carsales.dto;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 车辆导入错误行 DTO
+ * 用于导入错误文件：前几列与导入模板一致（修改后可直接重新导入），后面附加原行号和错误原因
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class CarImportErrorDTO extends CarImportDTO {
+
+    @ExcelProperty(value = "错误原因", index = 8)
+    private String reason;
+
+    @ExcelProperty(value = "原行号", index = 9)
+    private Integer rowNum;
+}
@@ -39,4 +39,19 @@ public class CarQueryRequest {
      * 每页大小
      */
     private Integer pageSize = 10;
+
+    /**
+     * 总数统计方式：exact-精确统计（默认）, none-不统计, estimate-缓存估算
+     */
+    private String countMode;
+
+    /**
+     * 游标（仅游标分页使用，为空时查询第一页）
+     */
+    private String cursor;
+
+    /**
+     * 返回字段（逗号分隔，如 id,brand,model,price；为空时返回全部字段）
+     */
+    private String fields;
 }
@@ -0,0 +1,34 @@
+package com.carsales.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * 车辆状态变更请求DTO
+ */
+@Data
+public class CarStatusRequest {
+
+    /**
+     * 期望的当前状态：0-在库, 1-锁定, 2-已售
+     */
+    @NotNull(message = "当前状态不能为空")
+    @Min(value = 0, message = "状态值必须为0、1或2")
+    @Max(value = 2, message = "状态值必须为0、1或2")
+    private Integer fromStatus;
+
+    /**
+     * 目标状态：0-在库, 1-锁定, 2-已售
+     */
+    @NotNull(message = "目标状态不能为空")
+    @Min(value = 0, message = "状态值必须为0、1或2")
+    @Max(value = 2, message = "状态值必须为0、1或2")
+    private Integer toStatus;
+
+    /**
+     * 期望的版本号（为空时以当前版本为准，只校验状态）
+     */
+    private Integer version;
+}
@@ -8,6 +8,7 @@ import java.time.LocalDate;
 
 /**
  * 车辆更新请求DTO
+ * 不包含状态：锁定/释放走预留，售出走下单
  */
 @Data
 public class CarUpdateRequest {
@@ -53,14 +54,12 @@ public class CarUpdateRequest {
     private BigDecimal price;
 
     /**
-     * 状态：0-在库, 1-锁定, 2-已售
+     * 进货日期
      */
-    @Min(value = 0, message = "状态值不能小于0")
-    @Max(value = 2, message = "状态值不能大于2")
-    private Integer status;
+    private LocalDate purchaseDate;
 
     /**
-     * 进货日期
+     * 期望的版本号（可选，指定时版本不一致返回 3008）
      */
-    private LocalDate purchaseDate;
+    private Integer version;
 }
@@ -0,0 +1,36 @@
+package com.carsales.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 车辆预留请求DTO
+ */
+@Data
+public class ReservationCreateRequest {
+
+    /**
+     * 车辆ID
+     */
+    @NotNull(message = "车辆ID不能为空")
+    private Long carId;
+
+    /**
+     * 预留时长（分钟，为空时使用默认时长）
+     */
+    @Min(value = 1, message = "预留时长至少1分钟")
+    private Integer minutes;
+
+    /**
+     * 意向客户ID（可选）
+     */
+    private Long customerId;
+
+    /**
+     * 备注
+     */
+    @Size(max = 200, message = "备注长度不能超过200个字符")
+    private String remark;
+}
@@ -0,0 +1,74 @@
+package com.carsales.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * API Key 实体类
+ * 对应数据库表：sys_api_key
+ * 只保存 Key 的 HMAC-SHA256 哈希，明文只在创建时返回一次
+ */
+@Data
+@TableName("sys_api_key")
+public class ApiKey {
+
+    /**
+     * 主键ID（使用雪花算法生成）
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 名称（调用方标识，如 dms-sync）
+     */
+    private String name;
+
+    /**
+     * Key 前缀（明文前若干位，仅用于展示和识别）
+     */
+    private String keyPrefix;
+
+    /**
+     * Key 的 HMAC-SHA256 哈希（十六进制）
+     */
+    private String keyHash;
+
+    /**
+     * 角色：ADMIN-管理员, SALESPERSON-销售员
+     */
+    private String role;
+
+    /**
+     * 每分钟允许的调用次数
+     */
+    private Integer rateLimit;
+
+    /**
+     * 状态：0-禁用, 1-启用
+     */
+    private Integer status;
+
+    /**
+     * 累计调用次数（定期批量回写）
+     */
+    private Long usageCount;
+
+    /**
+     * 最后调用时间
+     */
+    private LocalDateTime lastUsedTime;
+
+    /**
+     * 创建时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,94 @@
+package com.carsales.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 车辆导入任务实体类
+ * 对应数据库表：car_import_job
+ * 导入中的进度保存在内存中，任务结束时写入最终计数和结果说明
+ */
+@Data
+@TableName("car_import_job")
+public class CarImportJob {
+
+    /**
+     * 主键ID（使用雪花算法生成）
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 上传的文件名
+     */
+    private String fileName;
+
+    /**
+     * 状态：0-排队中, 1-导入中, 2-已完成, 3-失败, 4-已取消
+     */
+    private Integer status;
+
+    /**
+     * 提交模式：0-整体提交, 1-分块提交
+     */
+    private Integer commitMode;
+
+    /**
+     * 已读取行数
+     */
+    private Integer readCount;
+
+    /**
+     * 校验通过行数
+     */
+    private Integer validCount;
+
+    /**
+     * 已写入行数
+     */
+    private Integer insertedCount;
+
+    /**
+     * 失败行数
+     */
+    private Integer failedCount;
+
+    /**
+     * 结果说明（失败原因、错误行摘要）
+     */
+    private String message;
+
+    /**
+     * 错误文件名（有失败的行时生成，可通过任务下载）
+     */
+    private String errorFile;
+
+    /**
+     * 提交任务的用户ID
+     */
+    private Long createdBy;
+
+    /**
+     * 开始导入时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishTime;
+
+    /**
+     * 创建时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
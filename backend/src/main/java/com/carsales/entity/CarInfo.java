@@ -72,6 +72,13 @@ public class CarInfo {
     @ExcelProperty(value = "进货日期", index = 7)
     private LocalDate purchaseDate;
 
+    /**
+     * 乐观锁版本号（每次更新加 1）
+     */
+    @Version
+    @ExcelIgnore
+    private Integer version;
+
     /**
      * 创建时间（自动填充）
      */
@@ -0,0 +1,64 @@
+package com.carsales.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 车辆预留实体类
+ * 对应数据库表：car_reservation
+ * 预留期间车辆状态为"锁定"，到期由内存时间轮自动释放
+ */
+@Data
+@TableName("car_reservation")
+public class CarReservation {
+
+    /**
+     * 主键ID（使用雪花算法生成）
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 车辆ID
+     */
+    private Long carId;
+
+    /**
+     * 预留的销售员ID
+     */
+    private Long salesUserId;
+
+    /**
+     * 意向客户ID（可选）
+     */
+    private Long customerId;
+
+    /**
+     * 到期时间
+     */
+    private LocalDateTime expireTime;
+
+    /**
+     * 状态：0-预留中, 1-已释放, 2-已成交, 3-已过期
+     */
+    private Integer status;
+
+    /**
+     * 备注
+     */
+    private String remark;
+
+    /**
+     * 创建时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,48 @@
+package com.carsales.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token 注销记录实体类
+ * 对应数据库表：sys_token_revocation
+ */
+@Data
+@TableName("sys_token_revocation")
+public class TokenRevocation {
+
+    /**
+     * 主键ID（使用雪花算法生成）
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * Token ID（jti）
+     */
+    private String tokenId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * Token 原过期时间（过期后记录可清理）
+     */
+    private LocalDateTime expireTime;
+
+    /**
+     * 创建时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间（自动填充）
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,70 @@
+package com.carsales.exception;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 唯一约束冲突转换器
+ * 写操作直接依赖数据库 UNIQUE 约束（不再先 SELECT COUNT 探测），
+ * 冲突时根据数据库报错中的表名、列名或约束名转换为对应的业务错误码：
+ * SQLite："UNIQUE constraint failed: car_info.vin"；
+ * PostgreSQL："duplicate key value violates unique constraint \"car_info_vin_key\""
+ */
+public final class DuplicateKeyTranslator {
+
+    /**
+     * 已知的唯一约束（表名、列名）及对应的业务错误
+     */
+    private static final List<UniqueKey> UNIQUE_KEYS = List.of(
+            new UniqueKey("car_info", "vin", 3004, "车架号已存在"),
+            new UniqueKey("customer", "phone", 3003, "手机号已存在"),
+            new UniqueKey("customer", "id_card", 3003, "身份证号已存在"));
+
+    private DuplicateKeyTranslator() {
+    }
+
+    /**
+     * 唯一约束冲突时转换为业务异常，其他异常原样返回
+     *
+     * @param e 数据库访问异常
+     * @return 业务异常或原异常
+     */
+    public static RuntimeException translate(RuntimeException e) {
+        BusinessException businessException = toBusinessException(e);
+        return businessException != null ? businessException : e;
+    }
+
+    /**
+     * 唯一约束冲突时转换为业务异常
+     *
+     * @param e 异常（检查整个 cause 链的消息）
+     * @return 业务异常，不是已知的唯一约束冲突时返回 null
+     */
+    public static BusinessException toBusinessException(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message == null) {
+                continue;
+            }
+            String lower = message.toLowerCase(Locale.ROOT);
+            if (!lower.contains("unique") && !lower.contains("duplicate")) {
+                continue;
+            }
+            for (UniqueKey key : UNIQUE_KEYS) {
+                if (key.matches(lower)) {
+                    return new BusinessException(key.code(), key.message());
+                }
+            }
+        }
+        return null;
+    }
+
+    private record UniqueKey(String table, String column, int code, String message) {
+
+        boolean matches(String lowerMessage) {
+            return lowerMessage.contains(table + "." + column)
+                    || lowerMessage.contains(table + "_" + column + "_key")
+                    || lowerMessage.contains("key (" + column + ")");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.carsales.exception;
+
+/**
+ * 流式导出中断异常
+ * 响应已开始写出后不能再返回 JSON 错误，由全局异常处理器交还给容器断开连接，
+ * 客户端收到不完整的响应，而不是看起来完整的截断文件
+ */
+public class ExportAbortedException extends RuntimeException {
+
+    public ExportAbortedException(String message) {
+        super(message);
+    }
+
+    public ExportAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
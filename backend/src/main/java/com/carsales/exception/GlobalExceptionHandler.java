@@ -98,6 +98,13 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(DataIntegrityViolationException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public Result<?> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+        // 已知的唯一约束冲突（车架号、手机号、身份证号）转换为对应的业务错误码
+        BusinessException businessException = DuplicateKeyTranslator.toBusinessException(e);
+        if (businessException != null) {
+            log.warn("唯一约束冲突: code={}, message={}", businessException.getCode(), businessException.getMessage());
+            return Result.error(businessException.getCode(), businessException.getMessage());
+        }
+
         log.error("数据完整性错误", e);
         String message = e.getMessage();
 
@@ -115,6 +122,15 @@ public class GlobalExceptionHandler {
         return Result.error(ResultCode.DB_UNIQUE_CONSTRAINT_VIOLATION, "数据完整性错误");
     }
 
+    /**
+     * 流式导出中断：响应已开始写出，不再写 JSON，重新抛出由容器直接断开连接
+     * （原因已在 CarExportService 中记录）
+     */
+    @ExceptionHandler(ExportAbortedException.class)
+    public void handleExportAbortedException(ExportAbortedException e) {
+        throw e;
+    }
+
     /**
      * 处理所有未捕获的异常
      * Handle all uncaught exceptions
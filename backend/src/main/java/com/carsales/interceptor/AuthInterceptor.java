@@ -1,11 +1,16 @@
 package com.carsales.interceptor;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.carsales.annotation.RequireRole;
+import com.carsales.common.LoginUser;
 import com.carsales.entity.SysUser;
 import com.carsales.exception.BusinessException;
-import com.carsales.mapper.UserMapper;
+import com.carsales.service.ApiKeyService;
+import com.carsales.service.TokenBlocklistService;
+import com.carsales.service.UserService;
 import com.carsales.util.JwtUtil;
+import com.carsales.util.UserContext;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -18,7 +23,8 @@ import java.util.Arrays;
 
 /**
  * 权限拦截器
- * 验证用户角色权限
+ * 解析并验证 Token（每个请求只验签一次），将登录用户写入请求上下文，并验证用户角色权限
+ * 机器调用方可改用请求头 X-API-Key 认证（一次 HMAC 计算加一次内存查找），角色取 Key 自身配置
  */
 @Slf4j
 @Component
@@ -26,7 +32,9 @@ import java.util.Arrays;
 public class AuthInterceptor implements HandlerInterceptor {
 
     private final JwtUtil jwtUtil;
-    private final UserMapper userMapper;
+    private final UserService userService;
+    private final TokenBlocklistService tokenBlocklistService;
+    private final ApiKeyService apiKeyService;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
@@ -38,54 +46,112 @@ public class AuthInterceptor implements HandlerInterceptor {
         HandlerMethod handlerMethod = (HandlerMethod) handler;
         RequireRole requireRole = handlerMethod.getMethodAnnotation(RequireRole.class);
 
+        // 获取 Token
+        String token = request.getHeader("Authorization");
+        boolean hasToken = token != null && token.startsWith("Bearer ");
+
+        // 携带 Token 时统一解析一次，供后续控制器、服务和切面使用
+        LoginUser loginUser = null;
+        if (hasToken) {
+            loginUser = resolveLoginUser(token.substring(7), requireRole != null);
+        } else {
+            String apiKey = request.getHeader("X-API-Key");
+            if (apiKey != null && !apiKey.isEmpty()) {
+                loginUser = apiKeyService.authenticate(apiKey);
+                if (loginUser == null && requireRole != null) {
+                    log.warn("权限验证失败：API Key 无效或已禁用");
+                    throw new BusinessException(1002, "API Key 无效");
+                }
+            }
+        }
+        if (loginUser != null) {
+            UserContext.set(request, loginUser);
+        }
+
         // 如果方法没有 @RequireRole 注解，直接放行
         if (requireRole == null) {
             return true;
         }
 
-        // 获取 Token
-        String token = request.getHeader("Authorization");
-        if (token == null || !token.startsWith("Bearer ")) {
+        if (loginUser == null) {
             log.warn("权限验证失败：Token 缺失");
             throw new BusinessException(1002, "未登录或 Token 无效");
         }
 
-        token = token.substring(7);
-
-        // 验证 Token 是否过期
-        if (jwtUtil.isTokenExpired(token)) {
-            log.warn("权限验证失败：Token 已过期");
-            throw new BusinessException(1002, "Token 已过期");
-        }
-
-        // 获取用户信息
-        String username = jwtUtil.getUsernameFromToken(token);
+        String username = loginUser.getUsername();
 
-        // 验证 Token 是否有效
-        if (!jwtUtil.validateToken(token, username)) {
-            log.warn("权限验证失败：Token 无效");
-            throw new BusinessException(1002, "Token 无效");
+        // API Key 调用方没有对应的系统用户，角色取 Key 配置（禁用的 Key 已在内存中移除）
+        if (loginUser.isApiKey()) {
+            checkRole(requireRole, username, loginUser.getRole());
+            return true;
         }
 
-        SysUser user = userMapper.selectOne(
-                new LambdaQueryWrapper<SysUser>().eq(SysUser::getUsername, username));
+        // 查询用户（缓存），角色和状态以数据库为准
+        SysUser user = userService.getUserByUsername(username);
 
         if (user == null) {
             log.warn("权限验证失败：用户不存在 - {}", username);
             throw new BusinessException(1002, "用户不存在");
         }
 
+        if (user.getStatus() != null && user.getStatus() == 0) {
+            log.warn("权限验证失败：用户已禁用 - {}", username);
+            throw new BusinessException(1002, "用户已被禁用");
+        }
+
         // 验证角色
+        checkRole(requireRole, username, user.getRole());
+        return true;
+    }
+
+    /**
+     * 验证角色权限
+     *
+     * @param requireRole 接口要求的角色
+     * @param username    用户名
+     * @param role        用户角色
+     */
+    private void checkRole(RequireRole requireRole, String username, String role) {
         String[] allowedRoles = requireRole.value();
-        boolean hasPermission = Arrays.asList(allowedRoles).contains(user.getRole());
+        boolean hasPermission = Arrays.asList(allowedRoles).contains(role);
 
         if (!hasPermission) {
             log.warn("权限验证失败：用户 {} 角色 {} 无权访问，需要角色: {}",
-                    username, user.getRole(), Arrays.toString(allowedRoles));
+                    username, role, Arrays.toString(allowedRoles));
             throw new BusinessException(1003, "权限不足");
         }
 
-        log.debug("权限验证通过 - 用户: {}, 角色: {}", username, user.getRole());
-        return true;
+        log.debug("权限验证通过 - 用户: {}, 角色: {}", username, role);
+    }
+
+    /**
+     * 验证 Token 并解析登录用户（只做一次签名校验）
+     *
+     * @param token    JWT Token（不含 Bearer 前缀）
+     * @param required 当前接口是否要求登录，要求登录时 Token 无效直接抛出异常
+     * @return 登录用户，Token 无效且接口不要求登录时返回 null
+     */
+    private LoginUser resolveLoginUser(String token, boolean required) {
+        try {
+            LoginUser loginUser = jwtUtil.parseLoginUser(token);
+            if (!tokenBlocklistService.isRevoked(loginUser.getTokenId())) {
+                return loginUser;
+            }
+            if (required) {
+                log.warn("权限验证失败：Token 已注销 - {}", loginUser.getUsername());
+                throw new BusinessException(1002, "Token 已注销，请重新登录");
+            }
+        } catch (ExpiredJwtException e) {
+            if (required) {
+                log.warn("权限验证失败：Token 已过期");
+                throw new BusinessException(1002, "Token 已过期");
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            if (required) {
+                log.warn("权限验证失败：Token 无效");
+                throw new BusinessException(1002, "Token 无效");
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,13 @@
+package com.carsales.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.carsales.entity.ApiKey;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * API Key 数据访问接口
+ */
+@Mapper
+public interface ApiKeyMapper extends BaseMapper<ApiKey> {
+    // MyBatis-Plus 提供了基础的 CRUD 方法
+}
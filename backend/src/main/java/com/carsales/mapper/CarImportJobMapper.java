@@ -0,0 +1,13 @@
+package com.carsales.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.carsales.entity.CarImportJob;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 车辆导入任务数据访问接口
+ */
+@Mapper
+public interface CarImportJobMapper extends BaseMapper<CarImportJob> {
+    // MyBatis-Plus 提供了基础的 CRUD 方法
+}
@@ -1,8 +1,15 @@
 package com.carsales.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.carsales.entity.CarInfo;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
 /**
  * 车辆数据访问接口
@@ -11,4 +18,25 @@ import org.apache.ibatis.annotations.Mapper;
 public interface CarMapper extends BaseMapper<CarInfo> {
     // MyBatis-Plus 提供了基础的 CRUD 方法
     // 复杂查询可以通过 LambdaQueryWrapper 在 Service 层实现
+
+    /**
+     * 按条件更新并返回更新后的整行（UPDATE ... RETURNING，一次往返；SQLite 3.35+ 与 PostgreSQL 均支持）
+     *
+     * @param updateWrapper 更新内容与条件（LambdaUpdateWrapper）
+     * @return 更新后的车辆，没有匹配的行时返回 null
+     */
+    @Select("UPDATE car_info SET ${ew.sqlSet} ${ew.customSqlSegment} RETURNING *")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE, useCache = false)
+    CarInfo updateReturning(@Param(Constants.WRAPPER) Wrapper<CarInfo> updateWrapper);
+
+    /**
+     * 按条件流式查询车辆（用于导出，逐行读取，不一次性加载全部结果）
+     * 需在事务中使用：PostgreSQL 驱动只有关闭自动提交时才按 fetchSize 分批拉取
+     *
+     * @param queryWrapper 查询条件（LambdaQueryWrapper，含排序）
+     * @return 游标，事务结束前有效
+     */
+    @Select("SELECT * FROM car_info ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    Cursor<CarInfo> selectCursor(@Param(Constants.WRAPPER) Wrapper<CarInfo> queryWrapper);
 }
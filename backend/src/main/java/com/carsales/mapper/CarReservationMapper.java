@@ -0,0 +1,13 @@
+package com.carsales.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.carsales.entity.CarReservation;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 车辆预留数据访问接口
+ */
+@Mapper
+public interface CarReservationMapper extends BaseMapper<CarReservation> {
+    // MyBatis-Plus 提供了基础的 CRUD 方法
+}
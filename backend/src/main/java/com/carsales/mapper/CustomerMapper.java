@@ -1,8 +1,13 @@
 package com.carsales.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.carsales.entity.Customer;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 
 /**
  * 客户数据访问接口
@@ -11,4 +16,14 @@ import org.apache.ibatis.annotations.Mapper;
 public interface CustomerMapper extends BaseMapper<Customer> {
     // MyBatis-Plus 提供了基础的 CRUD 方法
     // 复杂查询可以通过 LambdaQueryWrapper 在 Service 层实现
+
+    /**
+     * 按条件更新并返回更新后的整行（UPDATE ... RETURNING，一次往返；SQLite 3.35+ 与 PostgreSQL 均支持）
+     *
+     * @param updateWrapper 更新内容与条件（LambdaUpdateWrapper）
+     * @return 更新后的客户，没有匹配的行时返回 null
+     */
+    @Select("UPDATE customer SET ${ew.sqlSet} ${ew.customSqlSegment} RETURNING *")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE, useCache = false)
+    Customer updateReturning(@Param(Constants.WRAPPER) Wrapper<Customer> updateWrapper);
 }
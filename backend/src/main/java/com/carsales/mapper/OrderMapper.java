@@ -10,6 +10,8 @@ import org.apache.ibatis.annotations.Select;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -59,6 +61,7 @@ public interface OrderMapper extends BaseMapper<SalesOrder> {
      * 支持多条件筛选
      * 
      * @param page        分页对象
+     * @param columns     SELECT 列表（由服务层按字段白名单生成）
      * @param startDate   开始日期（可选）
      * @param endDate     结束日期（可选）
      * @param salesUserId 销售员ID（可选）
@@ -66,13 +69,7 @@ public interface OrderMapper extends BaseMapper<SalesOrder> {
      * @return 订单详情分页结果
      */
     @Select("<script>" +
-            "SELECT " +
-            "o.id, o.order_no, o.original_price, o.actual_price, o.discount_amount, " +
-            "o.order_date, o.status, o.remark, o.create_time, o.update_time, " +
-            "o.sales_user_id, u.real_name AS sales_user_name, u.phone AS sales_user_phone, " +
-            "o.customer_id, c.name AS customer_name, c.phone AS customer_phone, c.id_card AS customer_id_card, " +
-            "o.car_id, car.vin AS car_vin, car.brand AS car_brand, car.model AS car_model, " +
-            "car.color AS car_color, car.year AS car_year " +
+            "SELECT ${columns} " +
             "FROM sales_order o " +
             "INNER JOIN sys_user u ON o.sales_user_id = u.id " +
             "INNER JOIN customer c ON o.customer_id = c.id " +
@@ -86,8 +83,50 @@ public interface OrderMapper extends BaseMapper<SalesOrder> {
             "</script>")
     Page<OrderDetailVO> selectOrderDetailPage(
             Page<OrderDetailVO> page,
+            @Param("columns") String columns,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
             @Param("salesUserId") Long salesUserId,
             @Param("status") Integer status);
+
+    /**
+     * 游标分页查询订单详情列表（键集分页）
+     * 按订单日期、创建时间、ID 倒序，从游标位置之后取 limit 条
+     * 
+     * @param columns      SELECT 列表（由服务层按字段白名单生成）
+     * @param startDate    开始日期（可选）
+     * @param endDate      结束日期（可选）
+     * @param salesUserId  销售员ID（可选）
+     * @param status       订单状态（可选）
+     * @param cursorDate   游标订单日期（为空时查询第一页）
+     * @param cursorTime   游标创建时间
+     * @param cursorId     游标订单ID
+     * @param limit        查询条数
+     * @return 订单详情列表
+     */
+    @Select("<script>" +
+            "SELECT ${columns} " +
+            "FROM sales_order o " +
+            "INNER JOIN sys_user u ON o.sales_user_id = u.id " +
+            "INNER JOIN customer c ON o.customer_id = c.id " +
+            "INNER JOIN car_info car ON o.car_id = car.id " +
+            "WHERE 1=1 " +
+            "<if test='startDate != null'> AND o.order_date &gt;= #{startDate} </if>" +
+            "<if test='endDate != null'> AND o.order_date &lt;= #{endDate} </if>" +
+            "<if test='salesUserId != null'> AND o.sales_user_id = #{salesUserId} </if>" +
+            "<if test='status != null'> AND o.status = #{status} </if>" +
+            "<if test='cursorDate != null'> AND (o.order_date, o.create_time, o.id) &lt; (#{cursorDate}, #{cursorTime}, #{cursorId}) </if>" +
+            "ORDER BY o.order_date DESC, o.create_time DESC, o.id DESC " +
+            "LIMIT #{limit}" +
+            "</script>")
+    List<OrderDetailVO> selectOrderDetailByCursor(
+            @Param("columns") String columns,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("salesUserId") Long salesUserId,
+            @Param("status") Integer status,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
 }
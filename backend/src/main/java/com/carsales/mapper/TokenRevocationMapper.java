@@ -0,0 +1,13 @@
+package com.carsales.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.carsales.entity.TokenRevocation;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * Token 注销记录数据访问接口
+ */
+@Mapper
+public interface TokenRevocationMapper extends BaseMapper<TokenRevocation> {
+    // MyBatis-Plus 提供了基础的 CRUD 方法
+}
@@ -0,0 +1,365 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.carsales.common.LoginUser;
+import com.carsales.dto.ApiKeyCreateRequest;
+import com.carsales.dto.ApiKeyCreateResponse;
+import com.carsales.entity.ApiKey;
+import com.carsales.exception.BusinessException;
+import com.carsales.mapper.ApiKeyMapper;
+import com.carsales.util.TokenBucketRateLimiter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API Key 服务
+ *
+ * 供经销商管理系统等机器调用方使用的长期凭证：数据库只保存 Key 的 HMAC-SHA256 哈希，
+ * 启用的 Key 加载到内存，AuthInterceptor 认证时只做一次 HMAC 计算和一次哈希表查找，
+ * 不做 BCrypt 校验也不签发 JWT。每个 Key 独立限流，调用次数在内存中累加后定期批量回写。
+ * Key 只能是销售员角色：泄露的 Key 不能用来创建新 Key 或管理用户
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApiKeyService {
+
+    /**
+     * 明文 Key 前缀
+     */
+    private static final String KEY_PREFIX = "csk_";
+
+    /**
+     * 明文 Key 随机部分的字节数
+     */
+    private static final int KEY_RANDOM_BYTES = 32;
+
+    /**
+     * 展示用前缀长度
+     */
+    private static final int DISPLAY_PREFIX_LENGTH = 12;
+
+    /**
+     * 未配置限流值时的默认每分钟调用次数
+     */
+    private static final int DEFAULT_RATE_LIMIT = 60;
+
+    /**
+     * API Key 允许的角色
+     */
+    private static final String ALLOWED_ROLE = "SALESPERSON";
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final ApiKeyMapper apiKeyMapper;
+
+    @Value("${api-key.secret:${jwt.secret:car-sales-system-secret-key-for-jwt-token-generation-minimum-256-bits}}")
+    private String secret;
+
+    private SecretKeySpec hmacKey;
+
+    /**
+     * 每个线程复用一个 Mac 实例（Mac 非线程安全，创建开销较大）
+     */
+    private final ThreadLocal<Mac> macHolder = ThreadLocal.withInitial(this::newMac);
+
+    /**
+     * 启用的 Key：Key 哈希 -> 调用方
+     * 整体替换（写时复制），读取无锁
+     */
+    private volatile Map<String, ApiKeyEntry> activeKeys = Map.of();
+
+    @PostConstruct
+    public void init() {
+        this.hmacKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * 启动完成后加载启用的 Key
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+        log.info("API Key 加载完成 - 数量: {}", activeKeys.size());
+    }
+
+    /**
+     * 认证 API Key
+     *
+     * @param rawKey 请求头中的明文 Key
+     * @return 调用方，Key 无效或已禁用时返回 null
+     */
+    public LoginUser authenticate(String rawKey) {
+        ApiKeyEntry entry = activeKeys.get(hash(rawKey));
+        if (entry == null) {
+            return null;
+        }
+
+        if (!entry.limiter.tryAcquire(entry.keyHash)) {
+            entry.throttled.increment();
+            log.warn("API Key 调用过于频繁 - 名称: {}", entry.name);
+            throw new BusinessException(1004, "API 调用过于频繁，请稍后再试");
+        }
+
+        entry.pendingUsage.increment();
+        entry.lastUsedTime = LocalDateTime.now();
+        return entry.principal;
+    }
+
+    /**
+     * 创建 API Key
+     *
+     * @param request 创建请求
+     * @return 创建结果（包含只返回一次的明文 Key）
+     */
+    public ApiKeyCreateResponse createApiKey(ApiKeyCreateRequest request) {
+        if (!ALLOWED_ROLE.equals(request.getRole())) {
+            throw new BusinessException(2003, "API Key 角色只能为 SALESPERSON");
+        }
+
+        byte[] random = new byte[KEY_RANDOM_BYTES];
+        SECURE_RANDOM.nextBytes(random);
+        String rawKey = KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        ApiKey apiKey = new ApiKey();
+        apiKey.setName(request.getName());
+        apiKey.setKeyPrefix(rawKey.substring(0, DISPLAY_PREFIX_LENGTH));
+        apiKey.setKeyHash(hash(rawKey));
+        apiKey.setRole(request.getRole());
+        apiKey.setRateLimit(request.getRateLimit());
+        apiKey.setStatus(1);
+        apiKey.setUsageCount(0L);
+        apiKeyMapper.insert(apiKey);
+
+        reload();
+        log.info("API Key 创建成功 - ID: {}, 名称: {}, 角色: {}", apiKey.getId(), apiKey.getName(), apiKey.getRole());
+
+        return ApiKeyCreateResponse.builder()
+                .id(apiKey.getId())
+                .name(apiKey.getName())
+                .apiKey(rawKey)
+                .role(apiKey.getRole())
+                .rateLimit(apiKey.getRateLimit())
+                .build();
+    }
+
+    /**
+     * 查询所有 API Key（不含哈希）
+     *
+     * @return API Key 列表，调用次数包含尚未回写的部分
+     */
+    public List<ApiKey> listApiKeys() {
+        LambdaQueryWrapper<ApiKey> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.orderByDesc(ApiKey::getCreateTime);
+        List<ApiKey> apiKeys = apiKeyMapper.selectList(queryWrapper);
+
+        Map<String, ApiKeyEntry> current = activeKeys;
+        for (ApiKey apiKey : apiKeys) {
+            ApiKeyEntry entry = current.get(apiKey.getKeyHash());
+            if (entry != null) {
+                long usage = apiKey.getUsageCount() == null ? 0 : apiKey.getUsageCount();
+                apiKey.setUsageCount(usage + entry.pendingUsage.sum());
+                if (entry.lastUsedTime != null) {
+                    apiKey.setLastUsedTime(entry.lastUsedTime);
+                }
+            }
+            apiKey.setKeyHash(null);
+        }
+        return apiKeys;
+    }
+
+    /**
+     * 修改 API Key 状态（启用/禁用），立即生效
+     *
+     * @param id     API Key ID
+     * @param status 状态：0-禁用, 1-启用
+     */
+    public void updateStatus(Long id, Integer status) {
+        if (status == null || (status != 0 && status != 1)) {
+            throw new BusinessException(2003, "状态值只能为0或1");
+        }
+
+        ApiKey update = new ApiKey();
+        update.setId(id);
+        update.setStatus(status);
+        if (apiKeyMapper.updateById(update) == 0) {
+            throw new BusinessException(2003, "API Key 不存在");
+        }
+
+        flushUsage();
+        reload();
+        log.info("API Key 状态已修改 - ID: {}, 状态: {}", id, status);
+    }
+
+    /**
+     * 删除 API Key，立即生效
+     *
+     * @param id API Key ID
+     */
+    public void deleteApiKey(Long id) {
+        if (apiKeyMapper.deleteById(id) == 0) {
+            throw new BusinessException(2003, "API Key 不存在");
+        }
+
+        reload();
+        log.info("API Key 已删除 - ID: {}", id);
+    }
+
+    /**
+     * 从数据库重新加载启用的 Key
+     * 限流状态和未回写的调用次数按 Key 哈希保留（限流值修改时重建令牌桶）；
+     * 多实例部署时定期执行，同步其他实例的创建、禁用和删除
+     */
+    @Scheduled(fixedDelayString = "${api-key.sync-interval:30000}", initialDelayString = "${api-key.sync-interval:30000}")
+    public synchronized void reload() {
+        LambdaQueryWrapper<ApiKey> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(ApiKey::getStatus, 1);
+        List<ApiKey> apiKeys = apiKeyMapper.selectList(queryWrapper);
+
+        Map<String, ApiKeyEntry> previous = activeKeys;
+        Map<String, ApiKeyEntry> loaded = new HashMap<>(apiKeys.size() * 2);
+        for (ApiKey apiKey : apiKeys) {
+            if (!ALLOWED_ROLE.equals(apiKey.getRole())) {
+                // 限制角色之前创建的管理员 Key 不再加载
+                log.warn("API Key 角色不允许，已忽略 - ID: {}, 名称: {}, 角色: {}",
+                        apiKey.getId(), apiKey.getName(), apiKey.getRole());
+                continue;
+            }
+            int rateLimit = apiKey.getRateLimit() == null ? DEFAULT_RATE_LIMIT : apiKey.getRateLimit();
+            ApiKeyEntry existing = previous.get(apiKey.getKeyHash());
+            if (existing != null && existing.rateLimit == rateLimit
+                    && existing.principal.getRole().equals(apiKey.getRole())) {
+                loaded.put(apiKey.getKeyHash(), existing);
+            } else {
+                ApiKeyEntry entry = new ApiKeyEntry(apiKey, rateLimit);
+                if (existing != null) {
+                    entry.pendingUsage.add(existing.pendingUsage.sum());
+                }
+                loaded.put(apiKey.getKeyHash(), entry);
+            }
+        }
+
+        // 被禁用或删除的 Key 先回写剩余的调用次数
+        for (ApiKeyEntry entry : previous.values()) {
+            if (!loaded.containsKey(entry.keyHash)) {
+                flushEntry(entry);
+            }
+        }
+
+        activeKeys = Map.copyOf(loaded);
+    }
+
+    /**
+     * 定期批量回写调用次数和最后调用时间
+     */
+    @Scheduled(fixedDelayString = "${api-key.usage-flush-interval:60000}", initialDelayString = "${api-key.usage-flush-interval:60000}")
+    public void flushUsage() {
+        for (ApiKeyEntry entry : activeKeys.values()) {
+            flushEntry(entry);
+        }
+    }
+
+    /**
+     * 回写单个 Key 的调用次数
+     */
+    private void flushEntry(ApiKeyEntry entry) {
+        long delta = entry.pendingUsage.sumThenReset();
+        if (delta == 0) {
+            return;
+        }
+        LambdaUpdateWrapper<ApiKey> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.setSql("usage_count = COALESCE(usage_count, 0) + " + delta)
+                .set(ApiKey::getLastUsedTime, entry.lastUsedTime)
+                .eq(ApiKey::getId, entry.id);
+        try {
+            apiKeyMapper.update(null, updateWrapper);
+        } catch (Exception e) {
+            // 回写失败时计数放回，下次重试
+            entry.pendingUsage.add(delta);
+            log.warn("API Key 调用次数回写失败 - ID: {}", entry.id, e);
+        }
+    }
+
+    /**
+     * 获取 API Key 统计信息
+     *
+     * @return 启用数量及各 Key 被限流次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, ApiKeyEntry> current = activeKeys;
+        long throttled = 0;
+        for (ApiKeyEntry entry : current.values()) {
+            throttled += entry.throttled.sum();
+        }
+        stats.put("activeKeys", current.size());
+        stats.put("throttledCount", throttled);
+        return stats;
+    }
+
+    /**
+     * 计算 Key 的 HMAC-SHA256 哈希（十六进制）
+     */
+    String hash(String rawKey) {
+        byte[] digest = macHolder.get().doFinal(rawKey.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 不可用", e);
+        }
+    }
+
+    /**
+     * 内存中的启用 Key
+     */
+    private static final class ApiKeyEntry {
+
+        private final Long id;
+        private final String name;
+        private final String keyHash;
+        private final int rateLimit;
+        private final LoginUser principal;
+        private final TokenBucketRateLimiter limiter;
+        private final LongAdder pendingUsage = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private volatile LocalDateTime lastUsedTime;
+
+        ApiKeyEntry(ApiKey apiKey, int rateLimit) {
+            this.id = apiKey.getId();
+            this.name = apiKey.getName();
+            this.keyHash = apiKey.getKeyHash();
+            this.rateLimit = rateLimit;
+            this.principal = LoginUser.ofApiKey(apiKey.getName(), apiKey.getRole());
+            // 桶容量等于每分钟限额，允许一分钟内的突发
+            this.limiter = new TokenBucketRateLimiter(rateLimit, rateLimit);
+            this.lastUsedTime = apiKey.getLastUsedTime();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.carsales.service;
+
+import com.carsales.dto.CarQueryRequest;
+import com.carsales.entity.CarInfo;
+import com.carsales.exception.BusinessException;
+import com.carsales.exception.ExportAbortedException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 车辆文本格式导出服务类
+ * 提供 CSV 和 NDJSON 两种格式，从游标逐行读取后直接编码写入输出流，
+ * 不经过 Excel 样式和列宽计算，用于 BI 加载、脚本等程序消费方。
+ * 写入经过固定大小的缓冲区，每行复用同一个 StringBuilder / JsonGenerator，不随导出总数增长。
+ *
+ * 导出期间只读事务和数据库连接一直占用到写完为止，写出速度取决于客户端下载速度，因此：
+ * 同时进行的导出数量有上限（超出时在写出前返回 5007），单次导出超过最长时间在下一页写出前中断；
+ * 名额在请求线程占用，由写出线程或异步请求结束回调（超时、客户端断开、派发失败时写出可能不会执行）归还一次；
+ * 开始写出后的失败只记录日志并断开连接，不交给全局异常处理器返回 JSON。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CarExportService {
+
+    /**
+     * 写出缓冲区大小（字节/字符）
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * CSV 列（与 JSON 属性名一致）
+     */
+    private static final List<String> CSV_COLUMNS = List.of("id", "vin", "brand", "model", "color", "year",
+            "price", "status", "purchaseDate", "createTime", "updateTime");
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final CarService carService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 同时进行的导出数量上限（每个导出占用一个数据库连接，应小于连接池大小）
+     */
+    @Value("${car-export.max-concurrent:2}")
+    private int maxConcurrent = 2;
+
+    /**
+     * 单次导出的最长时间（秒），应小于 spring.mvc.async.request-timeout
+     */
+    @Value("${car-export.max-duration-seconds:300}")
+    private long maxDurationSeconds = 300;
+
+    private Semaphore exportPermits;
+
+    @PostConstruct
+    public void init() {
+        exportPermits = new Semaphore(maxConcurrent);
+        log.info("车辆导出已启用 - 最大并发: {}, 最长时间: {}s", maxConcurrent, maxDurationSeconds);
+    }
+
+    /**
+     * 占用一个导出名额并包装写出操作
+     * 名额不足时立即抛出 5007（此时尚未写出，按普通错误返回）。
+     * 写出线程和异步请求结束回调先到者负责归还名额：写出已开始时由写出线程写完或失败后归还，
+     * 写出未开始请求就已结束（超时、客户端断开、派发失败）时由回调归还，写出不再执行。
+     * 写出过程中的异常记录日志后转为 ExportAbortedException，由容器断开连接
+     *
+     * @param description 导出描述（用于日志）
+     * @param webRequest  当前请求（用于注册异步请求结束回调）
+     * @param body        写出操作
+     * @return 包装后的写出操作
+     */
+    public StreamingResponseBody guard(String description, WebRequest webRequest, StreamingResponseBody body) {
+        if (!exportPermits.tryAcquire()) {
+            log.warn("车辆导出繁忙：同时导出数已达上限 - 上限: {}, 导出: {}", maxConcurrent, description);
+            throw new BusinessException(5007, "导出任务过多，请稍后再试");
+        }
+        AtomicBoolean claimed = new AtomicBoolean();
+        WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(CarExportService.class.getName(),
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        if (claimed.compareAndSet(false, true)) {
+                            exportPermits.release();
+                            log.warn("车辆导出未开始写出请求已结束，归还名额 - 导出: {}", description);
+                        }
+                    }
+                });
+        return out -> {
+            if (!claimed.compareAndSet(false, true)) {
+                throw new ExportAbortedException("导出请求已结束");
+            }
+            long start = System.currentTimeMillis();
+            try {
+                body.writeTo(out);
+            } catch (ExportAbortedException e) {
+                log.warn("车辆导出已中断 - 导出: {}, 原因: {}, 耗时: {}ms",
+                        description, e.getMessage(), System.currentTimeMillis() - start);
+                throw e;
+            } catch (IOException e) {
+                // 通常是客户端断开
+                log.warn("车辆导出写出失败 - 导出: {}, 原因: {}, 耗时: {}ms",
+                        description, e.getMessage(), System.currentTimeMillis() - start);
+                throw new ExportAbortedException("导出写出失败", e);
+            } catch (RuntimeException e) {
+                log.error("车辆导出失败 - 导出: {}, 耗时: {}ms", description, System.currentTimeMillis() - start, e);
+                throw new ExportAbortedException("导出失败", e);
+            } finally {
+                exportPermits.release();
+            }
+        };
+    }
+
+    /**
+     * 按页导出（xlsx 等按页写出的格式使用），超过最长时间时在下一页写出前中断
+     * 中断时异常穿过只读事务，游标关闭、事务回滚，连接归还连接池
+     *
+     * @param request    查询条件
+     * @param pageWriter 每页的写出操作
+     * @return 导出总数
+     */
+    public int exportPages(CarQueryRequest request, Consumer<List<CarInfo>> pageWriter) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxDurationSeconds);
+        return carService.exportCars(request, page -> {
+            if (System.nanoTime() - deadline > 0) {
+                throw new ExportAbortedException("导出超过最长时间 " + maxDurationSeconds + " 秒");
+            }
+            pageWriter.accept(page);
+        });
+    }
+
+    /**
+     * 导出为 CSV（UTF-8，首行为列名，按 RFC 4180 转义）
+     *
+     * @param request 查询条件
+     * @param out     输出流（调用方负责关闭）
+     * @return 导出总数
+     */
+    public int writeCsv(CarQueryRequest request, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        StringBuilder line = new StringBuilder(256);
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write('\n');
+
+        int total = export(request, car -> {
+            line.setLength(0);
+            line.append(car.getId()).append(',');
+            appendCsv(line, car.getVin()).append(',');
+            appendCsv(line, car.getBrand()).append(',');
+            appendCsv(line, car.getModel()).append(',');
+            appendCsv(line, car.getColor()).append(',');
+            appendValue(line, car.getYear()).append(',');
+            appendValue(line, car.getPrice() == null ? null : car.getPrice().toPlainString()).append(',');
+            appendValue(line, car.getStatus()).append(',');
+            appendValue(line, car.getPurchaseDate()).append(',');
+            appendValue(line, car.getCreateTime() == null ? null : DATE_TIME_FORMATTER.format(car.getCreateTime()))
+                    .append(',');
+            appendValue(line, car.getUpdateTime() == null ? null : DATE_TIME_FORMATTER.format(car.getUpdateTime()))
+                    .append('\n');
+            write(writer, line);
+        });
+        writer.flush();
+        log.info("车辆 CSV 导出成功 - 数量: {}", total);
+        return total;
+    }
+
+    /**
+     * 导出为 NDJSON（每行一个 JSON 对象，序列化规则与接口返回一致）
+     *
+     * @param request 查询条件
+     * @param out     输出流（调用方负责关闭）
+     * @return 导出总数
+     */
+    public int writeNdjson(CarQueryRequest request, OutputStream out) throws IOException {
+        // 每行写完不 flush，由生成器的缓冲区攒满后再写入输出流
+        ObjectWriter rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 行之间只用换行分隔（默认的根值分隔符是空格）
+        generator.setRootValueSeparator(null);
+
+        int total = export(request, car -> {
+            try {
+                rowWriter.writeValue(generator, car);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.close();
+        log.info("车辆 NDJSON 导出成功 - 数量: {}", total);
+        return total;
+    }
+
+    /**
+     * 从游标逐行导出，把行写出时的 IOException 还原给调用方
+     */
+    private int export(CarQueryRequest request, Consumer<CarInfo> rowWriter) throws IOException {
+        try {
+            return exportPages(request, page -> page.forEach(rowWriter));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void write(Writer writer, StringBuilder line) {
+        try {
+            writer.append(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static StringBuilder appendValue(StringBuilder line, Object value) {
+        return value == null ? line : line.append(value);
+    }
+
+    /**
+     * 追加文本字段，包含逗号、引号或换行时加引号并把引号写两次
+     */
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    /**
+     * 解析导出格式
+     *
+     * @param format 导出格式：xlsx（默认）、csv、ndjson
+     * @return 小写的格式名
+     */
+    public static String parseFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return "xlsx";
+        }
+        String normalized = format.trim().toLowerCase();
+        if (!normalized.equals("xlsx") && !normalized.equals("csv") && !normalized.equals("ndjson")) {
+            throw new BusinessException(2003, "导出格式只能是 xlsx、csv 或 ndjson");
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,251 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.carsales.dto.CarFacetsVO;
+import com.carsales.dto.CarQueryRequest;
+import com.carsales.entity.CarInfo;
+import com.carsales.mapper.CarMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 车辆分面统计服务
+ * 
+ * 内存索引可用时一次遍历同时统计品牌、状态、价格区间、年份四个分面；
+ * 否则每个分面一条 GROUP BY 查询，由数据库聚合，只返回分组计数。
+ * 结果按"车辆表数据版本 + 筛选条件"缓存，下次库存写入后失效
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CarFacetService {
+
+    /**
+     * 价格区间边界（元），最后一个区间无上限
+     */
+    private static final long[] PRICE_BOUNDS = { 0, 100_000, 200_000, 300_000, 500_000, 1_000_000 };
+
+    private static final String[] PRICE_LABELS = { "10万以下", "10-20万", "20-30万", "30-50万", "50-100万", "100万以上" };
+
+    private static final String[] STATUS_LABELS = { "在库", "锁定", "已售" };
+
+    /**
+     * 价格区间编号的 SQL 表达式（与 PRICE_BOUNDS 对应）
+     */
+    private static final String PRICE_BUCKET_SQL = priceBucketSql();
+
+    private final CarMapper carMapper;
+    private final CarInventoryIndex carInventoryIndex;
+    private final DataVersionService dataVersionService;
+
+    /**
+     * 分面统计缓存：数据版本:筛选条件 -> 统计结果
+     */
+    private final Cache<String, CarFacetsVO> facetCache = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    /**
+     * 查询当前筛选条件下的分面统计
+     * 
+     * @param request 查询请求（品牌、价格区间、状态）
+     * @return 分面统计
+     */
+    public CarFacetsVO getFacets(CarQueryRequest request) {
+        String cacheKey = dataVersionService.version(DataVersionService.CAR_INFO) + ":"
+                + request.getBrand() + "|" + request.getMinPrice() + "|"
+                + request.getMaxPrice() + "|" + request.getStatus();
+        return facetCache.get(cacheKey, key -> computeFacets(request));
+    }
+
+    /**
+     * 计算所有分面（索引可用时一次遍历，否则按分面分组计数）
+     */
+    private CarFacetsVO computeFacets(CarQueryRequest request) {
+        long start = System.nanoTime();
+        FacetCounter counter = new FacetCounter(request);
+
+        if (carInventoryIndex.isReady()) {
+            carInventoryIndex.forEach(counter);
+        } else {
+            // 每个分面只应用其他分面的筛选条件，年份分面应用全部条件并给出总数
+            for (Map<String, Object> row : countBy("brand", request, false, true, true)) {
+                Object value = row.get("facet_value");
+                counter.brandCounts.merge(value == null ? "" : value.toString(), count(row), Long::sum);
+            }
+            for (Map<String, Object> row : countBy("status", request, true, false, true)) {
+                counter.statusCounts.merge(intValue(row), count(row), Long::sum);
+            }
+            for (Map<String, Object> row : countBy(PRICE_BUCKET_SQL, request, true, true, false)) {
+                counter.priceCounts[intValue(row)] += count(row);
+            }
+            for (Map<String, Object> row : countBy("year", request, true, true, true)) {
+                counter.total += count(row);
+                int year = intValue(row);
+                if (year > 0) {
+                    counter.yearCounts.merge(year, count(row), Long::sum);
+                }
+            }
+        }
+
+        CarFacetsVO facets = counter.toFacets();
+        log.debug("车辆分面统计 - 品牌: {}, 价格区间: [{}, {}], 状态: {}, 耗时: {}μs",
+                request.getBrand(), request.getMinPrice(), request.getMaxPrice(), request.getStatus(),
+                (System.nanoTime() - start) / 1000);
+        return facets;
+    }
+
+    /**
+     * 按指定列（或表达式）分组计数
+     *
+     * @param column       分组列（内部常量，不来自请求）
+     * @param request      筛选条件
+     * @param brandFilter  是否应用品牌条件
+     * @param statusFilter 是否应用状态条件
+     * @param priceFilter  是否应用价格条件
+     * @return 每组一行：facet_value, facet_count
+     */
+    private List<Map<String, Object>> countBy(String column, CarQueryRequest request,
+            boolean brandFilter, boolean statusFilter, boolean priceFilter) {
+        boolean hasBrand = request.getBrand() != null && !request.getBrand().isEmpty();
+        QueryWrapper<CarInfo> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select(column + " AS facet_value", "COUNT(*) AS facet_count");
+        queryWrapper.lambda()
+                .eq(brandFilter && hasBrand, CarInfo::getBrand, request.getBrand())
+                .eq(statusFilter && request.getStatus() != null, CarInfo::getStatus, request.getStatus())
+                .ge(priceFilter && request.getMinPrice() != null, CarInfo::getPrice, request.getMinPrice())
+                .le(priceFilter && request.getMaxPrice() != null, CarInfo::getPrice, request.getMaxPrice());
+        queryWrapper.groupBy(column);
+        return carMapper.selectMaps(queryWrapper);
+    }
+
+    private static long count(Map<String, Object> row) {
+        return ((Number) row.get("facet_count")).longValue();
+    }
+
+    private static int intValue(Map<String, Object> row) {
+        Object value = row.get("facet_value");
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    /**
+     * CASE WHEN price >= 1000000 THEN 5 ... ELSE 0 END
+     */
+    private static String priceBucketSql() {
+        StringBuilder sql = new StringBuilder("CASE");
+        for (int i = PRICE_BOUNDS.length - 1; i > 0; i--) {
+            sql.append(" WHEN price >= ").append(PRICE_BOUNDS[i]).append(" THEN ").append(i);
+        }
+        return sql.append(" ELSE 0 END").toString();
+    }
+
+    /**
+     * 分面计数器
+     * 每个分面只应用其他分面的筛选条件（选中某品牌后仍能看到其他品牌的数量）
+     */
+    private static final class FacetCounter implements CarInventoryIndex.CarVisitor {
+
+        private final String brand;
+        private final Integer status;
+        private final long minCents;
+        private final long maxCents;
+
+        private final Map<String, Long> brandCounts = new HashMap<>();
+        private final Map<Integer, Long> statusCounts = new TreeMap<>();
+        private final long[] priceCounts = new long[PRICE_BOUNDS.length];
+        private final Map<Integer, Long> yearCounts = new TreeMap<>(Comparator.reverseOrder());
+        private long total;
+
+        FacetCounter(CarQueryRequest request) {
+            this.brand = request.getBrand() == null || request.getBrand().isEmpty() ? null : request.getBrand();
+            this.status = request.getStatus();
+            this.minCents = request.getMinPrice() == null ? Long.MIN_VALUE
+                    : CarInventoryIndex.toCents(request.getMinPrice(), RoundingMode.CEILING);
+            this.maxCents = request.getMaxPrice() == null ? Long.MAX_VALUE
+                    : CarInventoryIndex.toCents(request.getMaxPrice(), RoundingMode.FLOOR);
+        }
+
+        @Override
+        public void visit(String carBrand, int carStatus, int year, long priceCents) {
+            boolean brandOk = brand == null || brand.equals(carBrand);
+            boolean statusOk = status == null || status == carStatus;
+            boolean priceOk = priceCents >= minCents && priceCents <= maxCents;
+
+            if (statusOk && priceOk) {
+                brandCounts.merge(carBrand, 1L, Long::sum);
+            }
+            if (brandOk && priceOk) {
+                statusCounts.merge(carStatus, 1L, Long::sum);
+            }
+            if (brandOk && statusOk) {
+                priceCounts[priceBucket(priceCents)]++;
+            }
+            if (brandOk && statusOk && priceOk) {
+                total++;
+                if (year > 0) {
+                    yearCounts.merge(year, 1L, Long::sum);
+                }
+            }
+        }
+
+        CarFacetsVO toFacets() {
+            List<CarFacetsVO.FacetCount> brands = new ArrayList<>();
+            brandCounts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<String, Long>comparingByKey()))
+                    .forEach(e -> brands.add(facet(e.getKey(), e.getKey(), e.getValue())));
+
+            List<CarFacetsVO.FacetCount> statuses = new ArrayList<>();
+            statusCounts.forEach((value, count) -> statuses.add(facet(String.valueOf(value),
+                    value >= 0 && value < STATUS_LABELS.length ? STATUS_LABELS[value] : String.valueOf(value), count)));
+
+            List<CarFacetsVO.FacetCount> priceRanges = new ArrayList<>();
+            for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+                priceRanges.add(CarFacetsVO.FacetCount.builder()
+                        .label(PRICE_LABELS[i])
+                        .minPrice(BigDecimal.valueOf(PRICE_BOUNDS[i]))
+                        .maxPrice(i + 1 < PRICE_BOUNDS.length ? BigDecimal.valueOf(PRICE_BOUNDS[i + 1]) : null)
+                        .count(priceCounts[i])
+                        .build());
+            }
+
+            List<CarFacetsVO.FacetCount> years = new ArrayList<>();
+            yearCounts.forEach((value, count) -> years.add(facet(String.valueOf(value), String.valueOf(value), count)));
+
+            return CarFacetsVO.builder()
+                    .total(total)
+                    .brands(brands)
+                    .statuses(statuses)
+                    .priceRanges(priceRanges)
+                    .years(years)
+                    .build();
+        }
+
+        private static int priceBucket(long priceCents) {
+            for (int i = PRICE_BOUNDS.length - 1; i > 0; i--) {
+                if (priceCents >= PRICE_BOUNDS[i] * 100) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        private static CarFacetsVO.FacetCount facet(String value, String label, long count) {
+            return CarFacetsVO.FacetCount.builder().value(value).label(label).count(count).build();
+        }
+    }
+}
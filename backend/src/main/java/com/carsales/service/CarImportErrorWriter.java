@@ -0,0 +1,131 @@
+package com.carsales.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.carsales.dto.CarImportDTO;
+import com.carsales.dto.CarImportErrorDTO;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 车辆导入错误文件写入器
+ * 导入过程中逐行收集失败的行和原因，按批追加写入 Excel（EasyExcel 流式写入，内存只保留当前批）；
+ * 第一条错误出现时才创建文件。每次导入创建一个实例，由导入线程独占。
+ */
+@Slf4j
+public class CarImportErrorWriter {
+
+    /**
+     * 每批写入的行数
+     */
+    private static final int WRITE_BATCH = 500;
+
+    private final Path file;
+    private final List<CarImportErrorDTO> buffer = new ArrayList<>();
+
+    private ExcelWriter excelWriter;
+    private WriteSheet writeSheet;
+
+    /**
+     * 写入失败（磁盘空间不足等）后不再写入，不影响导入本身
+     */
+    private boolean broken;
+
+    @Getter
+    private int rowCount;
+
+    public CarImportErrorWriter(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 记录一行错误
+     *
+     * @param rowNum 原文件中的行号
+     * @param dto    行数据（单元格格式错误时为 null）
+     * @param reason 错误原因
+     */
+    public void write(int rowNum, CarImportDTO dto, String reason) {
+        if (broken) {
+            return;
+        }
+        CarImportErrorDTO errorRow = new CarImportErrorDTO();
+        if (dto != null) {
+            BeanUtils.copyProperties(dto, errorRow);
+        }
+        errorRow.setRowNum(rowNum);
+        errorRow.setReason(reason);
+        buffer.add(errorRow);
+        rowCount++;
+        if (buffer.size() >= WRITE_BATCH) {
+            flush();
+        }
+    }
+
+    /**
+     * 写完剩余的行并关闭文件
+     *
+     * @return 错误文件，没有错误行或写入失败时返回 null
+     */
+    public Path finish() {
+        if (rowCount == 0) {
+            return null;
+        }
+        flush();
+        ExcelWriter writer = excelWriter;
+        excelWriter = null;
+        if (writer != null) {
+            try {
+                writer.finish();
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+        }
+        return broken ? null : file;
+    }
+
+    private void flush() {
+        if (broken || buffer.isEmpty()) {
+            return;
+        }
+        try {
+            if (excelWriter == null) {
+                Files.createDirectories(file.getParent());
+                excelWriter = EasyExcel.write(file.toFile(), CarImportErrorDTO.class).build();
+                writeSheet = EasyExcel.writerSheet("错误行").build();
+            }
+            excelWriter.write(buffer, writeSheet);
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+        buffer.clear();
+    }
+
+    private void fail(Exception e) {
+        log.error("导入错误文件写入失败 - 文件: {}", file, e);
+        broken = true;
+        buffer.clear();
+        ExcelWriter writer = excelWriter;
+        excelWriter = null;
+        if (writer != null) {
+            try {
+                writer.finish();
+            } catch (RuntimeException ignored) {
+                // 已经失败，只释放资源
+            }
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 文件可能仍被占用，由定期清理删除
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.carsales.service;
+
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.exception.ExcelDataConvertException;
+import com.alibaba.excel.read.listener.ReadListener;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.carsales.dto.CarImportDTO;
+import com.carsales.entity.CarInfo;
+import com.carsales.exception.BusinessException;
+import com.carsales.exception.DuplicateKeyTranslator;
+import com.carsales.mapper.CarMapper;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 车辆导入监听器
+ * EasyExcel 逐行回调，校验后放入固定大小的缓冲区，缓冲区满时用一次 IN 查询校验整块 VIN 并写入数据库；
+ * 文件内重复的 VIN 用哈希表在读取时发现。除 VIN 哈希表外，内存只保留当前分块和有限条数的错误信息。
+ * 每个分块通过 BATCH 执行器一次提交全部 INSERT（PostgreSQL 驱动开启 reWriteBatchedInserts 后合并为多行 INSERT）。
+ *
+ * 整体提交模式（默认）：整个导入在调用方的同一事务中进行，出现任何错误后不再写入，
+ * 但继续校验剩余行以便一次性报告，最终由调用方回滚。
+ * 分块提交模式（传入 chunkTransaction）：每个分块在独立事务中写入并提交，失败的行跳过，其余行照常写入。
+ * 两种模式下失败的行都可写入错误文件（传入 errorWriter）。
+ *
+ * 每次导入创建一个实例，由导入线程独占；计数和取消标记为 volatile，可由其他线程读取进度或请求取消。
+ */
+@Slf4j
+public class CarImportListener implements ReadListener<CarImportDTO> {
+
+    /**
+     * 最多保留的错误信息条数（失败行数仍完整统计）
+     */
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    /**
+     * 写入后逐条同步到内存索引的最大车辆数，超过后改为提交后全量重建索引
+     */
+    private static final int INDEX_UPSERT_LIMIT = 10000;
+
+    /**
+     * 每条 IN 查询的最大 VIN 数（低于 SQLite 的绑定参数上限）
+     */
+    private static final int VIN_QUERY_BATCH = 500;
+
+    private final CarMapper carMapper;
+    private final CarInventoryIndex carInventoryIndex;
+    private final int chunkSize;
+
+    /**
+     * 分块事务（为空时为整体提交模式）
+     */
+    private final TransactionTemplate chunkTransaction;
+
+    /**
+     * 错误文件写入器（可为空）
+     */
+    private final CarImportErrorWriter errorWriter;
+
+    /**
+     * 当前分块（校验通过、等待写入的行）
+     */
+    private final List<CarImportRow> chunk;
+
+    /**
+     * 文件中已出现的 VIN 及其首次出现的行号（用于发现文件内重复）
+     */
+    private final Map<String, Integer> seenVins = new HashMap<>();
+
+    @Getter
+    private final List<String> errors = new ArrayList<>();
+
+    @Getter
+    private volatile int readCount;
+
+    /**
+     * 校验通过（含 VIN 校验）的行数
+     */
+    @Getter
+    private volatile int validCount;
+
+    @Getter
+    private volatile int successCount;
+
+    @Getter
+    private volatile int failCount;
+
+    @Getter
+    private volatile int chunkCount;
+
+    /**
+     * 已请求取消，读取下一行前停止
+     */
+    @Getter
+    private volatile boolean cancelled;
+
+    /**
+     * 写入的车辆过多，由调用方在提交后全量重建内存索引
+     */
+    @Getter
+    private volatile boolean rebuildIndex;
+
+    public CarImportListener(CarMapper carMapper, CarInventoryIndex carInventoryIndex, int chunkSize) {
+        this(carMapper, carInventoryIndex, chunkSize, null, null);
+    }
+
+    public CarImportListener(CarMapper carMapper, CarInventoryIndex carInventoryIndex, int chunkSize,
+            TransactionTemplate chunkTransaction, CarImportErrorWriter errorWriter) {
+        this.carMapper = carMapper;
+        this.carInventoryIndex = carInventoryIndex;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.chunk = new ArrayList<>(this.chunkSize);
+        this.chunkTransaction = chunkTransaction;
+        this.errorWriter = errorWriter;
+    }
+
+    @Override
+    public void invoke(CarImportDTO dto, AnalysisContext context) {
+        readCount++;
+        // Excel 行号（rowIndex 从 0 开始，第 1 行是表头）
+        int rowNum = context.readRowHolder().getRowIndex() + 1;
+
+        String error = validate(dto);
+        if (error != null) {
+            fail(rowNum, dto, error);
+            return;
+        }
+        Integer firstRow = seenVins.putIfAbsent(dto.getVin(), rowNum);
+        if (firstRow != null) {
+            fail(rowNum, dto, "车架号 " + dto.getVin() + " 与第" + firstRow + "行重复");
+            return;
+        }
+        chunk.add(new CarImportRow(rowNum, dto));
+        if (chunk.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 已取消时停止读取后续行
+     */
+    @Override
+    public boolean hasNext(AnalysisContext context) {
+        return !cancelled;
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        flush();
+    }
+
+    /**
+     * 单元格类型转换失败时记录该行错误并继续读取，其他异常中止导入
+     */
+    @Override
+    public void onException(Exception exception, AnalysisContext context) throws Exception {
+        if (exception instanceof ExcelDataConvertException convertException) {
+            readCount++;
+            fail(convertException.getRowIndex() + 1, null, "数据格式错误 - 第" + (convertException.getColumnIndex() + 1)
+                    + "列：" + convertException.getCellData());
+            return;
+        }
+        throw exception;
+    }
+
+    /**
+     * 请求取消导入（由其他线程调用）
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 是否有校验失败的行
+     */
+    public boolean hasErrors() {
+        return failCount > 0;
+    }
+
+    /**
+     * 校验必填字段
+     *
+     * @return 错误信息，校验通过返回 null
+     */
+    private String validate(CarImportDTO dto) {
+        if (dto.getVin() == null || dto.getVin().trim().isEmpty()) {
+            return "车架号不能为空";
+        }
+        if (dto.getBrand() == null || dto.getBrand().trim().isEmpty()) {
+            return "品牌不能为空";
+        }
+        if (dto.getModel() == null || dto.getModel().trim().isEmpty()) {
+            return "型号不能为空";
+        }
+        if (dto.getPrice() == null || dto.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            return "价格必须大于0";
+        }
+        return null;
+    }
+
+    /**
+     * 校验当前分块的 VIN 并写入数据库
+     * 整体提交模式下已有错误时只校验不写入；分块提交模式下跳过失败的行，其余行在独立事务中写入
+     */
+    private void flush() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        chunkCount++;
+
+        Set<String> existing = findExistingVins(chunk);
+        List<CarImportRow> accepted = new ArrayList<>(chunk.size());
+        for (CarImportRow row : chunk) {
+            if (existing.contains(row.dto().getVin())) {
+                fail(row.rowNum(), row.dto(), "车架号 " + row.dto().getVin() + " 已存在");
+                continue;
+            }
+            accepted.add(row);
+        }
+        chunk.clear();
+        validCount += accepted.size();
+
+        if (accepted.isEmpty()) {
+            return;
+        }
+        List<CarInfo> cars = new ArrayList<>(accepted.size());
+        for (CarImportRow row : accepted) {
+            cars.add(toCarInfo(row.dto()));
+        }
+        if (chunkTransaction == null) {
+            if (hasErrors()) {
+                return;
+            }
+            write(cars);
+            return;
+        }
+
+        try {
+            chunkTransaction.executeWithoutResult(status -> write(cars));
+        } catch (RuntimeException e) {
+            // 校验后被并发写入占用的 VIN 触发唯一约束：本块回滚并记为失败，继续导入后续分块
+            BusinessException duplicate = DuplicateKeyTranslator.toBusinessException(e);
+            if (duplicate == null) {
+                throw e;
+            }
+            for (CarImportRow row : accepted) {
+                fail(row.rowNum(), row.dto(), "本块写入失败：" + duplicate.getMessage());
+            }
+            log.warn("车辆导入分块写入失败，已回滚 - 分块: {}, 原因: {}", chunkCount, duplicate.getMessage());
+        }
+    }
+
+    /**
+     * 批量写入一块车辆并登记提交后的索引同步
+     */
+    private void write(List<CarInfo> cars) {
+        carMapper.insert(cars, cars.size());
+        successCount += cars.size();
+        syncIndex(cars);
+        log.debug("车辆导入分块写入 - 分块: {}, 本块: {}, 累计: {}", chunkCount, cars.size(), successCount);
+    }
+
+    /**
+     * 查询分块中已存在于数据库的 VIN（每 VIN_QUERY_BATCH 个一条 IN 查询）
+     */
+    private Set<String> findExistingVins(List<CarImportRow> rows) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += VIN_QUERY_BATCH) {
+            List<String> vins = new ArrayList<>();
+            for (CarImportRow row : rows.subList(from, Math.min(from + VIN_QUERY_BATCH, rows.size()))) {
+                vins.add(row.dto().getVin());
+            }
+            LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.select(CarInfo::getVin).in(CarInfo::getVin, vins);
+            for (Object vin : carMapper.selectObjs(queryWrapper)) {
+                existing.add(String.valueOf(vin));
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * 提交后同步内存索引：数量不多时逐条写入，超过上限后改为全量重建
+     */
+    private void syncIndex(List<CarInfo> cars) {
+        if (rebuildIndex) {
+            return;
+        }
+        if (successCount > INDEX_UPSERT_LIMIT) {
+            rebuildIndex = true;
+            return;
+        }
+        carInventoryIndex.upsertAfterCommit(cars);
+    }
+
+    private CarInfo toCarInfo(CarImportDTO dto) {
+        CarInfo carInfo = new CarInfo();
+        BeanUtils.copyProperties(dto, carInfo);
+        // 如果 Excel 没有填状态，默认为"在库"
+        if (carInfo.getStatus() == null) {
+            carInfo.setStatus(CarService.STATUS_AVAILABLE);
+        }
+        carInfo.setVersion(0);
+        return carInfo;
+    }
+
+    private void fail(int rowNum, CarImportDTO dto, String message) {
+        failCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("第" + rowNum + "行：" + message);
+        }
+        if (errorWriter != null) {
+            errorWriter.write(rowNum, dto, message);
+        }
+    }
+
+    /**
+     * 等待写入的行（保留 Excel 行号用于报告错误）
+     */
+    private record CarImportRow(int rowNum, CarImportDTO dto) {
+    }
+}
@@ -0,0 +1,506 @@
+package com.carsales.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.carsales.common.LoginUser;
+import com.carsales.dto.CarImportDTO;
+import com.carsales.entity.CarImportJob;
+import com.carsales.exception.BusinessException;
+import com.carsales.exception.DuplicateKeyTranslator;
+import com.carsales.mapper.CarImportJobMapper;
+import com.carsales.mapper.CarMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 车辆导入任务服务类
+ *
+ * 上传的文件先保存为临时文件并登记导入任务，立即返回任务ID；
+ * 导入在有界的后台线程池中执行，队列满时快速拒绝，不占用 Tomcat 工作线程。
+ * 导入中的进度由本实例内存中的监听器提供，任务结束时把计数和结果写入 car_import_job，
+ * 重启后仍可查看；重启时仍处于排队中或导入中的任务标记为失败。
+ *
+ * 支持两种提交模式：整体提交（atomic，默认，任何一行失败整体回滚）和
+ * 分块提交（chunked，每块独立提交，跳过失败的行）。失败的行和原因写入错误文件，
+ * 可通过任务下载，修改后直接重新导入；错误文件保留 car-import.error-retention-hours 小时。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CarImportService {
+
+    /**
+     * 任务状态：排队中
+     */
+    public static final int STATUS_QUEUED = 0;
+
+    /**
+     * 任务状态：导入中
+     */
+    public static final int STATUS_RUNNING = 1;
+
+    /**
+     * 任务状态：已完成
+     */
+    public static final int STATUS_SUCCEEDED = 2;
+
+    /**
+     * 任务状态：失败
+     */
+    public static final int STATUS_FAILED = 3;
+
+    /**
+     * 任务状态：已取消
+     */
+    public static final int STATUS_CANCELLED = 4;
+
+    /**
+     * 提交模式：整体提交
+     */
+    public static final int MODE_ATOMIC = 0;
+
+    /**
+     * 提交模式：分块提交
+     */
+    public static final int MODE_CHUNKED = 1;
+
+    /**
+     * 查询任务列表的默认条数
+     */
+    private static final int LIST_DEFAULT_LIMIT = 20;
+
+    private final CarImportJobMapper jobMapper;
+    private final CarMapper carMapper;
+    private final CarInventoryIndex carInventoryIndex;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${car-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${car-import.pool-size:1}")
+    private int poolSize;
+
+    @Value("${car-import.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${car-import.error-dir:${java.io.tmpdir}/car-import-errors}")
+    private String errorDir;
+
+    @Value("${car-import.error-retention-hours:72}")
+    private long errorRetentionHours;
+
+    /**
+     * 后台导入线程池
+     */
+    private ThreadPoolExecutor importExecutor;
+
+    /**
+     * 本实例正在执行的任务（任务ID -> 监听器，用于读取进度和取消）
+     */
+    private final Map<Long, CarImportListener> running = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        importExecutor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "car-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("车辆导入线程池已启用 - 线程数: {}, 队列长度: {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * 启动时把上次运行中断的任务标记为失败
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        LambdaUpdateWrapper<CarImportJob> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(CarImportJob::getStatus, STATUS_FAILED)
+                .set(CarImportJob::getMessage, "服务重启，导入任务已中断")
+                .set(CarImportJob::getFinishTime, LocalDateTime.now())
+                .set(CarImportJob::getUpdateTime, LocalDateTime.now())
+                .in(CarImportJob::getStatus, STATUS_QUEUED, STATUS_RUNNING);
+        int interrupted = jobMapper.update(null, updateWrapper);
+        if (interrupted > 0) {
+            log.warn("车辆导入任务因服务重启中断 - 数量: {}", interrupted);
+        }
+    }
+
+    /**
+     * 提交导入任务（文件保存为临时文件后在后台导入）
+     *
+     * @param file      Excel 文件
+     * @param mode      提交模式：atomic-整体提交（默认）, chunked-分块提交
+     * @param loginUser 当前登录用户
+     * @return 导入任务（排队中）
+     */
+    public CarImportJob submit(MultipartFile file, String mode, LoginUser loginUser) {
+        int commitMode = parseMode(mode);
+        String fileName = file.getOriginalFilename();
+        String suffix = fileName != null && fileName.endsWith(".xls") ? ".xls" : ".xlsx";
+        Path tempFile;
+        try {
+            tempFile = Files.createTempFile("car-import-", suffix);
+            file.transferTo(tempFile);
+        } catch (IOException e) {
+            log.error("导入文件保存失败", e);
+            throw new BusinessException(5001, "文件上传失败");
+        }
+
+        CarImportJob job = new CarImportJob();
+        job.setFileName(fileName);
+        job.setStatus(STATUS_QUEUED);
+        job.setCommitMode(commitMode);
+        job.setReadCount(0);
+        job.setValidCount(0);
+        job.setInsertedCount(0);
+        job.setFailedCount(0);
+        job.setCreatedBy(loginUser.getUserId());
+        jobMapper.insert(job);
+
+        Long jobId = job.getId();
+        try {
+            importExecutor.execute(() -> run(jobId, tempFile, commitMode == MODE_CHUNKED));
+        } catch (RejectedExecutionException e) {
+            jobMapper.deleteById(jobId);
+            deleteQuietly(tempFile);
+            log.warn("车辆导入繁忙：导入队列已满 - 文件名: {}", fileName);
+            throw new BusinessException(5005, "导入任务过多，请稍后再试");
+        }
+
+        log.info("车辆导入任务已提交 - 任务ID: {}, 文件名: {}, 大小: {} bytes, 模式: {}, 提交人: {}",
+                jobId, fileName, file.getSize(), commitMode == MODE_CHUNKED ? "chunked" : "atomic",
+                loginUser.getUsername());
+        return job;
+    }
+
+    /**
+     * 查询导入任务（导入中的任务返回实时进度）
+     *
+     * @param id 任务ID
+     * @return 导入任务
+     */
+    public CarImportJob getJob(Long id) {
+        CarImportJob job = jobMapper.selectById(id);
+        if (job == null) {
+            throw new BusinessException(3009, "导入任务不存在");
+        }
+        CarImportListener listener = running.get(id);
+        if (listener != null && job.getStatus() == STATUS_RUNNING) {
+            fillProgress(job, listener);
+        }
+        return job;
+    }
+
+    /**
+     * 查询最近的导入任务
+     *
+     * @param limit 最多返回条数
+     * @return 导入任务（按创建时间倒序）
+     */
+    public List<CarImportJob> listJobs(Integer limit) {
+        int size = limit == null ? LIST_DEFAULT_LIMIT : Math.max(1, Math.min(limit, 100));
+        LambdaQueryWrapper<CarImportJob> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.orderByDesc(CarImportJob::getCreateTime).last("LIMIT " + size);
+        List<CarImportJob> jobs = jobMapper.selectList(queryWrapper);
+        for (CarImportJob job : jobs) {
+            CarImportListener listener = running.get(job.getId());
+            if (listener != null && job.getStatus() == STATUS_RUNNING) {
+                fillProgress(job, listener);
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * 获取导入任务的错误文件
+     *
+     * @param id 任务ID
+     * @return 错误文件
+     */
+    public Path getErrorFile(Long id) {
+        CarImportJob job = jobMapper.selectById(id);
+        if (job == null) {
+            throw new BusinessException(3009, "导入任务不存在");
+        }
+        if (job.getErrorFile() == null) {
+            throw new BusinessException(3009, "该导入任务没有错误文件");
+        }
+        Path file = Paths.get(errorDir, job.getErrorFile());
+        if (!Files.isRegularFile(file)) {
+            throw new BusinessException(3009, "错误文件已过期");
+        }
+        return file;
+    }
+
+    /**
+     * 取消导入任务
+     * 排队中的任务直接标记为已取消；导入中的任务在读取下一行前停止，
+     * 整体提交模式回滚已写入的数据，分块提交模式保留已提交的分块
+     *
+     * @param id 任务ID
+     */
+    public void cancel(Long id) {
+        CarImportListener listener = running.get(id);
+        if (listener != null) {
+            listener.cancel();
+            log.info("车辆导入任务取消中 - 任务ID: {}", id);
+            return;
+        }
+
+        if (finish(id, STATUS_QUEUED, STATUS_CANCELLED, "导入已取消", null)) {
+            log.info("车辆导入任务已取消（排队中） - 任务ID: {}", id);
+            return;
+        }
+        CarImportJob job = jobMapper.selectById(id);
+        if (job == null) {
+            throw new BusinessException(3009, "导入任务不存在");
+        }
+        if (job.getStatus() == STATUS_RUNNING) {
+            throw new BusinessException(3008, "导入任务正在其他实例上执行，无法取消");
+        }
+        throw new BusinessException(3008, "导入任务已结束，无法取消");
+    }
+
+    /**
+     * 后台执行导入任务
+     */
+    private void run(Long jobId, Path tempFile, boolean chunked) {
+        // 先登记监听器再改为导入中，避免两步之间的取消请求找不到任务
+        String errorFileName = "car-import-" + jobId + "-errors.xlsx";
+        CarImportErrorWriter errorWriter = new CarImportErrorWriter(Paths.get(errorDir, errorFileName));
+        CarImportListener listener = new CarImportListener(carMapper, carInventoryIndex, chunkSize,
+                chunked ? transactionTemplate : null, errorWriter);
+        running.put(jobId, listener);
+        try {
+            LambdaUpdateWrapper<CarImportJob> updateWrapper = new LambdaUpdateWrapper<>();
+            updateWrapper.set(CarImportJob::getStatus, STATUS_RUNNING)
+                    .set(CarImportJob::getStartTime, LocalDateTime.now())
+                    .set(CarImportJob::getUpdateTime, LocalDateTime.now())
+                    .eq(CarImportJob::getId, jobId)
+                    .eq(CarImportJob::getStatus, STATUS_QUEUED);
+            if (jobMapper.update(null, updateWrapper) == 0) {
+                // 排队期间已被取消
+                return;
+            }
+
+            int status;
+            String message;
+            try {
+                if (chunked) {
+                    importFile(tempFile, listener, true);
+                } else {
+                    transactionTemplate.executeWithoutResult(txStatus -> importFile(tempFile, listener, false));
+                }
+                status = STATUS_SUCCEEDED;
+                message = listener.hasErrors()
+                        ? "导入完成，" + listener.getFailCount() + " 行失败，详见错误文件"
+                        : "导入完成";
+                log.info("车辆导入任务完成 - 任务ID: {}, 成功数: {}, 失败数: {}, 分块数: {}",
+                        jobId, listener.getSuccessCount(), listener.getFailCount(), listener.getChunkCount());
+            } catch (BusinessException e) {
+                status = listener.isCancelled() ? STATUS_CANCELLED : STATUS_FAILED;
+                message = e.getMessage();
+                log.warn("车辆导入任务未完成 - 任务ID: {}, 原因: {}", jobId, e.getMessage());
+            } catch (Exception e) {
+                status = STATUS_FAILED;
+                message = "导入失败：" + e.getMessage();
+                log.error("车辆导入任务失败 - 任务ID: {}", jobId, e);
+            }
+
+            if (chunked && listener.getSuccessCount() > 0) {
+                // 分块提交模式下已提交的分块不随任务失败或取消回滚
+                dataVersionService.bump(DataVersionService.CAR_INFO);
+                if (listener.isRebuildIndex()) {
+                    carInventoryIndex.rebuildAfterCommit();
+                }
+            }
+
+            CarImportJob result = new CarImportJob();
+            fillProgress(result, listener);
+            if (!chunked && status != STATUS_SUCCEEDED) {
+                // 整体提交模式下未完成的导入整体回滚，写入数为 0
+                result.setInsertedCount(0);
+            }
+            if (errorWriter.finish() != null) {
+                result.setErrorFile(errorFileName);
+            }
+            finish(jobId, STATUS_RUNNING, status, message, result);
+        } finally {
+            running.remove(jobId);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * 读取并导入文件
+     * 整体提交模式下在调用方的事务中执行，任何一行校验失败或任务被取消时抛出异常，由事务回滚；
+     * 分块提交模式下各分块已自行提交，只有取消时抛出异常
+     */
+    private void importFile(Path tempFile, CarImportListener listener, boolean chunked) {
+        try {
+            EasyExcel.read(tempFile.toFile(), CarImportDTO.class, listener).sheet().doRead();
+        } catch (RuntimeException e) {
+            if (listener.isCancelled()) {
+                throw new BusinessException(5006, "导入已取消");
+            }
+            // 校验后被并发写入占用的 VIN 在批量 INSERT 时触发唯一约束
+            BusinessException duplicate = DuplicateKeyTranslator.toBusinessException(e);
+            if (duplicate != null) {
+                throw duplicate;
+            }
+            throw e;
+        }
+
+        if (listener.isCancelled()) {
+            throw new BusinessException(5006, "导入已取消");
+        }
+        if (chunked) {
+            return;
+        }
+        if (listener.hasErrors()) {
+            String errorMessage = "数据验证失败：" + String.join("; ", listener.getErrors());
+            if (listener.getFailCount() > listener.getErrors().size()) {
+                errorMessage += "; 等共 " + listener.getFailCount() + " 行错误";
+            }
+            throw new BusinessException(5002, errorMessage);
+        }
+        if (listener.getSuccessCount() > 0) {
+            dataVersionService.bump(DataVersionService.CAR_INFO);
+            if (listener.isRebuildIndex()) {
+                carInventoryIndex.rebuildAfterCommit();
+            }
+        }
+    }
+
+    /**
+     * 以当前状态为条件结束任务并写入最终计数
+     *
+     * @param result 最终计数和错误文件（为空时不更新）
+     * @return true-本次操作结束了任务
+     */
+    private boolean finish(Long jobId, int fromStatus, int toStatus, String message, CarImportJob result) {
+        LambdaUpdateWrapper<CarImportJob> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(CarImportJob::getStatus, toStatus)
+                .set(CarImportJob::getMessage, message)
+                .set(CarImportJob::getFinishTime, LocalDateTime.now())
+                .set(CarImportJob::getUpdateTime, LocalDateTime.now())
+                .eq(CarImportJob::getId, jobId)
+                .eq(CarImportJob::getStatus, fromStatus);
+        if (result != null) {
+            updateWrapper.set(CarImportJob::getReadCount, result.getReadCount())
+                    .set(CarImportJob::getValidCount, result.getValidCount())
+                    .set(CarImportJob::getInsertedCount, result.getInsertedCount())
+                    .set(CarImportJob::getFailedCount, result.getFailedCount())
+                    .set(CarImportJob::getErrorFile, result.getErrorFile());
+        }
+        return jobMapper.update(null, updateWrapper) > 0;
+    }
+
+    private void fillProgress(CarImportJob job, CarImportListener listener) {
+        job.setReadCount(listener.getReadCount());
+        job.setValidCount(listener.getValidCount());
+        job.setInsertedCount(listener.getSuccessCount());
+        job.setFailedCount(listener.getFailCount());
+    }
+
+    /**
+     * 定期删除过期的错误文件
+     */
+    @Scheduled(fixedDelay = 3_600_000, initialDelay = 3_600_000)
+    public void cleanupErrorFiles() {
+        Path dir = Paths.get(errorDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        Instant expireBefore = Instant.now().minus(errorRetentionHours, ChronoUnit.HOURS);
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "car-import-*-errors.xlsx")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(expireBefore)) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("导入错误文件清理失败 - 目录: {}", dir, e);
+        }
+        if (deleted > 0) {
+            log.info("已删除过期的导入错误文件 - 数量: {}", deleted);
+        }
+    }
+
+    private int parseMode(String mode) {
+        if (mode == null || mode.isBlank() || "atomic".equalsIgnoreCase(mode)) {
+            return MODE_ATOMIC;
+        }
+        if ("chunked".equalsIgnoreCase(mode)) {
+            return MODE_CHUNKED;
+        }
+        throw new BusinessException(2003, "导入模式只能是 atomic 或 chunked");
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("导入临时文件删除失败 - 文件: {}", file);
+        }
+    }
+
+    /**
+     * 导入线程池统计（用于监控）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", poolSize);
+        stats.put("activeThreads", importExecutor.getActiveCount());
+        stats.put("queueSize", importExecutor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("running", running.size());
+        stats.put("completedTasks", importExecutor.getCompletedTaskCount());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 正在导入的任务停止读取并回滚
+        running.values().forEach(CarImportListener::cancel);
+        importExecutor.shutdown();
+    }
+}
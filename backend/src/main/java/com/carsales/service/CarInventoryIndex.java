@@ -0,0 +1,863 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.carsales.entity.CarInfo;
+import com.carsales.mapper.CarMapper;
+import com.carsales.util.TransactionUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 车辆库存内存索引（car_info 的只读列式副本）
+ *
+ * 只保存列表筛选、分面统计和排序需要的列：品牌（字典编码）、价格（分，long）、状态（byte）、
+ * 年份（short）、创建时间（毫秒），以平行数组存放；每个品牌、每个状态各一个位图，
+ * 筛选时位图求交后按"创建时间、ID 倒序"的顺序数组扫描。
+ * 车辆列表查询由此得到当前页的 ID，再按主键取整行，不再执行带筛选条件的 SQL 和 COUNT。
+ *
+ * VIN 另建 4-gram 倒排索引（VIN 只含数字和大写字母，4-gram 编码为 36^4 以内的整数），
+ * 片段查询时取片段中最稀有的 4-gram 的倒排列表作为候选，再逐个校验是否包含该片段，
+ * 支持任意位置（包括车窗上常用的后 6~8 位）的模糊查询。
+ *
+ * CarService 的写操作在事务提交后同步到索引；定期全量重建与数据库对账，修正其他途径
+ * （存储过程、其他实例、手工 SQL）造成的偏差
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CarInventoryIndex {
+
+    /**
+     * 支持的最大状态值（状态位图数组长度 - 1）
+     */
+    private static final int MAX_STATUS = 7;
+
+    /**
+     * 初始容量
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * VIN 长度
+     */
+    private static final int VIN_LENGTH = 17;
+
+    /**
+     * VIN 索引的 gram 长度（也是片段查询的最小长度）
+     */
+    public static final int GRAM_LENGTH = 4;
+
+    /**
+     * VIN 字符集大小（0-9, A-Z）
+     */
+    private static final int ALPHABET_SIZE = 36;
+
+    /**
+     * 4-gram 编码空间大小
+     */
+    private static final int GRAM_SPACE = ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE;
+
+    private final CarMapper carMapper;
+    private final DataVersionService dataVersionService;
+
+    @Value("${car-index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 当前索引数据（重建时整体替换）
+     */
+    private Data data = new Data(INITIAL_CAPACITY, null, null);
+
+    /**
+     * 上一代索引的 VIN 倒排表（36^4 个槽位，约 13MB），下次重建时清空后复用，避免每次重建都重新分配
+     * 替换后读者已不再引用上一代数据；只保留倒排表，其余数组随上一代释放；只在 rebuild() 内访问
+     */
+    private int[][] sparePostings;
+    private int[] sparePostingSizes;
+
+    /**
+     * 是否已完成首次加载
+     */
+    private volatile boolean ready;
+
+    /**
+     * 重建期间被写入的车辆ID（重建完成后从数据库补齐）
+     */
+    private Set<Long> touchedDuringRebuild;
+
+    @Getter
+    private volatile long lastRebuildMillis;
+
+    @Getter
+    private volatile long lastDrift;
+
+    /**
+     * 启动完成后加载索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            log.info("车辆库存内存索引已禁用");
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * 索引是否可用（未启用或首次加载未完成时，查询走 SQL）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 按筛选条件查询一页车辆ID（按创建时间、ID 倒序）
+     *
+     * @param brand      品牌（精确匹配，可为空）
+     * @param minPrice   最低价格（可为空）
+     * @param maxPrice   最高价格（可为空）
+     * @param status     状态（可为空）
+     * @param offset     跳过的条数
+     * @param limit      返回的条数
+     * @param countTotal 是否统计总数（不统计时取满一页即停止扫描）
+     * @return 当前页ID及总数
+     */
+    public IndexPage query(String brand, BigDecimal minPrice, BigDecimal maxPrice, Integer status,
+                           long offset, int limit, boolean countTotal) {
+        long minCents = minPrice == null ? Long.MIN_VALUE : toCents(minPrice, RoundingMode.CEILING);
+        long maxCents = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice, RoundingMode.FLOOR);
+
+        lock.readLock().lock();
+        try {
+            Data current = data;
+
+            // 品牌、状态位图求交得到候选集合
+            BitSet candidates = (BitSet) current.live.clone();
+            if (brand != null && !brand.isEmpty()) {
+                Integer brandId = current.brandIds.get(brand);
+                if (brandId == null) {
+                    return new IndexPage(List.of(), 0);
+                }
+                candidates.and(current.brandBits.get(brandId));
+            }
+            if (status != null) {
+                if (status < 0 || status > MAX_STATUS) {
+                    return new IndexPage(List.of(), 0);
+                }
+                candidates.and(current.statusBits[status]);
+            }
+
+            boolean priceFilter = minPrice != null || maxPrice != null;
+            if (!priceFilter && countTotal) {
+                // 无价格条件时总数即候选集合大小，只需按顺序取当前页
+                countTotal = false;
+            }
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, current.orderSize));
+            long matched = 0;
+            long end = offset + limit;
+            int[] order = current.order;
+            for (int i = 0; i < current.orderSize; i++) {
+                int slot = order[i];
+                if (!candidates.get(slot)) {
+                    continue;
+                }
+                long cents = current.priceCents[slot];
+                if (cents < minCents || cents > maxCents) {
+                    continue;
+                }
+                if (matched >= offset && matched < end) {
+                    ids.add(current.ids[slot]);
+                }
+                matched++;
+                if (matched >= end && !countTotal) {
+                    break;
+                }
+            }
+
+            long total = priceFilter ? matched : candidates.cardinality();
+            return new IndexPage(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按 VIN 片段查询车辆ID（按创建时间倒序）
+     *
+     * @param fragment VIN 片段（至少 GRAM_LENGTH 位，不区分大小写）
+     * @param limit    最多返回的条数
+     * @return 车辆ID
+     */
+    public List<Long> searchVin(String fragment, int limit) {
+        byte[] query = fragment.toUpperCase().getBytes(StandardCharsets.US_ASCII);
+
+        lock.readLock().lock();
+        try {
+            Data current = data;
+
+            // 取最稀有的 4-gram 作为候选集合
+            int best = -1;
+            int bestSize = Integer.MAX_VALUE;
+            for (int i = 0; i + GRAM_LENGTH <= query.length; i++) {
+                int gram = gramAt(query, i);
+                if (gram < 0) {
+                    return List.of();
+                }
+                int size = current.postingSizes[gram];
+                if (size < bestSize) {
+                    best = gram;
+                    bestSize = size;
+                }
+            }
+            if (best < 0 || bestSize == 0) {
+                return List.of();
+            }
+
+            // 校验候选并保留最新的 limit 条（小顶堆按创建时间）
+            PriorityQueue<Integer> newest = new PriorityQueue<>(limit + 1, (a, b) -> {
+                int byTime = Long.compare(current.createMillis[a], current.createMillis[b]);
+                return byTime != 0 ? byTime : Long.compare(current.ids[a], current.ids[b]);
+            });
+            BitSet seen = new BitSet();
+            int[] posting = current.postings[best];
+            for (int i = 0; i < bestSize; i++) {
+                int slot = posting[i];
+                if (!current.live.get(slot) || seen.get(slot)) {
+                    continue;
+                }
+                seen.set(slot);
+                if (current.vinContains(slot, query)) {
+                    newest.add(slot);
+                    if (newest.size() > limit) {
+                        newest.poll();
+                    }
+                }
+            }
+
+            Long[] ids = new Long[newest.size()];
+            for (int i = ids.length - 1; i >= 0; i--) {
+                ids[i] = current.ids[newest.poll()];
+            }
+            return Arrays.asList(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在读锁中遍历所有车辆（用于分面统计等聚合）
+     *
+     * @param visitor 访问器
+     */
+    public void forEach(CarVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            Data current = data;
+            for (int slot = current.live.nextSetBit(0); slot >= 0; slot = current.live.nextSetBit(slot + 1)) {
+                visitor.visit(current.brandNames.get(current.brandOf[slot]), current.statusOf[slot],
+                        current.yearOf[slot], current.priceCents[slot]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 事务提交后写入或更新车辆
+     *
+     * @param cars 车辆（需包含 ID、品牌、价格、状态、年份、创建时间）
+     */
+    public void upsertAfterCommit(Collection<CarInfo> cars) {
+        if (!enabled || cars.isEmpty()) {
+            return;
+        }
+        List<CarInfo> snapshot = new ArrayList<>(cars);
+        TransactionUtil.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (CarInfo car : snapshot) {
+                    data.upsert(car);
+                    markTouched(car.getId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 事务提交后写入或更新车辆
+     *
+     * @param car 车辆
+     */
+    public void upsertAfterCommit(CarInfo car) {
+        upsertAfterCommit(List.of(car));
+    }
+
+    /**
+     * 事务提交后从数据库重新读取车辆（用于状态等字段被 SQL 直接修改的场景）
+     *
+     * @param carId 车辆ID
+     */
+    public void refreshAfterCommit(Long carId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> refresh(List.of(carId)));
+    }
+
+    /**
+     * 事务提交后从数据库重新读取一批车辆（用于批量 SQL 更新的场景）
+     *
+     * @param carIds 车辆ID
+     */
+    public void refreshAfterCommit(Collection<Long> carIds) {
+        if (!enabled || carIds.isEmpty()) {
+            return;
+        }
+        List<Long> snapshot = new ArrayList<>(carIds);
+        TransactionUtil.afterCommit(() -> refresh(snapshot));
+    }
+
+    /**
+     * 事务提交后删除车辆
+     *
+     * @param carId 车辆ID
+     */
+    public void removeAfterCommit(Long carId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                data.remove(carId);
+                markTouched(carId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * 事务提交后全量重建（用于大批量导入，避免为逐条写入索引而在事务期间保留全部车辆）
+     */
+    public void rebuildAfterCommit() {
+        if (!enabled) {
+            return;
+        }
+        TransactionUtil.afterCommit(this::rebuild);
+    }
+
+    /**
+     * 定期全量重建，与数据库对账
+     */
+    @Scheduled(fixedDelayString = "${car-index.reconcile-interval:300000}",
+            initialDelayString = "${car-index.reconcile-interval:300000}")
+    public void reconcile() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 从数据库全量重建索引
+     * 重建期间的写入记录下来，替换后从数据库重新读取这些车辆，避免被旧快照覆盖
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Data rebuilt;
+        try {
+            LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.select(CarInfo::getId, CarInfo::getVin, CarInfo::getBrand, CarInfo::getPrice,
+                    CarInfo::getStatus, CarInfo::getYear, CarInfo::getCreateTime);
+            List<CarInfo> cars = carMapper.selectList(queryWrapper);
+
+            rebuilt = new Data(Math.max(INITIAL_CAPACITY, cars.size() + cars.size() / 4),
+                    sparePostings, sparePostingSizes);
+            rebuilt.load(cars);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.error("车辆库存内存索引重建失败", e);
+            return;
+        }
+
+        Set<Long> touched;
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                lastDrift = Math.abs(rebuilt.live.cardinality() - data.live.cardinality());
+            }
+            sparePostings = data.postings;
+            sparePostingSizes = data.postingSizes;
+            data = rebuilt;
+            touched = touchedDuringRebuild;
+            touchedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!touched.isEmpty()) {
+            refresh(touched);
+        }
+        // 对账可能修正了数据，使依赖版本号的派生缓存（总数、分面统计）失效
+        dataVersionService.bump(DataVersionService.CAR_INFO);
+
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("车辆库存内存索引重建完成 - 车辆数: {}, 品牌数: {}, 耗时: {}ms",
+                rebuilt.live.cardinality(), rebuilt.brandNames.size(), lastRebuildMillis);
+    }
+
+    /**
+     * 从数据库重新读取指定车辆（不存在则从索引删除）
+     */
+    private void refresh(Collection<Long> carIds) {
+        List<CarInfo> cars = carMapper.selectByIds(carIds);
+        Map<Long, CarInfo> byId = new HashMap<>();
+        for (CarInfo car : cars) {
+            byId.put(car.getId(), car);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Long carId : carIds) {
+                CarInfo car = byId.get(carId);
+                if (car == null) {
+                    data.remove(carId);
+                } else {
+                    data.upsert(car);
+                }
+                markTouched(carId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取索引统计信息
+     *
+     * @return 车辆数、品牌数、上次重建耗时及对账偏差
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("enabled", enabled);
+            stats.put("ready", ready);
+            stats.put("size", data.live.cardinality());
+            stats.put("brands", data.brandNames.size());
+            stats.put("slots", data.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("lastDrift", lastDrift);
+        return stats;
+    }
+
+    private void markTouched(Long carId) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(carId);
+        }
+    }
+
+    /**
+     * 车辆访问器（聚合统计用）
+     */
+    @FunctionalInterface
+    public interface CarVisitor {
+
+        /**
+         * @param brand      品牌
+         * @param status     状态
+         * @param year       年份（未填写为 0）
+         * @param priceCents 价格（分）
+         */
+        void visit(String brand, int status, int year, long priceCents);
+    }
+
+    /**
+     * VIN 字符编码（0-9 -> 0-9, A-Z -> 10-35），其他字符返回 -1
+     */
+    private static int charCode(byte c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * 从指定位置开始的 4-gram 编码，包含非法字符时返回 -1
+     */
+    private static int gramAt(byte[] chars, int offset) {
+        int gram = 0;
+        for (int i = 0; i < GRAM_LENGTH; i++) {
+            int code = charCode(chars[offset + i]);
+            if (code < 0) {
+                return -1;
+            }
+            gram = gram * ALPHABET_SIZE + code;
+        }
+        return gram;
+    }
+
+    /**
+     * 价格转换为分
+     */
+    static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.movePointRight(2).setScale(0, roundingMode).longValue();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 一页查询结果
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class IndexPage {
+
+        /**
+         * 当前页车辆ID（已排序）
+         */
+        private final List<Long> ids;
+
+        /**
+         * 符合条件的总数（未统计时为已扫描的匹配数）
+         */
+        private final long total;
+    }
+
+    /**
+     * 索引数据（非线程安全，由外层读写锁保护）
+     */
+    private static final class Data {
+
+        private long[] ids;
+        private int[] brandOf;
+        private long[] priceCents;
+        private byte[] statusOf;
+        private short[] yearOf;
+        private long[] createMillis;
+        private int size;
+
+        /**
+         * VIN（每个槽位固定 VIN_LENGTH 字节，大写 ASCII）及实际长度
+         */
+        private byte[] vins;
+        private byte[] vinLengths;
+
+        /**
+         * VIN 4-gram 倒排列表：gram 编码 -> 槽位数组（VIN 修改后旧条目保留，查询时校验过滤，重建时清理）
+         * 复用上一代的数组时只把长度清零，槽位数组保留容量，超出长度的旧内容不会被读到
+         */
+        private final int[][] postings;
+        private final int[] postingSizes;
+
+        private final BitSet live = new BitSet();
+        private final Map<Long, Integer> slotById = new HashMap<>();
+
+        private final Map<String, Integer> brandIds = new HashMap<>();
+        private final List<String> brandNames = new ArrayList<>();
+        private final List<BitSet> brandBits = new ArrayList<>();
+        private final BitSet[] statusBits = new BitSet[MAX_STATUS + 1];
+
+        /**
+         * 按创建时间、ID 倒序排列的存活槽位
+         * 单条写入时二分查找位置后插入或删除（只移动 int 数组），全量加载时一次排序
+         */
+        private int[] order = new int[0];
+        private int orderSize;
+
+        /**
+         * 是否逐条维护顺序数组（全量加载期间关闭，加载完成后排序一次）
+         */
+        private boolean orderMaintained = true;
+
+        /**
+         * @param capacity     初始槽位容量
+         * @param postings     复用的 VIN 倒排表（为 null 时新分配）
+         * @param postingSizes 复用的倒排列表长度
+         */
+        Data(int capacity, int[][] postings, int[] postingSizes) {
+            if (postings != null) {
+                this.postings = postings;
+                this.postingSizes = postingSizes;
+                Arrays.fill(postingSizes, 0);
+            } else {
+                this.postings = new int[GRAM_SPACE][];
+                this.postingSizes = new int[GRAM_SPACE];
+            }
+            ids = new long[capacity];
+            brandOf = new int[capacity];
+            priceCents = new long[capacity];
+            statusOf = new byte[capacity];
+            yearOf = new short[capacity];
+            createMillis = new long[capacity];
+            vins = new byte[capacity * VIN_LENGTH];
+            vinLengths = new byte[capacity];
+            for (int i = 0; i < statusBits.length; i++) {
+                statusBits[i] = new BitSet();
+            }
+        }
+
+        void upsert(CarInfo car) {
+            Integer existing = slotById.get(car.getId());
+            long millis = toMillis(car.getCreateTime());
+            int slot;
+            boolean reorder;
+            if (existing != null) {
+                slot = existing;
+                clearBits(slot);
+                // 创建时间未变化时位置不变
+                reorder = millis != createMillis[slot];
+                if (reorder) {
+                    removeFromOrder(slot);
+                }
+            } else {
+                slot = size++;
+                ensureCapacity(size);
+                slotById.put(car.getId(), slot);
+                reorder = true;
+            }
+
+            ids[slot] = car.getId();
+            brandOf[slot] = brandId(car.getBrand());
+            priceCents[slot] = car.getPrice() == null ? 0 : toCents(car.getPrice(), RoundingMode.HALF_UP);
+            int status = car.getStatus() == null ? 0 : car.getStatus();
+            statusOf[slot] = (byte) status;
+            yearOf[slot] = car.getYear() == null ? 0 : car.getYear().shortValue();
+            createMillis[slot] = millis;
+            indexVin(slot, car.getVin());
+
+            live.set(slot);
+            brandBits.get(brandOf[slot]).set(slot);
+            if (status >= 0 && status <= MAX_STATUS) {
+                statusBits[status].set(slot);
+            }
+            if (reorder) {
+                insertIntoOrder(slot);
+            }
+        }
+
+        void remove(Long carId) {
+            Integer slot = slotById.remove(carId);
+            if (slot == null) {
+                return;
+            }
+            removeFromOrder(slot);
+            clearBits(slot);
+            live.clear(slot);
+        }
+
+        /**
+         * 全量加载（重建时在锁外执行）：逐条写入后统一排序
+         */
+        void load(Collection<CarInfo> cars) {
+            orderMaintained = false;
+            for (CarInfo car : cars) {
+                upsert(car);
+            }
+            sortOrder();
+            orderMaintained = true;
+        }
+
+        private void insertIntoOrder(int slot) {
+            if (!orderMaintained) {
+                return;
+            }
+            int position = orderPosition(createMillis[slot], ids[slot]);
+            if (orderSize == order.length) {
+                order = Arrays.copyOf(order, Math.max(INITIAL_CAPACITY, orderSize * 2));
+            }
+            System.arraycopy(order, position, order, position + 1, orderSize - position);
+            order[position] = slot;
+            orderSize++;
+        }
+
+        private void removeFromOrder(int slot) {
+            if (!orderMaintained) {
+                return;
+            }
+            int position = orderPosition(createMillis[slot], ids[slot]);
+            if (position < orderSize && order[position] == slot) {
+                System.arraycopy(order, position + 1, order, position, orderSize - position - 1);
+                orderSize--;
+            }
+        }
+
+        /**
+         * 二分查找：顺序数组中第一个不比（millis, id）更新的位置
+         */
+        private int orderPosition(long millis, long id) {
+            int low = 0;
+            int high = orderSize;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int slot = order[mid];
+                int byTime = Long.compare(createMillis[slot], millis);
+                boolean newer = byTime > 0 || (byTime == 0 && ids[slot] > id);
+                if (newer) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void sortOrder() {
+            Integer[] slots = new Integer[live.cardinality()];
+            int n = 0;
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                slots[n++] = slot;
+            }
+            Arrays.sort(slots, (a, b) -> {
+                int byTime = Long.compare(createMillis[b], createMillis[a]);
+                return byTime != 0 ? byTime : Long.compare(ids[b], ids[a]);
+            });
+
+            int[] sorted = new int[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = slots[i];
+            }
+            order = sorted;
+            orderSize = n;
+        }
+
+        /**
+         * 写入 VIN 并建立 4-gram 倒排（VIN 未变化时跳过）
+         */
+        private void indexVin(int slot, String vin) {
+            byte[] bytes = vin == null ? new byte[0] : vin.toUpperCase().getBytes(StandardCharsets.US_ASCII);
+            int length = Math.min(bytes.length, VIN_LENGTH);
+            int base = slot * VIN_LENGTH;
+            if (length == vinLengths[slot]
+                    && Arrays.equals(vins, base, base + length, bytes, 0, length)) {
+                return;
+            }
+
+            System.arraycopy(bytes, 0, vins, base, length);
+            vinLengths[slot] = (byte) length;
+            for (int i = 0; i + GRAM_LENGTH <= length; i++) {
+                int gram = gramAt(vins, base + i);
+                if (gram >= 0) {
+                    addPosting(gram, slot);
+                }
+            }
+        }
+
+        private void addPosting(int gram, int slot) {
+            int[] posting = postings[gram];
+            int size = postingSizes[gram];
+            if (posting == null) {
+                posting = new int[4];
+                postings[gram] = posting;
+            } else if (size == posting.length) {
+                posting = Arrays.copyOf(posting, size * 2);
+                postings[gram] = posting;
+            }
+            posting[size] = slot;
+            postingSizes[gram] = size + 1;
+        }
+
+        /**
+         * 判断槽位的 VIN 是否包含查询片段
+         */
+        boolean vinContains(int slot, byte[] query) {
+            int length = vinLengths[slot];
+            int base = slot * VIN_LENGTH;
+            outer:
+            for (int start = 0; start + query.length <= length; start++) {
+                for (int i = 0; i < query.length; i++) {
+                    if (vins[base + start + i] != query[i]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void clearBits(int slot) {
+            brandBits.get(brandOf[slot]).clear(slot);
+            int status = statusOf[slot];
+            if (status >= 0 && status <= MAX_STATUS) {
+                statusBits[status].clear(slot);
+            }
+        }
+
+        private int brandId(String brand) {
+            String key = brand == null ? "" : brand;
+            Integer id = brandIds.get(key);
+            if (id == null) {
+                id = brandNames.size();
+                brandIds.put(key, id);
+                brandNames.add(key);
+                brandBits.add(new BitSet());
+            }
+            return id;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(required, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            brandOf = Arrays.copyOf(brandOf, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            statusOf = Arrays.copyOf(statusOf, capacity);
+            yearOf = Arrays.copyOf(yearOf, capacity);
+            createMillis = Arrays.copyOf(createMillis, capacity);
+            vins = Arrays.copyOf(vins, capacity * VIN_LENGTH);
+            vinLengths = Arrays.copyOf(vinLengths, capacity);
+        }
+    }
+}
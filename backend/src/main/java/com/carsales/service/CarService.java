@@ -1,27 +1,38 @@
 package com.carsales.service;
 
-import com.alibaba.excel.EasyExcel;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.carsales.common.CountMode;
+import com.carsales.common.CursorPage;
+import com.carsales.dto.CarBulkUpdateRequest;
 import com.carsales.dto.CarCreateRequest;
-import com.carsales.dto.CarImportDTO;
 import com.carsales.dto.CarQueryRequest;
 import com.carsales.dto.CarUpdateRequest;
 import com.carsales.entity.CarInfo;
 import com.carsales.exception.BusinessException;
+import com.carsales.exception.DuplicateKeyTranslator;
 import com.carsales.mapper.CarMapper;
+import com.carsales.util.CursorUtil;
+import com.carsales.util.FieldSelector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * 车辆服务类
@@ -33,6 +44,48 @@ import java.util.Map;
 public class CarService {
 
     private final CarMapper carMapper;
+    private final DataVersionService dataVersionService;
+    private final PageCountService pageCountService;
+    private final CarInventoryIndex carInventoryIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 车辆状态：在库
+     */
+    public static final int STATUS_AVAILABLE = 0;
+
+    /**
+     * 车辆状态：锁定
+     */
+    public static final int STATUS_LOCKED = 1;
+
+    /**
+     * 车辆状态：已售
+     */
+    public static final int STATUS_SOLD = 2;
+
+    private static final String[] STATUS_NAMES = { "在库", "锁定", "已售" };
+
+    /**
+     * 批量更新每个事务处理的车辆数
+     */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * VIN 片段查询默认返回条数
+     */
+    private static final int VIN_SEARCH_DEFAULT_LIMIT = 20;
+
+    /**
+     * 导出时每次写出的行数
+     */
+    private static final int EXPORT_PAGE_SIZE = 1000;
+
+    /**
+     * 列表接口 fields 参数可选的字段
+     */
+    private static final List<String> LIST_FIELDS = List.of("id", "vin", "brand", "model", "color", "year",
+            "price", "status", "purchaseDate", "version", "createTime", "updateTime");
 
     /**
      * 创建车辆
@@ -42,23 +95,21 @@ public class CarService {
      */
     @Transactional(rollbackFor = Exception.class)
     public CarInfo createCar(CarCreateRequest request) {
-        // 检查VIN是否已存在
-        LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(CarInfo::getVin, request.getVin());
-        Long count = carMapper.selectCount(queryWrapper);
-
-        if (count > 0) {
-            log.warn("车辆创建失败：VIN已存在 - {}", request.getVin());
-            throw new BusinessException(3004, "车架号已存在");
-        }
-
         // 创建车辆实体
         CarInfo carInfo = new CarInfo();
         BeanUtils.copyProperties(request, carInfo);
-        carInfo.setStatus(0); // 初始状态为"在库"
+        carInfo.setStatus(STATUS_AVAILABLE); // 初始状态为"在库"
+        carInfo.setVersion(0);
 
-        // 保存到数据库
-        carMapper.insert(carInfo);
+        // 保存到数据库（VIN 唯一性由 UNIQUE 约束保证，冲突时转换为 3004）
+        try {
+            carMapper.insert(carInfo);
+        } catch (DataAccessException e) {
+            log.warn("车辆创建失败：{} - VIN: {}", e.getMostSpecificCause().getMessage(), request.getVin());
+            throw DuplicateKeyTranslator.translate(e);
+        }
+        carInventoryIndex.upsertAfterCommit(carInfo);
+        dataVersionService.bump(DataVersionService.CAR_INFO);
 
         log.info("车辆创建成功 - VIN: {}, 品牌: {}, 型号: {}", carInfo.getVin(), carInfo.getBrand(), carInfo.getModel());
 
@@ -66,42 +117,234 @@ public class CarService {
     }
 
     /**
-     * 更新车辆信息
+     * 更新车辆信息（不含状态，状态变更只通过 transitionStatus）
+     * 一条 UPDATE ... RETURNING 完成更新并取回整行；VIN 唯一性由 UNIQUE 约束保证，
+     * 只有更新失败时才再查询一次区分"车辆不存在"和"版本冲突"
      * 
      * @param request 车辆更新请求
      * @return 更新后的车辆信息
      */
     @Transactional(rollbackFor = Exception.class)
     public CarInfo updateCar(CarUpdateRequest request) {
-        // 检查车辆是否存在
-        CarInfo existingCar = carMapper.selectById(request.getId());
-        if (existingCar == null) {
-            log.warn("车辆更新失败：车辆不存在 - ID: {}", request.getId());
-            throw new BusinessException(3001, "车辆不存在");
+        // 只更新非null字段，每次更新版本号加 1
+        LambdaUpdateWrapper<CarInfo> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(request.getVin() != null, CarInfo::getVin, request.getVin())
+                .set(request.getBrand() != null, CarInfo::getBrand, request.getBrand())
+                .set(request.getModel() != null, CarInfo::getModel, request.getModel())
+                .set(request.getColor() != null, CarInfo::getColor, request.getColor())
+                .set(request.getYear() != null, CarInfo::getYear, request.getYear())
+                .set(request.getPrice() != null, CarInfo::getPrice, request.getPrice())
+                .set(request.getPurchaseDate() != null, CarInfo::getPurchaseDate, request.getPurchaseDate())
+                .setSql("version = version + 1")
+                .set(CarInfo::getUpdateTime, LocalDateTime.now())
+                .eq(CarInfo::getId, request.getId())
+                .eq(request.getVersion() != null, CarInfo::getVersion, request.getVersion());
+
+        CarInfo updatedCar;
+        try {
+            updatedCar = carMapper.updateReturning(updateWrapper);
+        } catch (DataAccessException e) {
+            log.warn("车辆更新失败：{} - ID: {}, VIN: {}", e.getMostSpecificCause().getMessage(),
+                    request.getId(), request.getVin());
+            throw DuplicateKeyTranslator.translate(e);
+        }
+
+        if (updatedCar == null) {
+            if (request.getVersion() == null || carMapper.selectById(request.getId()) == null) {
+                log.warn("车辆更新失败：车辆不存在 - ID: {}", request.getId());
+                throw new BusinessException(3001, "车辆不存在");
+            }
+            log.warn("车辆更新失败：车辆已被其他操作修改 - ID: {}, 版本: {}", request.getId(), request.getVersion());
+            throw new BusinessException(3008, "车辆已被其他操作修改，请刷新后重试");
+        }
+
+        log.info("车辆更新成功 - ID: {}, VIN: {}", request.getId(), updatedCar.getVin());
+
+        // 提交后先同步索引，再递增数据版本
+        carInventoryIndex.upsertAfterCommit(updatedCar);
+        dataVersionService.bump(DataVersionService.CAR_INFO);
+        return updatedCar;
+    }
+
+    /**
+     * 变更车辆状态（乐观锁条件更新）
+     * 执行 UPDATE ... WHERE id = ? AND status = ? AND version = ?，不加行锁等待：
+     * 同一辆车的并发变更只有一个成功，其余立即返回 3008，不同车辆之间互不影响
+     * 
+     * @param id         车辆ID
+     * @param fromStatus 期望的当前状态
+     * @param toStatus   目标状态
+     * @param version    期望的版本号（为空时读取当前版本，只校验状态）
+     * @return 变更后的车辆信息
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public CarInfo transitionStatus(Long id, int fromStatus, int toStatus, Integer version) {
+        if (!isAllowedTransition(fromStatus, toStatus)) {
+            throw new BusinessException(2003, "不支持的车辆状态变更：" + statusName(fromStatus) + " -> " + statusName(toStatus));
         }
 
-        // 如果更新VIN，检查新VIN是否已被其他车辆使用
-        if (request.getVin() != null && !request.getVin().equals(existingCar.getVin())) {
-            LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(CarInfo::getVin, request.getVin())
-                    .ne(CarInfo::getId, request.getId());
-            Long count = carMapper.selectCount(queryWrapper);
+        Integer expectedVersion = version;
+        if (expectedVersion == null) {
+            CarInfo current = carMapper.selectById(id);
+            if (current == null) {
+                throw new BusinessException(3001, "车辆不存在");
+            }
+            if (current.getStatus() == null || current.getStatus() != fromStatus) {
+                throw statusConflict(id, current);
+            }
+            expectedVersion = current.getVersion();
+        }
 
-            if (count > 0) {
-                log.warn("车辆更新失败：VIN已被其他车辆使用 - {}", request.getVin());
-                throw new BusinessException(3004, "车架号已存在");
+        LambdaUpdateWrapper<CarInfo> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(CarInfo::getStatus, toStatus)
+                .setSql("version = version + 1")
+                .set(CarInfo::getUpdateTime, LocalDateTime.now())
+                .eq(CarInfo::getId, id)
+                .eq(CarInfo::getStatus, fromStatus)
+                .eq(CarInfo::getVersion, expectedVersion);
+        if (carMapper.update(null, updateWrapper) == 0) {
+            // 条件不满足：车辆不存在，或状态/版本已被其他操作修改
+            CarInfo current = carMapper.selectById(id);
+            if (current == null) {
+                throw new BusinessException(3001, "车辆不存在");
             }
+            throw statusConflict(id, current);
         }
 
-        // 更新车辆信息（只更新非null字段）
-        CarInfo carInfo = new CarInfo();
-        BeanUtils.copyProperties(request, carInfo);
-        carMapper.updateById(carInfo);
+        CarInfo updatedCar = carMapper.selectById(id);
+        carInventoryIndex.upsertAfterCommit(updatedCar);
+        dataVersionService.bump(DataVersionService.CAR_INFO);
 
-        log.info("车辆更新成功 - ID: {}, VIN: {}", request.getId(), request.getVin());
+        log.info("车辆状态变更成功 - ID: {}, {} -> {}, 版本: {}",
+                id, statusName(fromStatus), statusName(toStatus), updatedCar.getVersion());
+        return updatedCar;
+    }
 
-        // 返回更新后的完整信息
-        return carMapper.selectById(request.getId());
+    /**
+     * 允许的状态变更：在库 <-> 锁定，在库/锁定 -> 已售
+     */
+    private static boolean isAllowedTransition(int fromStatus, int toStatus) {
+        return (fromStatus == STATUS_AVAILABLE && toStatus == STATUS_LOCKED)
+                || (fromStatus == STATUS_LOCKED && toStatus == STATUS_AVAILABLE)
+                || ((fromStatus == STATUS_AVAILABLE || fromStatus == STATUS_LOCKED) && toStatus == STATUS_SOLD);
+    }
+
+    private static String statusName(Integer status) {
+        return status != null && status >= 0 && status < STATUS_NAMES.length ? STATUS_NAMES[status] : "未知";
+    }
+
+    private BusinessException statusConflict(Long id, CarInfo current) {
+        log.warn("车辆状态变更失败：状态已被其他操作修改 - ID: {}, 当前状态: {}, 版本: {}",
+                id, current.getStatus(), current.getVersion());
+        return new BusinessException(3008, "车辆状态已被其他操作修改（当前状态：" + statusName(current.getStatus()) + "）");
+    }
+
+    /**
+     * 批量更新车辆价格（集合式 SQL，分块提交）
+     * 按 ID 升序每次取一块车辆，用一条 UPDATE ... WHERE id IN (...) 更新，每块一个事务，
+     * 避免长事务和逐辆车的读-改-写。已售车辆不参与批量更新。
+     * 状态不在批量更新范围内：锁定/释放要配套预留记录，售出要配套订单，逐辆走 transitionStatus。
+     * 
+     * @param request 批量更新请求（车辆ID列表或筛选条件 + 修改内容）
+     * @return 更新结果（更新数量、分块数）
+     */
+    public Map<String, Object> bulkUpdate(CarBulkUpdateRequest request) {
+        if (request.getPrice() == null && request.getPriceChangePercent() == null) {
+            throw new BusinessException(2001, "请指定要修改的价格或调价幅度");
+        }
+        if (request.getPrice() != null && request.getPriceChangePercent() != null) {
+            throw new BusinessException(2003, "不能同时指定价格和调价幅度");
+        }
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!byIds && request.getBrand() == null && request.getModel() == null && request.getYear() == null
+                && request.getMinPrice() == null && request.getMaxPrice() == null && request.getStatus() == null) {
+            throw new BusinessException(2001, "请指定车辆ID或筛选条件");
+        }
+
+        long start = System.currentTimeMillis();
+        long updated = 0;
+        int chunks = 0;
+
+        if (byIds) {
+            List<Long> ids = request.getIds().stream().distinct().sorted().toList();
+            for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+                updated += transactionTemplate.execute(status -> updateChunk(chunk, request));
+                chunks++;
+            }
+        } else {
+            // 按 ID 键集分页取匹配的车辆，每块在同一事务中查询并更新
+            Long lastId = null;
+            while (true) {
+                Long afterId = lastId;
+                BulkChunk chunk = transactionTemplate.execute(status -> {
+                    List<Long> ids = selectBulkIds(request, afterId);
+                    return new BulkChunk(ids, ids.isEmpty() ? 0 : updateChunk(ids, request));
+                });
+                if (chunk.ids().isEmpty()) {
+                    break;
+                }
+                updated += chunk.updated();
+                chunks++;
+                lastId = chunk.ids().get(chunk.ids().size() - 1);
+                if (chunk.ids().size() < BULK_CHUNK_SIZE) {
+                    break;
+                }
+            }
+        }
+
+        log.info("车辆批量更新完成 - 更新数量: {}, 分块数: {}, 耗时: {}ms",
+                updated, chunks, System.currentTimeMillis() - start);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("updatedCount", updated);
+        result.put("chunks", chunks);
+        return result;
+    }
+
+    /**
+     * 查询下一块匹配筛选条件的车辆ID（ID 升序，不含已售车辆）
+     */
+    private List<Long> selectBulkIds(CarBulkUpdateRequest request, Long afterId) {
+        CarQueryRequest filter = new CarQueryRequest();
+        BeanUtils.copyProperties(request, filter);
+        LambdaQueryWrapper<CarInfo> queryWrapper = buildQueryWrapper(filter);
+        queryWrapper.select(CarInfo::getId)
+                .eq(request.getModel() != null, CarInfo::getModel, request.getModel())
+                .eq(request.getYear() != null, CarInfo::getYear, request.getYear())
+                .ne(CarInfo::getStatus, STATUS_SOLD)
+                .gt(afterId != null, CarInfo::getId, afterId)
+                .orderByAsc(CarInfo::getId)
+                .last("LIMIT " + BULK_CHUNK_SIZE);
+        return carMapper.selectObjs(queryWrapper).stream()
+                .map(id -> ((Number) id).longValue())
+                .toList();
+    }
+
+    /**
+     * 批量更新中一块的车辆ID及实际更新数量
+     */
+    private record BulkChunk(List<Long> ids, int updated) {
+    }
+
+    /**
+     * 用一条 UPDATE 更新一块车辆，提交后同步索引并递增数据版本
+     */
+    private int updateChunk(List<Long> ids, CarBulkUpdateRequest request) {
+        LambdaUpdateWrapper<CarInfo> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(request.getPrice() != null, CarInfo::getPrice, request.getPrice())
+                .setSql(request.getPriceChangePercent() != null, "price = ROUND(price * {0}, 2)",
+                        BigDecimal.ONE.add(request.getPriceChangePercent() == null ? BigDecimal.ZERO
+                                : request.getPriceChangePercent().movePointLeft(2)))
+                .setSql("version = version + 1")
+                .set(CarInfo::getUpdateTime, LocalDateTime.now())
+                .in(CarInfo::getId, ids)
+                .ne(CarInfo::getStatus, STATUS_SOLD);
+        int rows = carMapper.update(null, updateWrapper);
+
+        carInventoryIndex.refreshAfterCommit(ids);
+        dataVersionService.bump(DataVersionService.CAR_INFO);
+        return rows;
     }
 
     /**
@@ -126,6 +369,8 @@ public class CarService {
 
         // 删除车辆
         carMapper.deleteById(id);
+        carInventoryIndex.removeAfterCommit(id);
+        dataVersionService.bump(DataVersionService.CAR_INFO);
 
         log.info("车辆删除成功 - ID: {}, VIN: {}", id, carInfo.getVin());
     }
@@ -147,37 +392,32 @@ public class CarService {
     /**
      * 分页查询车辆列表（支持多条件筛选）
      * 
-     * @param request 查询请求
+     * @param request 查询请求（fields 不为空时只查询并返回指定字段）
      * @return 分页结果
      */
     public Page<CarInfo> queryCarList(CarQueryRequest request) {
-        // 构建查询条件
-        LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
+        Set<String> fields = FieldSelector.parse(request.getFields(), LIST_FIELDS, "id", "createTime");
 
-        // 品牌精确匹配
-        if (request.getBrand() != null && !request.getBrand().isEmpty()) {
-            queryWrapper.eq(CarInfo::getBrand, request.getBrand());
+        // 内存索引可用时由索引完成筛选、排序和计数
+        if (carInventoryIndex.isReady()) {
+            return queryCarListFromIndex(request, fields);
         }
 
-        // 价格区间查询
-        if (request.getMinPrice() != null) {
-            queryWrapper.ge(CarInfo::getPrice, request.getMinPrice());
-        }
-        if (request.getMaxPrice() != null) {
-            queryWrapper.le(CarInfo::getPrice, request.getMaxPrice());
-        }
-
-        // 状态筛选
-        if (request.getStatus() != null) {
-            queryWrapper.eq(CarInfo::getStatus, request.getStatus());
-        }
+        // 构建查询条件
+        LambdaQueryWrapper<CarInfo> queryWrapper = buildQueryWrapper(request);
+        selectFields(queryWrapper, fields);
 
         // 按创建时间倒序排列
         queryWrapper.orderByDesc(CarInfo::getCreateTime);
 
-        // 分页查询
-        Page<CarInfo> page = new Page<>(request.getPageNum(), request.getPageSize());
+        // 分页查询（按 countMode 决定是否执行 COUNT）
+        CountMode countMode = CountMode.of(request.getCountMode());
+        String filterKey = request.getBrand() + "|" + request.getMinPrice() + "|"
+                + request.getMaxPrice() + "|" + request.getStatus();
+        Page<CarInfo> page = pageCountService.newPage(request.getPageNum(), request.getPageSize(),
+                countMode, DataVersionService.CAR_INFO, filterKey);
         Page<CarInfo> result = carMapper.selectPage(page, queryWrapper);
+        pageCountService.afterQuery(result, countMode, DataVersionService.CAR_INFO, filterKey);
 
         log.debug("车辆查询 - 品牌: {}, 价格区间: [{}, {}], 状态: {}, 结果数: {}",
                 request.getBrand(), request.getMinPrice(), request.getMaxPrice(),
@@ -187,142 +427,181 @@ public class CarService {
     }
 
     /**
-     * 批量导入车辆
+     * 通过内存索引查询车辆列表
+     * 索引给出当前页的车辆ID和总数，再按主键取整行
      * 
-     * @param file Excel 文件
-     * @return 导入结果
+     * @param request 查询请求
+     * @param fields  查询的字段（null 表示全部）
+     * @return 分页结果
      */
-    @Transactional(rollbackFor = Exception.class)
-    public Map<String, Object> importCars(MultipartFile file) {
-        Map<String, Object> result = new HashMap<>();
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-        int failCount = 0;
-
-        try {
-            // 读取 Excel 文件
-            List<CarImportDTO> importList = EasyExcel.read(file.getInputStream())
-                    .head(CarImportDTO.class)
-                    .sheet()
-                    .doReadSync();
-
-            log.info("开始导入车辆 - 总数: {}", importList.size());
-
-            // 验证数据
-            List<CarInfo> validCars = new ArrayList<>();
-            for (int i = 0; i < importList.size(); i++) {
-                CarImportDTO dto = importList.get(i);
-                int rowNum = i + 2; // Excel 行号（从2开始，因为第1行是表头）
-
-                try {
-                    // 验证必填字段
-                    if (dto.getVin() == null || dto.getVin().trim().isEmpty()) {
-                        errors.add("第" + rowNum + "行：车架号不能为空");
-                        failCount++;
-                        continue;
-                    }
-                    if (dto.getBrand() == null || dto.getBrand().trim().isEmpty()) {
-                        errors.add("第" + rowNum + "行：品牌不能为空");
-                        failCount++;
-                        continue;
-                    }
-                    if (dto.getModel() == null || dto.getModel().trim().isEmpty()) {
-                        errors.add("第" + rowNum + "行：型号不能为空");
-                        failCount++;
-                        continue;
-                    }
-                    if (dto.getPrice() == null || dto.getPrice().compareTo(java.math.BigDecimal.ZERO) <= 0) {
-                        errors.add("第" + rowNum + "行：价格必须大于0");
-                        failCount++;
-                        continue;
-                    }
-
-                    // 检查 VIN 是否已存在
-                    LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
-                    queryWrapper.eq(CarInfo::getVin, dto.getVin());
-                    Long count = carMapper.selectCount(queryWrapper);
-                    if (count > 0) {
-                        errors.add("第" + rowNum + "行：车架号 " + dto.getVin() + " 已存在");
-                        failCount++;
-                        continue;
-                    }
-
-                    // 转换为实体
-                    CarInfo carInfo = new CarInfo();
-                    BeanUtils.copyProperties(dto, carInfo);
-                    // 如果 Excel 没有填状态，默认为"在库"
-                    if (carInfo.getStatus() == null) {
-                        carInfo.setStatus(0);
-                    }
-                    validCars.add(carInfo);
-
-                } catch (Exception e) {
-                    errors.add("第" + rowNum + "行：数据格式错误 - " + e.getMessage());
-                    failCount++;
-                }
-            }
+    private Page<CarInfo> queryCarListFromIndex(CarQueryRequest request, Set<String> fields) {
+        CountMode countMode = CountMode.of(request.getCountMode());
+        long pageNum = Math.max(1, request.getPageNum());
+        int pageSize = CursorUtil.limit(request.getPageSize());
+
+        CarInventoryIndex.IndexPage hits = carInventoryIndex.query(request.getBrand(),
+                request.getMinPrice(), request.getMaxPrice(), request.getStatus(),
+                (pageNum - 1) * pageSize, pageSize, countMode != CountMode.NONE);
+
+        Page<CarInfo> page = new Page<>(pageNum, pageSize, countMode != CountMode.NONE);
+        if (countMode != CountMode.NONE) {
+            page.setTotal(hits.getTotal());
+        }
+        page.setRecords(selectInOrder(hits.getIds(), fields));
 
-            // 如果有任何验证失败，回滚整个事务
-            if (!errors.isEmpty()) {
-                log.warn("车辆导入验证失败 - 失败数: {}", failCount);
-                String errorMessage = "数据验证失败：" + String.join("; ", errors);
-                throw new BusinessException(5002, errorMessage);
-            }
+        log.debug("车辆索引查询 - 品牌: {}, 价格区间: [{}, {}], 状态: {}, 总数: {}",
+                request.getBrand(), request.getMinPrice(), request.getMaxPrice(),
+                request.getStatus(), hits.getTotal());
 
-            // 批量插入
-            for (CarInfo carInfo : validCars) {
-                carMapper.insert(carInfo);
-                successCount++;
-            }
+        return page;
+    }
 
-            log.info("车辆导入成功 - 成功数: {}", successCount);
+    /**
+     * 按 VIN 片段查询车辆（如车窗上的后 6~8 位），按创建时间倒序
+     * 
+     * @param fragment VIN 片段（至少 4 位，不区分大小写）
+     * @param limit    最多返回条数
+     * @return 匹配的车辆
+     */
+    public List<CarInfo> searchByVin(String fragment, Integer limit) {
+        String query = fragment == null ? "" : fragment.trim().toUpperCase();
+        if (query.length() < CarInventoryIndex.GRAM_LENGTH || !query.matches("[0-9A-Z]+")) {
+            throw new BusinessException(2003, "VIN 片段至少 " + CarInventoryIndex.GRAM_LENGTH + " 位且只能包含字母和数字");
+        }
+        int size = CursorUtil.limit(limit == null ? VIN_SEARCH_DEFAULT_LIMIT : limit);
 
-        } catch (IOException e) {
-            log.error("文件读取失败", e);
-            throw new BusinessException(5001, "文件上传失败");
-        } catch (BusinessException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("车辆导入失败", e);
-            throw new BusinessException(5004, "导入失败：" + e.getMessage());
+        // 内存索引可用时由 4-gram 倒排完成匹配
+        if (carInventoryIndex.isReady()) {
+            return selectInOrder(carInventoryIndex.searchVin(query, size), null);
         }
 
-        result.put("successCount", successCount);
-        result.put("failCount", failCount);
-        result.put("errors", errors);
+        LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.like(CarInfo::getVin, query);
+        queryWrapper.orderByDesc(CarInfo::getCreateTime, CarInfo::getId);
+        queryWrapper.last("LIMIT " + size);
+        return carMapper.selectList(queryWrapper);
+    }
 
-        return result;
+    /**
+     * 按主键批量查询车辆，保持传入的ID顺序（查询期间被删除的车辆跳过）
+     */
+    private List<CarInfo> selectInOrder(List<Long> ids, Set<String> fields) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.in(CarInfo::getId, ids);
+        selectFields(queryWrapper, fields);
+        Map<Long, CarInfo> byId = new HashMap<>();
+        for (CarInfo carInfo : carMapper.selectList(queryWrapper)) {
+            byId.put(carInfo.getId(), carInfo);
+        }
+        List<CarInfo> records = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            CarInfo carInfo = byId.get(id);
+            if (carInfo != null) {
+                records.add(carInfo);
+            }
+        }
+        return records;
     }
 
     /**
-     * 导出车辆列表
+     * 游标分页查询车辆列表（键集分页，按创建时间、ID 倒序）
+     * 每页只按索引定位到上一页最后一条之后，不随翻页深度变慢
      * 
-     * @param request 查询条件
-     * @return 车辆列表
+     * @param request 查询请求（cursor 为空时查询第一页，fields 不为空时只查询并返回指定字段）
+     * @return 游标分页结果
+     */
+    public CursorPage<CarInfo> queryCarListByCursor(CarQueryRequest request) {
+        int size = CursorUtil.limit(request.getPageSize());
+        LambdaQueryWrapper<CarInfo> queryWrapper = buildQueryWrapper(request);
+        selectFields(queryWrapper, FieldSelector.parse(request.getFields(), LIST_FIELDS, "id", "createTime"));
+
+        // 从上一页最后一条之后开始
+        if (request.getCursor() != null && !request.getCursor().isEmpty()) {
+            String[] cursor = CursorUtil.decode(request.getCursor(), 2);
+            queryWrapper.apply("(create_time, id) < ({0}, {1})",
+                    CursorUtil.parseDateTime(cursor[0]), CursorUtil.parseLong(cursor[1]));
+        }
+
+        queryWrapper.orderByDesc(CarInfo::getCreateTime, CarInfo::getId);
+        queryWrapper.last("LIMIT " + (size + 1));
+
+        List<CarInfo> rows = carMapper.selectList(queryWrapper);
+        return CursorUtil.toPage(rows, size, car -> CursorUtil.encode(car.getCreateTime(), car.getId()));
+    }
+
+    /**
+     * 只查询指定字段（主键总是查询）
+     */
+    private void selectFields(LambdaQueryWrapper<CarInfo> queryWrapper, Set<String> fields) {
+        if (fields != null) {
+            queryWrapper.select(CarInfo.class, info -> fields.contains(info.getProperty()));
+        }
+    }
+
+    /**
+     * 构建车辆筛选条件（品牌、价格区间、状态）
      */
-    public List<CarInfo> exportCars(CarQueryRequest request) {
-        // 构建查询条件（与 queryCarList 相同，但不分页）
+    private LambdaQueryWrapper<CarInfo> buildQueryWrapper(CarQueryRequest request) {
         LambdaQueryWrapper<CarInfo> queryWrapper = new LambdaQueryWrapper<>();
 
+        // 品牌精确匹配
         if (request.getBrand() != null && !request.getBrand().isEmpty()) {
             queryWrapper.eq(CarInfo::getBrand, request.getBrand());
         }
+
+        // 价格区间查询
         if (request.getMinPrice() != null) {
             queryWrapper.ge(CarInfo::getPrice, request.getMinPrice());
         }
         if (request.getMaxPrice() != null) {
             queryWrapper.le(CarInfo::getPrice, request.getMaxPrice());
         }
+
+        // 状态筛选
         if (request.getStatus() != null) {
             queryWrapper.eq(CarInfo::getStatus, request.getStatus());
         }
 
-        queryWrapper.orderByDesc(CarInfo::getCreateTime);
+        return queryWrapper;
+    }
 
-        List<CarInfo> carList = carMapper.selectList(queryWrapper);
+    /**
+     * 导出车辆列表
+     * 通过游标逐行读取，每满 EXPORT_PAGE_SIZE 行交给 pageWriter 写出后复用缓冲区，
+     * 内存占用与导出总数无关。在只读事务中执行，写出期间保持游标打开。
+     * 
+     * @param request    查询条件（与 queryCarList 相同，但不分页）
+     * @param pageWriter 每页的写出操作
+     * @return 导出总数
+     */
+    @Transactional(readOnly = true)
+    public int exportCars(CarQueryRequest request, Consumer<List<CarInfo>> pageWriter) {
+        LambdaQueryWrapper<CarInfo> queryWrapper = buildQueryWrapper(request);
+        queryWrapper.orderByDesc(CarInfo::getCreateTime);
 
-        log.info("导出车辆列表 - 数量: {}", carList.size());
+        List<CarInfo> page = new ArrayList<>(EXPORT_PAGE_SIZE);
+        int total = 0;
+        try (Cursor<CarInfo> cursor = carMapper.selectCursor(queryWrapper)) {
+            for (CarInfo carInfo : cursor) {
+                page.add(carInfo);
+                if (page.size() >= EXPORT_PAGE_SIZE) {
+                    pageWriter.accept(page);
+                    total += page.size();
+                    page.clear();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("导出游标关闭失败", e);
+        }
+        if (!page.isEmpty()) {
+            pageWriter.accept(page);
+            total += page.size();
+        }
 
-        return carList;
+        log.info("导出车辆列表 - 数量: {}", total);
+        return total;
     }
 }
@@ -1,19 +1,30 @@
 package com.carsales.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.carsales.common.CountMode;
+import com.carsales.common.CursorPage;
 import com.carsales.dto.CustomerCreateRequest;
 import com.carsales.dto.CustomerQueryRequest;
 import com.carsales.dto.CustomerUpdateRequest;
 import com.carsales.entity.Customer;
 import com.carsales.exception.BusinessException;
+import com.carsales.exception.DuplicateKeyTranslator;
 import com.carsales.mapper.CustomerMapper;
+import com.carsales.util.CursorUtil;
+import com.carsales.util.FieldSelector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
 /**
  * 客户服务类
  * 处理客户管理相关业务逻辑
@@ -22,8 +33,16 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class CustomerService {
+
+    /**
+     * 列表接口 fields 参数可选的字段
+     */
+    private static final List<String> LIST_FIELDS = List.of("id", "name", "phone", "idCard", "gender", "address",
+            "createTime", "updateTime");
     
     private final CustomerMapper customerMapper;
+    private final DataVersionService dataVersionService;
+    private final PageCountService pageCountService;
     
     /**
      * 创建客户
@@ -33,32 +52,18 @@ public class CustomerService {
      */
     @Transactional(rollbackFor = Exception.class)
     public Customer createCustomer(CustomerCreateRequest request) {
-        // 检查手机号是否已存在
-        LambdaQueryWrapper<Customer> phoneQuery = new LambdaQueryWrapper<>();
-        phoneQuery.eq(Customer::getPhone, request.getPhone());
-        Long phoneCount = customerMapper.selectCount(phoneQuery);
-        
-        if (phoneCount > 0) {
-            log.warn("客户创建失败：手机号已存在 - {}", request.getPhone());
-            throw new BusinessException(3003, "手机号已存在");
-        }
-        
-        // 检查身份证号是否已存在
-        LambdaQueryWrapper<Customer> idCardQuery = new LambdaQueryWrapper<>();
-        idCardQuery.eq(Customer::getIdCard, request.getIdCard());
-        Long idCardCount = customerMapper.selectCount(idCardQuery);
-        
-        if (idCardCount > 0) {
-            log.warn("客户创建失败：身份证号已存在 - {}", request.getIdCard());
-            throw new BusinessException(3003, "身份证号已存在");
-        }
-        
         // 创建客户实体
         Customer customer = new Customer();
         BeanUtils.copyProperties(request, customer);
         
-        // 保存到数据库
-        customerMapper.insert(customer);
+        // 保存到数据库（手机号、身份证号唯一性由 UNIQUE 约束保证，冲突时转换为 3003）
+        try {
+            customerMapper.insert(customer);
+        } catch (DataAccessException e) {
+            log.warn("客户创建失败：{} - 手机号: {}", e.getMostSpecificCause().getMessage(), request.getPhone());
+            throw DuplicateKeyTranslator.translate(e);
+        }
+        dataVersionService.bump(DataVersionService.CUSTOMER);
         
         log.info("客户创建成功 - 姓名: {}, 手机号: {}", customer.getName(), customer.getPhone());
         
@@ -67,54 +72,40 @@ public class CustomerService {
     
     /**
      * 更新客户信息
+     * 一条 UPDATE ... RETURNING 完成更新并取回整行，唯一性由 UNIQUE 约束保证
      * 
      * @param request 客户更新请求
      * @return 更新后的客户信息
      */
     @Transactional(rollbackFor = Exception.class)
     public Customer updateCustomer(CustomerUpdateRequest request) {
-        // 检查客户是否存在
-        Customer existingCustomer = customerMapper.selectById(request.getId());
-        if (existingCustomer == null) {
-            log.warn("客户更新失败：客户不存在 - ID: {}", request.getId());
-            throw new BusinessException(3007, "客户不存在");
-        }
-        
-        // 如果更新手机号，检查新手机号是否已被其他客户使用
-        if (request.getPhone() != null && !request.getPhone().equals(existingCustomer.getPhone())) {
-            LambdaQueryWrapper<Customer> phoneQuery = new LambdaQueryWrapper<>();
-            phoneQuery.eq(Customer::getPhone, request.getPhone())
-                     .ne(Customer::getId, request.getId());
-            Long phoneCount = customerMapper.selectCount(phoneQuery);
-            
-            if (phoneCount > 0) {
-                log.warn("客户更新失败：手机号已被其他客户使用 - {}", request.getPhone());
-                throw new BusinessException(3003, "手机号已存在");
-            }
+        // 只更新非null字段
+        LambdaUpdateWrapper<Customer> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(request.getName() != null, Customer::getName, request.getName())
+                .set(request.getPhone() != null, Customer::getPhone, request.getPhone())
+                .set(request.getIdCard() != null, Customer::getIdCard, request.getIdCard())
+                .set(request.getGender() != null, Customer::getGender, request.getGender())
+                .set(request.getAddress() != null, Customer::getAddress, request.getAddress())
+                .set(Customer::getUpdateTime, LocalDateTime.now())
+                .eq(Customer::getId, request.getId());
+        
+        Customer customer;
+        try {
+            customer = customerMapper.updateReturning(updateWrapper);
+        } catch (DataAccessException e) {
+            log.warn("客户更新失败：{} - ID: {}", e.getMostSpecificCause().getMessage(), request.getId());
+            throw DuplicateKeyTranslator.translate(e);
         }
         
-        // 如果更新身份证号，检查新身份证号是否已被其他客户使用
-        if (request.getIdCard() != null && !request.getIdCard().equals(existingCustomer.getIdCard())) {
-            LambdaQueryWrapper<Customer> idCardQuery = new LambdaQueryWrapper<>();
-            idCardQuery.eq(Customer::getIdCard, request.getIdCard())
-                      .ne(Customer::getId, request.getId());
-            Long idCardCount = customerMapper.selectCount(idCardQuery);
-            
-            if (idCardCount > 0) {
-                log.warn("客户更新失败：身份证号已被其他客户使用 - {}", request.getIdCard());
-                throw new BusinessException(3003, "身份证号已存在");
-            }
+        if (customer == null) {
+            log.warn("客户更新失败：客户不存在 - ID: {}", request.getId());
+            throw new BusinessException(3007, "客户不存在");
         }
+        dataVersionService.bump(DataVersionService.CUSTOMER);
         
-        // 更新客户信息（只更新非null字段）
-        Customer customer = new Customer();
-        BeanUtils.copyProperties(request, customer);
-        customerMapper.updateById(customer);
-        
-        log.info("客户更新成功 - ID: {}, 姓名: {}", request.getId(), request.getName());
+        log.info("客户更新成功 - ID: {}, 姓名: {}", request.getId(), customer.getName());
         
-        // 返回更新后的完整信息
-        return customerMapper.selectById(request.getId());
+        return customer;
     }
     
     /**
@@ -143,6 +134,7 @@ public class CustomerService {
         
         // 删除客户
         customerMapper.deleteById(id);
+        dataVersionService.bump(DataVersionService.CUSTOMER);
         
         log.info("客户删除成功 - ID: {}, 姓名: {}", id, customer.getName());
     }
@@ -164,12 +156,66 @@ public class CustomerService {
     /**
      * 分页查询客户列表（支持姓名模糊搜索和手机号精确搜索）
      * 
-     * @param request 查询请求
+     * @param request 查询请求（fields 不为空时只查询并返回指定字段）
      * @return 分页结果
      */
     public Page<Customer> queryCustomerList(CustomerQueryRequest request) {
         // 构建查询条件
+        LambdaQueryWrapper<Customer> queryWrapper = buildQueryWrapper(request);
+        
+        // 按创建时间倒序排列
+        queryWrapper.orderByDesc(Customer::getCreateTime);
+        
+        // 分页查询（按 countMode 决定是否执行 COUNT）
+        CountMode countMode = CountMode.of(request.getCountMode());
+        String filterKey = request.getName() + "|" + request.getPhone();
+        Page<Customer> page = pageCountService.newPage(request.getPageNum(), request.getPageSize(),
+                countMode, DataVersionService.CUSTOMER, filterKey);
+        Page<Customer> result = customerMapper.selectPage(page, queryWrapper);
+        pageCountService.afterQuery(result, countMode, DataVersionService.CUSTOMER, filterKey);
+        
+        log.debug("客户查询 - 姓名: {}, 手机号: {}, 结果数: {}", 
+                 request.getName(), request.getPhone(), result.getRecords().size());
+        
+        return result;
+    }
+
+    /**
+     * 游标分页查询客户列表（键集分页，按创建时间、ID 倒序）
+     * 每页只按索引定位到上一页最后一条之后，不随翻页深度变慢
+     * 
+     * @param request 查询请求（cursor 为空时查询第一页，fields 不为空时只查询并返回指定字段）
+     * @return 游标分页结果
+     */
+    public CursorPage<Customer> queryCustomerListByCursor(CustomerQueryRequest request) {
+        int size = CursorUtil.limit(request.getPageSize());
+        LambdaQueryWrapper<Customer> queryWrapper = buildQueryWrapper(request);
+
+        // 从上一页最后一条之后开始
+        if (request.getCursor() != null && !request.getCursor().isEmpty()) {
+            String[] cursor = CursorUtil.decode(request.getCursor(), 2);
+            queryWrapper.apply("(create_time, id) < ({0}, {1})",
+                    CursorUtil.parseDateTime(cursor[0]), CursorUtil.parseLong(cursor[1]));
+        }
+
+        queryWrapper.orderByDesc(Customer::getCreateTime, Customer::getId);
+        queryWrapper.last("LIMIT " + (size + 1));
+
+        List<Customer> rows = customerMapper.selectList(queryWrapper);
+        return CursorUtil.toPage(rows, size, customer -> CursorUtil.encode(customer.getCreateTime(), customer.getId()));
+    }
+
+    /**
+     * 构建客户筛选条件（姓名、手机号）和查询字段
+     */
+    private LambdaQueryWrapper<Customer> buildQueryWrapper(CustomerQueryRequest request) {
         LambdaQueryWrapper<Customer> queryWrapper = new LambdaQueryWrapper<>();
+
+        // 只查询指定字段（主键和排序键总是查询）
+        Set<String> fields = FieldSelector.parse(request.getFields(), LIST_FIELDS, "id", "createTime");
+        if (fields != null) {
+            queryWrapper.select(Customer.class, info -> fields.contains(info.getProperty()));
+        }
         
         // 姓名模糊匹配
         if (request.getName() != null && !request.getName().isEmpty()) {
@@ -180,17 +226,7 @@ public class CustomerService {
         if (request.getPhone() != null && !request.getPhone().isEmpty()) {
             queryWrapper.eq(Customer::getPhone, request.getPhone());
         }
-        
-        // 按创建时间倒序排列
-        queryWrapper.orderByDesc(Customer::getCreateTime);
-        
-        // 分页查询
-        Page<Customer> page = new Page<>(request.getPageNum(), request.getPageSize());
-        Page<Customer> result = customerMapper.selectPage(page, queryWrapper);
-        
-        log.debug("客户查询 - 姓名: {}, 手机号: {}, 结果数: {}", 
-                 request.getName(), request.getPhone(), result.getRecords().size());
-        
-        return result;
+
+        return queryWrapper;
     }
 }
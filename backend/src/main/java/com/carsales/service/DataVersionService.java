@@ -0,0 +1,90 @@
+package com.carsales.service;
+
+import com.carsales.util.ETagUtil;
+import com.carsales.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据版本服务
+ * 
+ * 每张业务表维护一个内存版本号，写操作在事务提交后递增；
+ * 总数缓存等派生数据以版本号作为缓存键的一部分，版本变化即自然失效。
+ * 版本号只反映本实例的写入，多实例部署时派生缓存依赖各自的过期时间兜底；
+ * 列表 ETag 同样以版本号生成，并带上实例启动标识和时间窗口，避免重启或其他实例写入后长期误判未变更
+ */
+@Slf4j
+@Service
+public class DataVersionService {
+
+    public static final String CAR_INFO = "car_info";
+    public static final String CUSTOMER = "customer";
+    public static final String SALES_ORDER = "sales_order";
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 实例启动标识（重启后版本号从 0 开始，旧 ETag 不能再命中）
+     */
+    private final String bootId = UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * 列表 ETag 的时间窗口（毫秒），窗口切换后强制重新查询一次，0 表示不限制
+     */
+    @Value("${etag.list-window-millis:60000}")
+    private long listWindowMillis;
+
+    /**
+     * 获取表的当前版本号
+     *
+     * @param table 表名
+     * @return 版本号
+     */
+    public long version(String table) {
+        return versions.computeIfAbsent(table, t -> new AtomicLong()).get();
+    }
+
+    /**
+     * 标记表数据已变更
+     * 在事务中调用时于提交后递增（回滚不递增），否则立即递增
+     *
+     * @param tables 表名
+     */
+    public void bump(String... tables) {
+        TransactionUtil.afterCommit(() -> increment(tables));
+    }
+
+    /**
+     * 生成列表查询的强 ETag
+     * 相关表的版本号和查询条件都不变时 ETag 不变，调用方可在执行查询前比较 If-None-Match
+     *
+     * @param scope  接口标识（如 cars、orders-cursor）
+     * @param filter 查询条件（包含分页参数，使用 toString 的结果）
+     * @param tables 结果依赖的表
+     * @return 带引号的 ETag
+     */
+    public String listETag(String scope, Object filter, String... tables) {
+        StringBuilder tag = new StringBuilder(scope).append('-').append(bootId);
+        for (String table : tables) {
+            tag.append('-').append(version(table));
+        }
+        if (listWindowMillis > 0) {
+            tag.append('-').append(System.currentTimeMillis() / listWindowMillis);
+        }
+        tag.append('-').append(ETagUtil.digest(filter));
+        return ETagUtil.quote(tag.toString());
+    }
+
+    private void increment(String... tables) {
+        for (String table : tables) {
+            long version = versions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+            log.debug("数据版本递增 - 表: {}, 版本: {}", table, version);
+        }
+    }
+}
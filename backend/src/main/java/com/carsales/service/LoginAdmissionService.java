@@ -0,0 +1,157 @@
+package com.carsales.service;
+
+import com.carsales.config.LoginAdmissionProperties;
+import com.carsales.exception.BusinessException;
+import com.carsales.util.TokenBucketRateLimiter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 登录准入控制服务
+ *
+ * 1. 按用户名和客户端 IP 做令牌桶限流，拒绝撞库和登录风暴中的超额请求
+ * 2. BCrypt 密码校验在独立的有界线程池中执行，队列满时快速失败，
+ *    避免登录高峰占满 Tomcat 工作线程的 CPU 而拖慢其他接口
+ */
+@Slf4j
+@Service
+public class LoginAdmissionService {
+
+    private final LoginAdmissionProperties properties;
+    private final ThreadPoolExecutor passwordExecutor;
+    private final TokenBucketRateLimiter userLimiter;
+    private final TokenBucketRateLimiter ipLimiter;
+
+    private final LongAdder throttledCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+
+    public LoginAdmissionService(LoginAdmissionProperties properties) {
+        this.properties = properties;
+
+        int poolSize = properties.getPoolSize() > 0
+                ? properties.getPoolSize()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.passwordExecutor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verify-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.userLimiter = new TokenBucketRateLimiter(properties.getUserBurst(), properties.getUserPerMinute());
+        this.ipLimiter = new TokenBucketRateLimiter(properties.getIpBurst(), properties.getIpPerMinute());
+
+        log.info("登录准入控制已启用 - 密码校验线程数: {}, 队列长度: {}", poolSize, properties.getQueueCapacity());
+    }
+
+    /**
+     * 按用户名和客户端 IP 限流
+     *
+     * @param username 用户名
+     * @param clientIp 客户端 IP
+     */
+    public void checkThrottle(String username, String clientIp) {
+        if (!ipLimiter.tryAcquire(clientIp) || !userLimiter.tryAcquire(username)) {
+            throttledCount.increment();
+            log.warn("登录限流：请求过于频繁 - 用户名: {}, IP: {}", username, clientIp);
+            throw new BusinessException(1004, "登录尝试过于频繁，请稍后再试");
+        }
+    }
+
+    /**
+     * 在密码校验线程池中执行任务并等待结果
+     * 线程池和队列都已满或等待超时时快速失败
+     *
+     * @param task 密码校验任务
+     * @return 任务结果
+     */
+    public <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = passwordExecutor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            log.warn("登录繁忙：密码校验队列已满");
+            throw new BusinessException(1005, "登录服务繁忙，请稍后再试");
+        }
+
+        try {
+            return future.get(properties.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeoutCount.increment();
+            log.warn("登录繁忙：密码校验等待超时");
+            throw new BusinessException(1005, "登录服务繁忙，请稍后再试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(1005, "登录服务繁忙，请稍后再试");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("密码校验失败", cause);
+        }
+    }
+
+    /**
+     * 在密码校验线程池中异步执行后台任务（如登录后重新哈希密码）
+     * 不等待结果；线程池繁忙时直接放弃，不影响登录请求
+     *
+     * @param task 后台任务
+     * @return true-已提交, false-线程池繁忙被丢弃
+     */
+    public boolean submitBackground(Runnable task) {
+        try {
+            passwordExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("密码校验线程池繁忙，后台任务已丢弃");
+            return false;
+        }
+    }
+
+    /**
+     * 获取准入控制统计信息
+     *
+     * @return 线程池状态及限流、拒绝、超时次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", passwordExecutor.getPoolSize());
+        stats.put("activeThreads", passwordExecutor.getActiveCount());
+        stats.put("queueSize", passwordExecutor.getQueue().size());
+        stats.put("queueCapacity", properties.getQueueCapacity());
+        stats.put("completedTasks", passwordExecutor.getCompletedTaskCount());
+        stats.put("throttledCount", throttledCount.sum());
+        stats.put("rejectedCount", rejectedCount.sum());
+        stats.put("timeoutCount", timeoutCount.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        passwordExecutor.shutdown();
+    }
+}
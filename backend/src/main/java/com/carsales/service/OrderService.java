@@ -1,7 +1,9 @@
 package com.carsales.service;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.carsales.common.CountMode;
+import com.carsales.common.CursorPage;
+import com.carsales.common.LoginUser;
 import com.carsales.dto.OrderCreateRequest;
 import com.carsales.dto.OrderDetailVO;
 import com.carsales.dto.OrderQueryRequest;
@@ -9,8 +11,8 @@ import com.carsales.entity.SalesOrder;
 import com.carsales.entity.SysUser;
 import com.carsales.exception.BusinessException;
 import com.carsales.mapper.OrderMapper;
-import com.carsales.mapper.UserMapper;
-import com.carsales.util.JwtUtil;
+import com.carsales.util.CursorUtil;
+import com.carsales.util.FieldSelector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,7 +20,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,27 +35,64 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OrderService {
 
-    private final OrderMapper orderMapper;
-    private final UserMapper userMapper;
+    /**
+     * 列表接口 fields 参数可选的字段及对应的 SQL 列（按输出顺序）
+     */
+    private static final Map<String, String> DETAIL_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        DETAIL_COLUMNS.put("id", "o.id");
+        DETAIL_COLUMNS.put("orderNo", "o.order_no");
+        DETAIL_COLUMNS.put("originalPrice", "o.original_price");
+        DETAIL_COLUMNS.put("actualPrice", "o.actual_price");
+        DETAIL_COLUMNS.put("discountAmount", "o.discount_amount");
+        DETAIL_COLUMNS.put("orderDate", "o.order_date");
+        DETAIL_COLUMNS.put("status", "o.status");
+        DETAIL_COLUMNS.put("remark", "o.remark");
+        DETAIL_COLUMNS.put("createTime", "o.create_time");
+        DETAIL_COLUMNS.put("updateTime", "o.update_time");
+        DETAIL_COLUMNS.put("salesUserId", "o.sales_user_id");
+        DETAIL_COLUMNS.put("salesUserName", "u.real_name AS sales_user_name");
+        DETAIL_COLUMNS.put("salesUserPhone", "u.phone AS sales_user_phone");
+        DETAIL_COLUMNS.put("customerId", "o.customer_id");
+        DETAIL_COLUMNS.put("customerName", "c.name AS customer_name");
+        DETAIL_COLUMNS.put("customerPhone", "c.phone AS customer_phone");
+        DETAIL_COLUMNS.put("customerIdCard", "c.id_card AS customer_id_card");
+        DETAIL_COLUMNS.put("carId", "o.car_id");
+        DETAIL_COLUMNS.put("carVin", "car.vin AS car_vin");
+        DETAIL_COLUMNS.put("carBrand", "car.brand AS car_brand");
+        DETAIL_COLUMNS.put("carModel", "car.model AS car_model");
+        DETAIL_COLUMNS.put("carColor", "car.color AS car_color");
+        DETAIL_COLUMNS.put("carYear", "car.year AS car_year");
+    }
 
-    private final JwtUtil jwtUtil;
+    private final OrderMapper orderMapper;
+    private final UserService userService;
+    private final DataVersionService dataVersionService;
+    private final PageCountService pageCountService;
+    private final CarService carService;
+    private final ReservationService reservationService;
 
     /**
      * 创建订单
      * 
-     * @param request 订单创建请求
-     * @param token   JWT Token（用于获取当前登录用户）
+     * @param request   订单创建请求
+     * @param loginUser 当前登录用户（由 AuthInterceptor 验证）
      * @return 创建的订单详情
      */
     @Transactional(rollbackFor = Exception.class)
-    public OrderDetailVO createOrder(OrderCreateRequest request, String token) {
-        // 从token中获取当前登录用户ID
-        String username = jwtUtil.getUsernameFromToken(token);
-        SysUser currentUser = userMapper.selectOne(
-                new LambdaQueryWrapper<SysUser>().eq(SysUser::getUsername, username));
+    public OrderDetailVO createOrder(OrderCreateRequest request, LoginUser loginUser) {
+        // API Key 调用方没有对应的销售员，不能创建订单
+        if (loginUser.isApiKey()) {
+            log.warn("订单创建失败：API Key 调用方不能创建订单 - {}", loginUser.getUsername());
+            throw new BusinessException(1003, "API Key 无权创建订单，请使用销售员账号");
+        }
+
+        // 根据已验证的登录用户ID查询销售员（缓存）
+        SysUser currentUser = userService.getUserById(loginUser.getUserId());
 
         if (currentUser == null) {
-            log.warn("订单创建失败：用户不存在 - username: {}", username);
+            log.warn("订单创建失败：用户不存在 - username: {}", loginUser.getUsername());
             throw new BusinessException(1002, "用户不存在或Token无效");
         }
 
@@ -60,6 +102,11 @@ public class OrderService {
                 currentUser.getRealName(), request.getCustomerId(), request.getCarId(), request.getActualPrice());
 
         // ========== SQLite 实现（当前使用） ==========
+        // 条件更新车辆状态为已售（在库或由当前销售员预留，且版本未变），并发下单同一辆车时只有一个成功，其余返回 3008
+        boolean reserved = reservationService.consumeForOrder(request.getCarId(), salesUserId);
+        carService.transitionStatus(request.getCarId(),
+                reserved ? CarService.STATUS_LOCKED : CarService.STATUS_AVAILABLE, CarService.STATUS_SOLD, null);
+
         // 生成订单号（格式：ORD + 时间戳）
         String orderNo = "ORD" + System.currentTimeMillis();
 
@@ -83,6 +130,7 @@ public class OrderService {
             throw new BusinessException(5004, "订单创建失败");
         }
 
+        dataVersionService.bump(DataVersionService.SALES_ORDER);
         log.info("订单创建成功 - 订单ID: {}, 订单号: {}", order.getId(), orderNo);
 
         // 查询并返回订单详情
@@ -146,30 +194,29 @@ public class OrderService {
      * 分页查询订单列表（支持多条件筛选）
      * 返回包含关联信息的订单详情
      * 
-     * @param request 查询请求
+     * @param request 查询请求（fields 不为空时只查询并返回指定字段）
      * @return 分页结果
      */
     public Page<OrderDetailVO> queryOrderList(OrderQueryRequest request) {
         // 解析日期参数
-        LocalDate startDate = null;
-        LocalDate endDate = null;
-        if (request.getStartDate() != null && !request.getStartDate().isEmpty()) {
-            startDate = LocalDate.parse(request.getStartDate(), DateTimeFormatter.ISO_LOCAL_DATE);
-        }
-        if (request.getEndDate() != null && !request.getEndDate().isEmpty()) {
-            endDate = LocalDate.parse(request.getEndDate(), DateTimeFormatter.ISO_LOCAL_DATE);
-        }
+        LocalDate startDate = parseDate(request.getStartDate());
+        LocalDate endDate = parseDate(request.getEndDate());
 
-        // 创建分页对象
-        Page<OrderDetailVO> page = new Page<>(request.getPageNum(), request.getPageSize());
+        // 创建分页对象（按 countMode 决定是否执行 COUNT）
+        CountMode countMode = CountMode.of(request.getCountMode());
+        String filterKey = startDate + "|" + endDate + "|" + request.getSalesUserId() + "|" + request.getStatus();
+        Page<OrderDetailVO> page = pageCountService.newPage(request.getPageNum(), request.getPageSize(),
+                countMode, DataVersionService.SALES_ORDER, filterKey);
 
         // 调用 Mapper 查询订单详情列表
         Page<OrderDetailVO> result = orderMapper.selectOrderDetailPage(
                 page,
+                selectColumns(request),
                 startDate,
                 endDate,
                 request.getSalesUserId(),
                 request.getStatus());
+        pageCountService.afterQuery(result, countMode, DataVersionService.SALES_ORDER, filterKey);
 
         log.debug("订单查询 - 日期区间: [{}, {}], 销售员ID: {}, 状态: {}, 结果数: {}",
                 request.getStartDate(), request.getEndDate(), request.getSalesUserId(),
@@ -178,6 +225,60 @@ public class OrderService {
         return result;
     }
 
+    /**
+     * 游标分页查询订单列表（键集分页，按订单日期、创建时间、ID 倒序）
+     * 每页只按索引定位到上一页最后一条之后，不随翻页深度变慢
+     * 
+     * @param request 查询请求（cursor 为空时查询第一页，fields 不为空时只查询并返回指定字段）
+     * @return 游标分页结果
+     */
+    public CursorPage<OrderDetailVO> queryOrderListByCursor(OrderQueryRequest request) {
+        int size = CursorUtil.limit(request.getPageSize());
+
+        LocalDate cursorDate = null;
+        LocalDateTime cursorTime = null;
+        Long cursorId = null;
+        if (request.getCursor() != null && !request.getCursor().isEmpty()) {
+            String[] cursor = CursorUtil.decode(request.getCursor(), 3);
+            cursorDate = CursorUtil.parseDate(cursor[0]);
+            cursorTime = CursorUtil.parseDateTime(cursor[1]);
+            cursorId = CursorUtil.parseLong(cursor[2]);
+        }
+
+        List<OrderDetailVO> rows = orderMapper.selectOrderDetailByCursor(
+                selectColumns(request),
+                parseDate(request.getStartDate()),
+                parseDate(request.getEndDate()),
+                request.getSalesUserId(),
+                request.getStatus(),
+                cursorDate,
+                cursorTime,
+                cursorId,
+                size + 1);
+
+        return CursorUtil.toPage(rows, size,
+                order -> CursorUtil.encode(order.getOrderDate(), order.getCreateTime(), order.getId()));
+    }
+
+    /**
+     * 按 fields 参数生成 SELECT 列表（主键和排序键总是查询）
+     */
+    private String selectColumns(OrderQueryRequest request) {
+        return FieldSelector.columns(
+                FieldSelector.parse(request.getFields(), DETAIL_COLUMNS.keySet(), "id", "orderDate", "createTime"),
+                DETAIL_COLUMNS);
+    }
+
+    /**
+     * 解析日期参数（格式：yyyy-MM-dd，为空时返回 null）
+     */
+    private LocalDate parseDate(String date) {
+        if (date == null || date.isEmpty()) {
+            return null;
+        }
+        return LocalDate.parse(date, DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
     /**
      * 从Map中安全获取Integer值（用于PostgreSQL存储过程）
      */
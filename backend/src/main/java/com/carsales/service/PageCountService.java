@@ -0,0 +1,107 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.carsales.common.CountMode;
+import com.carsales.util.CursorUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 分页总数服务
+ * 
+ * 根据请求的统计方式决定分页查询是否执行 COUNT：
+ * EXACT 每次统计；NONE 不统计；ESTIMATE 按"表版本 + 筛选条件"缓存总数，
+ * 命中时跳过 COUNT，表数据变更（版本递增）后自动重新统计
+ */
+@Service
+@RequiredArgsConstructor
+public class PageCountService {
+
+    /**
+     * 总数缓存最大条目数
+     */
+    private static final long MAXIMUM_SIZE = 10_000;
+
+    /**
+     * 总数缓存过期时间（多实例部署时其他实例写入的兜底）
+     */
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final DataVersionService dataVersionService;
+
+    /**
+     * 总数缓存：表名:版本:筛选条件 -> 总数
+     */
+    private final Cache<String, Long> countCache = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(TTL)
+            .recordStats()
+            .build();
+
+    /**
+     * 创建分页对象，按统计方式设置是否执行 COUNT
+     *
+     * @param pageNum   页码
+     * @param pageSize  每页大小（限制在 1 ~ CursorUtil.MAX_PAGE_SIZE）
+     * @param mode      统计方式
+     * @param table     主表名（用于缓存失效）
+     * @param filterKey 筛选条件键
+     * @return 分页对象
+     */
+    public <T> Page<T> newPage(long pageNum, long pageSize, CountMode mode, String table, String filterKey) {
+        long size = Math.max(1, Math.min(pageSize, CursorUtil.MAX_PAGE_SIZE));
+        Page<T> page = new Page<>(Math.max(1, pageNum), size);
+        switch (mode) {
+            case NONE:
+                page.setSearchCount(false);
+                break;
+            case ESTIMATE:
+                Long cached = countCache.getIfPresent(cacheKey(table, filterKey));
+                if (cached != null) {
+                    page.setSearchCount(false);
+                    page.setTotal(cached);
+                }
+                break;
+            default:
+                break;
+        }
+        return page;
+    }
+
+    /**
+     * 查询完成后记录总数（ESTIMATE 模式且本次执行了 COUNT 时写入缓存）
+     *
+     * @param result    分页结果
+     * @param mode      统计方式
+     * @param table     主表名
+     * @param filterKey 筛选条件键
+     */
+    public void afterQuery(Page<?> result, CountMode mode, String table, String filterKey) {
+        if (mode == CountMode.ESTIMATE && result.searchCount()) {
+            countCache.put(cacheKey(table, filterKey), result.getTotal());
+        }
+    }
+
+    /**
+     * 获取总数缓存统计信息
+     *
+     * @return 命中、未命中次数及缓存大小
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hitCount", countCache.stats().hitCount());
+        stats.put("missCount", countCache.stats().missCount());
+        stats.put("size", countCache.estimatedSize());
+        return stats;
+    }
+
+    private String cacheKey(String table, String filterKey) {
+        return table + ":" + dataVersionService.version(table) + ":" + filterKey;
+    }
+}
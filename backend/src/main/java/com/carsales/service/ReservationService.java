@@ -0,0 +1,338 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.carsales.common.LoginUser;
+import com.carsales.dto.CarStatusRequest;
+import com.carsales.dto.ReservationCreateRequest;
+import com.carsales.entity.CarInfo;
+import com.carsales.entity.CarReservation;
+import com.carsales.exception.BusinessException;
+import com.carsales.mapper.CarMapper;
+import com.carsales.mapper.CarReservationMapper;
+import com.carsales.util.HierarchicalTimingWheel;
+import com.carsales.util.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 车辆预留服务类
+ * 销售员可将在库车辆锁定若干分钟，到期自动释放。
+ *
+ * 到期由内存中的分层时间轮驱动：预留提交后放入时间轮，到期时只处理到期的那几条记录，
+ * 不定期扫描 car_info 或 car_reservation；启动时从数据库加载所有预留中的记录重建时间轮。
+ * 释放、成交、到期都以 status = 0 为条件更新预留记录，多实例或并发操作时只有一个生效。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReservationService {
+
+    /**
+     * 预留状态：预留中
+     */
+    public static final int STATUS_ACTIVE = 0;
+
+    /**
+     * 预留状态：已释放（销售员或管理员提前释放）
+     */
+    public static final int STATUS_RELEASED = 1;
+
+    /**
+     * 预留状态：已成交
+     */
+    public static final int STATUS_SOLD = 2;
+
+    /**
+     * 预留状态：已过期
+     */
+    public static final int STATUS_EXPIRED = 3;
+
+    /**
+     * 到期处理失败后的重试间隔（毫秒）
+     */
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final CarReservationMapper reservationMapper;
+    private final CarMapper carMapper;
+    private final CarService carService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reservation.tick-millis:1000}")
+    private long tickMillis;
+
+    @Value("${reservation.default-minutes:30}")
+    private int defaultMinutes;
+
+    @Value("${reservation.max-minutes:1440}")
+    private int maxMinutes;
+
+    /**
+     * 到期时间轮（键为预留记录ID）
+     */
+    private HierarchicalTimingWheel<Long> wheel;
+
+    private final LongAdder expiredCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * 启动时从数据库加载预留中的记录（已过期的在下一个 tick 释放）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        LambdaQueryWrapper<CarReservation> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(CarReservation::getId, CarReservation::getExpireTime)
+                .eq(CarReservation::getStatus, STATUS_ACTIVE);
+        List<CarReservation> active = reservationMapper.selectList(queryWrapper);
+        for (CarReservation reservation : active) {
+            wheel.schedule(reservation.getId(), toMillis(reservation.getExpireTime()));
+        }
+        log.info("车辆预留时间轮加载完成 - 预留中: {}", active.size());
+    }
+
+    /**
+     * 预留车辆（车辆状态 在库 -> 锁定）
+     *
+     * @param request   预留请求
+     * @param loginUser 当前登录用户
+     * @return 预留记录
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public CarReservation reserve(ReservationCreateRequest request, LoginUser loginUser) {
+        if (loginUser.isApiKey()) {
+            throw new BusinessException(1003, "API Key 无权预留车辆，请使用销售员账号");
+        }
+        int minutes = request.getMinutes() == null ? defaultMinutes : request.getMinutes();
+        if (minutes < 1 || minutes > maxMinutes) {
+            throw new BusinessException(2003, "预留时长必须在 1 到 " + maxMinutes + " 分钟之间");
+        }
+
+        // 条件更新车辆状态，车辆已被预留或售出时立即失败
+        carService.transitionStatus(request.getCarId(), CarService.STATUS_AVAILABLE, CarService.STATUS_LOCKED, null);
+
+        CarReservation reservation = new CarReservation();
+        reservation.setCarId(request.getCarId());
+        reservation.setSalesUserId(loginUser.getUserId());
+        reservation.setCustomerId(request.getCustomerId());
+        reservation.setExpireTime(LocalDateTime.now().plusMinutes(minutes));
+        reservation.setStatus(STATUS_ACTIVE);
+        reservation.setRemark(request.getRemark());
+        reservationMapper.insert(reservation);
+
+        Long id = reservation.getId();
+        long deadline = toMillis(reservation.getExpireTime());
+        TransactionUtil.afterCommit(() -> wheel.schedule(id, deadline));
+
+        log.info("车辆预留成功 - 预留ID: {}, 车辆ID: {}, 销售员: {}, 时长: {} 分钟",
+                id, request.getCarId(), loginUser.getUsername(), minutes);
+        return reservation;
+    }
+
+    /**
+     * 提前释放预留（车辆状态 锁定 -> 在库）
+     *
+     * @param id        预留记录ID
+     * @param loginUser 当前登录用户（只能释放自己的预留，管理员可释放所有）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void release(Long id, LoginUser loginUser) {
+        CarReservation reservation = reservationMapper.selectById(id);
+        if (reservation == null) {
+            throw new BusinessException(3001, "预留记录不存在");
+        }
+        if (!"ADMIN".equals(loginUser.getRole()) && !reservation.getSalesUserId().equals(loginUser.getUserId())) {
+            throw new BusinessException(1003, "只能释放自己的预留");
+        }
+        if (!finish(id, STATUS_RELEASED, null)) {
+            throw new BusinessException(3008, "预留已结束，无需释放");
+        }
+        releaseCar(reservation.getCarId());
+        TransactionUtil.afterCommit(() -> wheel.cancel(id));
+
+        log.info("车辆预留已释放 - 预留ID: {}, 车辆ID: {}, 操作人: {}",
+                id, reservation.getCarId(), loginUser.getUsername());
+    }
+
+    /**
+     * 手工变更车辆状态（状态变更接口）
+     * 只做不需要配套记录的变更：售出必须通过下单完成；
+     * 锁定 -> 在库时车辆有预留则按释放预留处理（校验归属、取消到期），没有预留的手工锁定只有管理员可以解除；
+     * 在库 -> 锁定不产生预留记录也不会到期，只有管理员可以操作，销售员请使用预留
+     *
+     * @param carId     车辆ID
+     * @param request   状态变更请求
+     * @param loginUser 当前登录用户
+     * @return 变更后的车辆信息
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public CarInfo changeCarStatus(Long carId, CarStatusRequest request, LoginUser loginUser) {
+        int fromStatus = request.getFromStatus();
+        int toStatus = request.getToStatus();
+        if (toStatus == CarService.STATUS_SOLD) {
+            throw new BusinessException(2003, "车辆售出请通过创建订单完成");
+        }
+        boolean admin = "ADMIN".equals(loginUser.getRole());
+
+        if (fromStatus == CarService.STATUS_LOCKED && toStatus == CarService.STATUS_AVAILABLE) {
+            LambdaQueryWrapper<CarReservation> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(CarReservation::getCarId, carId)
+                    .eq(CarReservation::getStatus, STATUS_ACTIVE)
+                    .last("LIMIT 1");
+            CarReservation reservation = reservationMapper.selectOne(queryWrapper);
+            if (reservation != null) {
+                CarInfo car = carMapper.selectById(carId);
+                if (car != null && request.getVersion() != null && !request.getVersion().equals(car.getVersion())) {
+                    throw new BusinessException(3008, "车辆已被其他操作修改，请刷新后重试");
+                }
+                release(reservation.getId(), loginUser);
+                return carMapper.selectById(carId);
+            }
+        }
+
+        if (!admin) {
+            throw new BusinessException(1003, fromStatus == CarService.STATUS_AVAILABLE
+                    ? "销售员锁定车辆请使用预留" : "车辆没有预留记录，只有管理员可以解除锁定");
+        }
+        return carService.transitionStatus(carId, fromStatus, toStatus, request.getVersion());
+    }
+
+    /**
+     * 下单时结束该车辆的预留
+     * 车辆被其他销售员预留时不允许下单；被当前销售员预留时预留记录标记为已成交
+     *
+     * @param carId       车辆ID
+     * @param salesUserId 下单的销售员ID
+     * @return true-车辆由该销售员预留（当前为锁定状态）, false-车辆没有预留
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public boolean consumeForOrder(Long carId, Long salesUserId) {
+        LambdaQueryWrapper<CarReservation> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(CarReservation::getCarId, carId)
+                .eq(CarReservation::getStatus, STATUS_ACTIVE)
+                .last("LIMIT 1");
+        CarReservation reservation = reservationMapper.selectOne(queryWrapper);
+        if (reservation == null) {
+            return false;
+        }
+        if (!reservation.getSalesUserId().equals(salesUserId)) {
+            throw new BusinessException(3002, "车辆已被其他销售员预留");
+        }
+        if (!finish(reservation.getId(), STATUS_SOLD, null)) {
+            // 预留刚好到期或被释放，按未预留处理
+            return false;
+        }
+        Long id = reservation.getId();
+        TransactionUtil.afterCommit(() -> wheel.cancel(id));
+        return true;
+    }
+
+    /**
+     * 查询预留中的记录（管理员查看全部，销售员查看自己的）
+     *
+     * @param loginUser 当前登录用户
+     * @return 预留记录（按到期时间升序）
+     */
+    public List<CarReservation> listActive(LoginUser loginUser) {
+        LambdaQueryWrapper<CarReservation> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(CarReservation::getStatus, STATUS_ACTIVE);
+        if (!"ADMIN".equals(loginUser.getRole())) {
+            queryWrapper.eq(CarReservation::getSalesUserId, loginUser.getUserId());
+        }
+        queryWrapper.orderByAsc(CarReservation::getExpireTime);
+        return reservationMapper.selectList(queryWrapper);
+    }
+
+    /**
+     * 推进时间轮，释放到期的预留（只访问到期的记录）
+     */
+    @Scheduled(fixedDelayString = "${reservation.tick-millis:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        for (Long id : wheel.advance(now)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> expire(id));
+            } catch (Exception e) {
+                log.warn("车辆预留到期释放失败，稍后重试 - 预留ID: {}, 原因: {}", id, e.getMessage());
+                wheel.schedule(id, now + RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * 预留到期：预留记录标记为已过期并释放车辆
+     */
+    private void expire(Long id) {
+        CarReservation reservation = reservationMapper.selectById(id);
+        if (reservation == null || reservation.getStatus() != STATUS_ACTIVE) {
+            return;
+        }
+        if (!finish(id, STATUS_EXPIRED, LocalDateTime.now())) {
+            return;
+        }
+        releaseCar(reservation.getCarId());
+        expiredCount.increment();
+        log.info("车辆预留已到期释放 - 预留ID: {}, 车辆ID: {}", id, reservation.getCarId());
+    }
+
+    /**
+     * 以"预留中"为条件结束预留
+     *
+     * @param expiredBefore 不为空时只结束到期时间不晚于该时间的预留
+     * @return true-本次操作结束了预留, false-预留已被其他操作结束
+     */
+    private boolean finish(Long id, int status, LocalDateTime expiredBefore) {
+        LambdaUpdateWrapper<CarReservation> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.set(CarReservation::getStatus, status)
+                .set(CarReservation::getUpdateTime, LocalDateTime.now())
+                .eq(CarReservation::getId, id)
+                .eq(CarReservation::getStatus, STATUS_ACTIVE)
+                .le(expiredBefore != null, CarReservation::getExpireTime, expiredBefore);
+        return reservationMapper.update(null, updateWrapper) > 0;
+    }
+
+    /**
+     * 释放车辆（锁定 -> 在库）；车辆已删除或已被管理员改为其他状态时跳过
+     */
+    private void releaseCar(Long carId) {
+        CarInfo car = carMapper.selectById(carId);
+        if (car == null || car.getStatus() == null || car.getStatus() != CarService.STATUS_LOCKED) {
+            log.debug("车辆不在锁定状态，跳过释放 - 车辆ID: {}", carId);
+            return;
+        }
+        carService.transitionStatus(carId, CarService.STATUS_LOCKED, CarService.STATUS_AVAILABLE, car.getVersion());
+    }
+
+    /**
+     * 预留统计（用于监控）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", wheel.size());
+        stats.put("expired", expiredCount.sum());
+        stats.put("tickMillis", tickMillis);
+        return stats;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,145 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.carsales.common.LoginUser;
+import com.carsales.entity.TokenRevocation;
+import com.carsales.mapper.TokenRevocationMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token 黑名单服务
+ * 
+ * 登出的 Token 按 Token ID（jti）保存在内存中，AuthInterceptor 校验时只做一次哈希表查找，不访问数据库；
+ * 条目在 Token 原过期时间之后清理。数据库表 sys_token_revocation 持久化注销记录，
+ * 启动时加载，并定期增量同步其他实例写入的记录
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenBlocklistService {
+
+    /**
+     * 增量同步时向前回溯的时间（秒），覆盖各实例之间的时钟偏差
+     */
+    private static final long SYNC_OVERLAP_SECONDS = 10;
+
+    private final TokenRevocationMapper tokenRevocationMapper;
+
+    /**
+     * 已注销的 Token：Token ID -> 原过期时间（毫秒）
+     */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * 上次从数据库同步的时间
+     */
+    private volatile LocalDateTime lastSyncTime;
+
+    /**
+     * 启动完成后从数据库加载未过期的注销记录
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        syncFromDatabase();
+        log.info("Token 黑名单加载完成 - 数量: {}", revokedTokens.size());
+    }
+
+    /**
+     * 判断 Token 是否已注销
+     * 
+     * @param tokenId Token ID（jti）
+     * @return true-已注销, false-未注销
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || revokedTokens.isEmpty()) {
+            return false;
+        }
+        Long expiresAt = revokedTokens.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 注销 Token
+     * 
+     * @param loginUser 已验签的登录用户
+     */
+    public void revoke(LoginUser loginUser) {
+        if (loginUser.getTokenId() == null || loginUser.getExpiration() == null) {
+            // 旧版本签发的 Token 没有 jti，只能等待自然过期
+            log.warn("Token 无 ID，无法注销 - 用户名: {}", loginUser.getUsername());
+            return;
+        }
+
+        long expiresAt = loginUser.getExpiration().getTime();
+        revokedTokens.put(loginUser.getTokenId(), expiresAt);
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setTokenId(loginUser.getTokenId());
+        revocation.setUsername(loginUser.getUsername());
+        revocation.setExpireTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()));
+        try {
+            tokenRevocationMapper.insert(revocation);
+        } catch (DuplicateKeyException e) {
+            // 重复登出，已存在注销记录
+            log.debug("Token 已注销 - {}", loginUser.getTokenId());
+        }
+
+        log.info("Token 已注销 - 用户名: {}", loginUser.getUsername());
+    }
+
+    /**
+     * 定期从数据库增量同步注销记录（多实例部署时同步其他实例的登出）
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:30000}", initialDelayString = "${jwt.revocation.sync-interval:30000}")
+    public void syncFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        LambdaQueryWrapper<TokenRevocation> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.gt(TokenRevocation::getExpireTime, now);
+        if (lastSyncTime != null) {
+            queryWrapper.ge(TokenRevocation::getCreateTime, lastSyncTime.minusSeconds(SYNC_OVERLAP_SECONDS));
+        }
+
+        List<TokenRevocation> revocations = tokenRevocationMapper.selectList(queryWrapper);
+        for (TokenRevocation revocation : revocations) {
+            revokedTokens.put(revocation.getTokenId(),
+                    revocation.getExpireTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        lastSyncTime = now;
+    }
+
+    /**
+     * 定期清理已过期的注销记录（Token 已自然过期，无需再拦截）
+     */
+    @Scheduled(fixedDelay = 600_000, initialDelay = 600_000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+
+        LambdaQueryWrapper<TokenRevocation> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.le(TokenRevocation::getExpireTime, LocalDateTime.now());
+        int deleted = tokenRevocationMapper.delete(queryWrapper);
+        if (deleted > 0) {
+            log.info("清理过期的 Token 注销记录 - 数量: {}", deleted);
+        }
+    }
+
+    /**
+     * 当前黑名单中的 Token 数量
+     */
+    public int size() {
+        return revokedTokens.size();
+    }
+}
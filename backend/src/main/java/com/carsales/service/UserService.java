@@ -1,37 +1,105 @@
 package com.carsales.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.carsales.common.LoginUser;
+import com.carsales.config.BCryptCalibration;
 import com.carsales.dto.LoginRequest;
 import com.carsales.dto.LoginResponse;
 import com.carsales.entity.SysUser;
 import com.carsales.exception.BusinessException;
 import com.carsales.mapper.UserMapper;
 import com.carsales.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 用户服务类
  * 处理用户认证相关业务逻辑
+ * 
+ * 用户信息按ID和用户名做读穿透缓存，销售员列表整体缓存；
+ * 修改用户角色或状态时立即失效对应缓存，缓存过期时间作为多实例部署时的兜底
+ * 
+ * 登录成功后若已存储密码的 BCrypt 强度与当前校准强度不一致，在后台透明地重新哈希
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    /**
+     * 用户缓存最大条目数
+     */
+    private static final long USER_CACHE_MAXIMUM_SIZE = 10_000;
+
+    /**
+     * 用户缓存过期时间
+     */
+    private static final Duration USER_CACHE_TTL = Duration.ofMinutes(5);
+
+    /**
+     * 允许的角色
+     */
+    private static final Set<String> ROLES = Set.of("ADMIN", "SALESPERSON");
+
     private final UserMapper userMapper;
     private final JwtUtil jwtUtil;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final LoginAdmissionService loginAdmissionService;
+    private final TokenBlocklistService tokenBlocklistService;
+    private final BCryptCalibration bCryptCalibration;
+
+    /**
+     * 已完成的密码重新哈希次数
+     */
+    private final LongAdder rehashCount = new LongAdder();
+
+    /**
+     * 用户缓存：用户ID -> 用户
+     */
+    private final Cache<Long, SysUser> userCache = Caffeine.newBuilder()
+            .maximumSize(USER_CACHE_MAXIMUM_SIZE)
+            .expireAfterWrite(USER_CACHE_TTL)
+            .build();
+
+    /**
+     * 用户名索引：用户名 -> 用户ID
+     */
+    private final Cache<String, Long> usernameCache = Caffeine.newBuilder()
+            .maximumSize(USER_CACHE_MAXIMUM_SIZE)
+            .expireAfterWrite(USER_CACHE_TTL)
+            .build();
+
+    /**
+     * 销售员列表缓存（已按姓名排序）
+     */
+    private final Cache<String, List<SysUser>> salespersonCache = Caffeine.newBuilder()
+            .maximumSize(1)
+            .expireAfterWrite(USER_CACHE_TTL)
+            .build();
 
     /**
      * 用户登录
      * 
-     * @param request 登录请求
+     * @param request  登录请求
+     * @param clientIp 客户端 IP（用于限流）
      * @return 登录响应（包含Token和用户信息）
      */
-    public LoginResponse login(LoginRequest request) {
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        // 按用户名和 IP 限流
+        loginAdmissionService.checkThrottle(request.getUsername(), clientIp);
+
         // 查询用户
         LambdaQueryWrapper<SysUser> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(SysUser::getUsername, request.getUsername());
@@ -49,12 +117,21 @@ public class UserService {
             throw new BusinessException(1001, "用户已被禁用");
         }
 
-        // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        // 验证密码（在有界的密码校验线程池中执行）
+        boolean matched = loginAdmissionService.execute(
+                () -> passwordEncoder.matches(request.getPassword(), user.getPassword()));
+        if (!matched) {
             log.warn("登录失败：密码错误 - {}", request.getUsername());
             throw new BusinessException(1001, "用户名或密码错误");
         }
 
+        // 密码强度与当前校准强度不一致时，后台重新哈希（不阻塞登录）
+        if (bCryptCalibration.needsRehash(user.getPassword())) {
+            String rawPassword = request.getPassword();
+            String oldHash = user.getPassword();
+            loginAdmissionService.submitBackground(() -> rehashPassword(user.getId(), rawPassword, oldHash));
+        }
+
         // 生成JWT Token
         String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole());
 
@@ -75,39 +152,169 @@ public class UserService {
                 .build();
     }
 
+    /**
+     * 按当前强度重新哈希密码
+     * 仅在密码未被并发修改时更新（以旧哈希为条件），失败只记录日志
+     * 
+     * @param userId      用户ID
+     * @param rawPassword 原始密码
+     * @param oldHash     登录时校验通过的旧哈希
+     */
+    private void rehashPassword(Long userId, String rawPassword, String oldHash) {
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            LambdaUpdateWrapper<SysUser> updateWrapper = new LambdaUpdateWrapper<>();
+            updateWrapper.set(SysUser::getPassword, newHash)
+                    .eq(SysUser::getId, userId)
+                    .eq(SysUser::getPassword, oldHash);
+            if (userMapper.update(null, updateWrapper) > 0) {
+                rehashCount.increment();
+                evictUser(userId);
+                log.info("密码已按新强度重新哈希 - 用户ID: {}, 强度: {} -> {}",
+                        userId, BCryptCalibration.strengthOf(oldHash), bCryptCalibration.getStrength());
+            }
+        } catch (Exception e) {
+            log.warn("密码重新哈希失败 - 用户ID: {}", userId, e);
+        }
+    }
+
+    /**
+     * 已完成的密码重新哈希次数
+     */
+    public long getRehashCount() {
+        return rehashCount.sum();
+    }
+
     /**
      * 用户登出
-     * 注意：JWT是无状态的，登出主要在前端清除Token
-     * 后端可以记录登出日志
+     * 将 Token 加入黑名单，在其原过期时间之前都无法再使用
      * 
-     * @param username 用户名
+     * @param token JWT Token
      */
-    public void logout(String username) {
-        log.info("用户登出 - 用户名: {}", username);
-        // JWT无状态，实际登出由前端清除Token完成
-        // 这里可以添加登出日志记录或其他业务逻辑
+    public void logout(String token) {
+        LoginUser loginUser;
+        try {
+            loginUser = jwtUtil.parseLoginUser(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token 已过期或无效，无需注销
+            log.info("用户登出 - Token 已失效");
+            return;
+        }
+
+        tokenBlocklistService.revoke(loginUser);
+        log.info("用户登出 - 用户名: {}", loginUser.getUsername());
     }
 
     /**
-     * 根据用户名查询用户
+     * 根据用户名查询用户（读穿透缓存）
+     * 返回的是缓存共享实例，调用方不应修改
      * 
      * @param username 用户名
      * @return 用户实体
      */
     public SysUser getUserByUsername(String username) {
+        Long userId = usernameCache.getIfPresent(username);
+        if (userId != null) {
+            SysUser cached = userCache.getIfPresent(userId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         LambdaQueryWrapper<SysUser> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(SysUser::getUsername, username);
-        return userMapper.selectOne(queryWrapper);
+        SysUser user = userMapper.selectOne(queryWrapper);
+        cacheUser(user);
+        return user;
     }
 
     /**
-     * 根据ID查询用户
+     * 根据ID查询用户（读穿透缓存）
+     * 返回的是缓存共享实例，调用方不应修改
      * 
      * @param id 用户ID
      * @return 用户实体
      */
     public SysUser getUserById(Long id) {
-        return userMapper.selectById(id);
+        SysUser cached = userCache.getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        SysUser user = userMapper.selectById(id);
+        cacheUser(user);
+        return user;
+    }
+
+    /**
+     * 修改用户状态（启用/禁用），立即失效缓存
+     * 
+     * @param id     用户ID
+     * @param status 状态：0-禁用, 1-启用
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void updateUserStatus(Long id, Integer status) {
+        if (status == null || (status != 0 && status != 1)) {
+            throw new BusinessException(2003, "状态值只能为0或1");
+        }
+
+        SysUser update = new SysUser();
+        update.setId(id);
+        update.setStatus(status);
+        if (userMapper.updateById(update) == 0) {
+            throw new BusinessException(1001, "用户不存在");
+        }
+
+        evictUser(id);
+        log.info("用户状态已修改 - ID: {}, 状态: {}", id, status);
+    }
+
+    /**
+     * 修改用户角色，立即失效缓存
+     * 
+     * @param id   用户ID
+     * @param role 角色：ADMIN-管理员, SALESPERSON-销售员
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void updateUserRole(Long id, String role) {
+        if (role == null || !ROLES.contains(role)) {
+            throw new BusinessException(2003, "角色只能为 ADMIN 或 SALESPERSON");
+        }
+
+        SysUser update = new SysUser();
+        update.setId(id);
+        update.setRole(role);
+        if (userMapper.updateById(update) == 0) {
+            throw new BusinessException(1001, "用户不存在");
+        }
+
+        evictUser(id);
+        log.info("用户角色已修改 - ID: {}, 角色: {}", id, role);
+    }
+
+    /**
+     * 失效指定用户的缓存（包括用户名索引和销售员列表）
+     * 
+     * @param id 用户ID
+     */
+    public void evictUser(Long id) {
+        SysUser cached = userCache.getIfPresent(id);
+        if (cached != null) {
+            usernameCache.invalidate(cached.getUsername());
+        }
+        userCache.invalidate(id);
+        salespersonCache.invalidateAll();
+    }
+
+    /**
+     * 写入用户缓存
+     */
+    private void cacheUser(SysUser user) {
+        if (user == null) {
+            return;
+        }
+        userCache.put(user.getId(), user);
+        usernameCache.put(user.getUsername(), user.getId());
     }
 
     /**
@@ -127,9 +334,10 @@ public class UserService {
      * @return 登录响应（包含用户信息）
      */
     public LoginResponse getUserInfoByToken(String token) {
-        // 从token中解析用户名
-        String username = jwtUtil.getUsernameFromToken(token);
-        if (username == null) {
+        // 从token中解析用户名（已注销的 Token 视为无效）
+        LoginUser loginUser = jwtUtil.parseLoginUser(token);
+        String username = loginUser.getUsername();
+        if (username == null || tokenBlocklistService.isRevoked(loginUser.getTokenId())) {
             throw new BusinessException(1002, "Token无效或已过期");
         }
 
@@ -154,15 +362,17 @@ public class UserService {
     }
 
     /**
-     * 查询所有销售员
+     * 查询所有销售员（缓存，用户角色或状态变更时失效）
      * 
      * @return 销售员列表
      */
-    public java.util.List<SysUser> getSalespersons() {
-        LambdaQueryWrapper<SysUser> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(SysUser::getRole, "SALESPERSON");
-        queryWrapper.eq(SysUser::getStatus, 1); // 只查询启用的用户
-        queryWrapper.orderByAsc(SysUser::getRealName);
-        return userMapper.selectList(queryWrapper);
+    public List<SysUser> getSalespersons() {
+        return salespersonCache.get("SALESPERSON", key -> {
+            LambdaQueryWrapper<SysUser> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(SysUser::getRole, "SALESPERSON");
+            queryWrapper.eq(SysUser::getStatus, 1); // 只查询启用的用户
+            queryWrapper.orderByAsc(SysUser::getRealName);
+            return List.copyOf(userMapper.selectList(queryWrapper));
+        });
     }
 }
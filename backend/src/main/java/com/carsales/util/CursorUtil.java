@@ -0,0 +1,126 @@
+package com.carsales.util;
+
+import com.carsales.common.CursorPage;
+import com.carsales.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具类
+ * 游标为排序键和主键拼接后的 Base64URL 编码，对客户端不透明
+ */
+public final class CursorUtil {
+
+    /**
+     * 每页最大条数
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtil() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param values 排序键（按排序顺序，最后一个为主键）
+     * @return 游标
+     */
+    public static String encode(Object... values) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (Object value : values) {
+            joiner.add(String.valueOf(value));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标
+     * @param parts  排序键个数
+     * @return 排序键字符串（由调用方解析为对应类型）
+     */
+    public static String[] decode(String cursor, int parts) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = decoded.split("\\|", -1);
+            if (values.length == parts) {
+                return values;
+            }
+        } catch (IllegalArgumentException e) {
+            // 非法 Base64，统一按格式错误处理
+        }
+        throw new BusinessException(2002, "游标格式错误");
+    }
+
+    /**
+     * 解析游标中的时间
+     */
+    public static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException(2002, "游标格式错误");
+        }
+    }
+
+    /**
+     * 解析游标中的日期
+     */
+    public static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException(2002, "游标格式错误");
+        }
+    }
+
+    /**
+     * 解析游标中的ID
+     */
+    public static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(2002, "游标格式错误");
+        }
+    }
+
+    /**
+     * 规范每页条数（1 ~ MAX_PAGE_SIZE）
+     *
+     * @param pageSize 请求的每页条数
+     * @return 实际每页条数
+     */
+    public static int limit(Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            return 10;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 根据多查询一条的结果构建游标分页
+     *
+     * @param rows      查询结果（最多 size + 1 条）
+     * @param size      每页条数
+     * @param cursorOf  由最后一条记录生成游标
+     * @return 游标分页结果
+     */
+    public static <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> records = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(records.get(records.size() - 1)) : null;
+        return new CursorPage<>(records, nextCursor, hasMore);
+    }
+}
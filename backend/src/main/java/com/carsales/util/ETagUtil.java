@@ -0,0 +1,67 @@
+package com.carsales.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+
+/**
+ * ETag 工具类
+ * 单条记录的 ETag 由主键、乐观锁版本号和 update_time 生成；
+ * 列表的 ETag 由数据版本号和查询条件摘要生成（见 DataVersionService#listETag）
+ */
+public final class ETagUtil {
+
+    /**
+     * 摘要保留的十六进制位数
+     */
+    private static final int DIGEST_HEX_LENGTH = 16;
+
+    private ETagUtil() {
+    }
+
+    /**
+     * 生成单条记录的强 ETag
+     *
+     * @param type       记录类型（如 car、customer）
+     * @param id         主键
+     * @param version    乐观锁版本号（没有版本号的表传 null）
+     * @param updateTime 更新时间
+     * @return 带引号的 ETag
+     */
+    public static String forRow(String type, Long id, Integer version, LocalDateTime updateTime) {
+        long updateMillis = updateTime == null ? 0
+                : updateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        StringBuilder tag = new StringBuilder(type).append('-').append(id);
+        if (version != null) {
+            tag.append('-').append(version);
+        }
+        tag.append('-').append(Long.toString(updateMillis, 36));
+        return quote(tag.toString());
+    }
+
+    /**
+     * 计算查询条件的摘要（SHA-256 截断）
+     *
+     * @param value 查询条件（使用 toString 的结果）
+     * @return 十六进制摘要
+     */
+    public static String digest(Object value) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash).substring(0, DIGEST_HEX_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 加上 ETag 要求的双引号
+     */
+    public static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
@@ -0,0 +1,64 @@
+package com.carsales.util;
+
+import com.carsales.exception.BusinessException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * 字段选择工具类（列表接口的 fields 参数）
+ * fields 为逗号分隔的 JSON 字段名，只能使用各实体白名单中的字段；
+ * 查询时只 SELECT 选中的列，未查询的属性为 null，由全局 non_null 配置在输出时省略
+ */
+public final class FieldSelector {
+
+    private FieldSelector() {
+    }
+
+    /**
+     * 解析 fields 参数
+     *
+     * @param fields   逗号分隔的字段名（为空表示全部字段）
+     * @param allowed  白名单
+     * @param required 必须查询的字段（如排序键、游标字段），总是加入结果
+     * @return 选中的字段，fields 为空时返回 null
+     */
+    public static Set<String> parse(String fields, Collection<String> allowed, String... required) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>(Arrays.asList(required));
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new BusinessException(2003, "不支持的字段: " + name + "，可选字段: " + String.join(",", allowed));
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    /**
+     * 拼接选中字段对应的 SQL 列（按 columns 的声明顺序）
+     *
+     * @param selected 选中的字段（null 表示全部）
+     * @param columns  字段名到 SQL 列表达式的映射（白名单）
+     * @return SELECT 列表
+     */
+    public static String columns(Set<String> selected, Map<String, String> columns) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Map.Entry<String, String> entry : columns.entrySet()) {
+            if (selected == null || selected.contains(entry.getKey())) {
+                joiner.add(entry.getValue());
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,213 @@
+package com.carsales.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮
+ * 每层 WHEEL_SIZE 个槽，第 0 层每槽一个 tick，上一层每槽覆盖下一层一整圈；
+ * 到期时间越远放在越高的层，指针走到某层槽位时把其中的任务按剩余时间重新放入低层（级联），
+ * 到第 0 层的槽位时任务到期。添加、取消均为 O(1)，推进一个 tick 只处理到期或需要级联的任务，
+ * 与在途任务总数无关。
+ *
+ * 每个键最多一个任务，重复添加会覆盖原到期时间。非线程安全方法均已同步。
+ *
+ * @param <K> 任务键（如预留记录ID）
+ */
+public class HierarchicalTimingWheel<K> {
+
+    /**
+     * 每层槽数（2 的幂）
+     */
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * 层数（tick 为 1 秒时最远约 194 天，更远的任务先放在最高层，级联时重新计算）
+     */
+    private static final int LEVELS = 4;
+
+    private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final Node<K>[][] slots;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+
+    /**
+     * 已处理到的 tick（绝对值，毫秒时间 / tickMillis）
+     */
+    private long currentTick;
+
+    /**
+     * @param tickMillis 每个 tick 的毫秒数（到期精度）
+     * @param nowMillis  当前时间（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new Node[LEVELS][WHEEL_SIZE];
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * 添加（或覆盖）任务
+     *
+     * @param key            任务键
+     * @param deadlineMillis 到期时间（毫秒，已过期的任务在下一个 tick 到期）
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        Node<K> node = nodes.get(key);
+        if (node != null) {
+            unlink(node);
+        } else {
+            node = new Node<>(key);
+            nodes.put(key, node);
+        }
+        // 向上取整，保证不会早于到期时间触发
+        node.deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(node);
+    }
+
+    /**
+     * 取消任务
+     *
+     * @param key 任务键
+     * @return true-已取消, false-任务不存在（已到期或未添加）
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * 推进到当前时间，返回期间到期的任务键（按到期顺序）
+     *
+     * @param nowMillis 当前时间（毫秒）
+     * @return 到期的任务键
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+
+            int index = (int) (currentTick & WHEEL_MASK);
+            Node<K> node = slots[0][index];
+            slots[0][index] = null;
+            while (node != null) {
+                Node<K> next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.level = -1;
+                nodes.remove(node.key);
+                expired.add(node.key);
+                node = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 在途任务数量
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 当前 tick 使低层转满一圈时，把高层对应槽位的任务重新放入低层
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            Node<K> node = slots[level][index];
+            slots[level][index] = null;
+            while (node != null) {
+                Node<K> next = node.next;
+                node.prev = null;
+                node.next = null;
+                place(node);
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * 按剩余 tick 数选择层和槽位
+     */
+    private void place(Node<K> node) {
+        long delta = node.deadlineTick - currentTick;
+        long tick = node.deadlineTick;
+        if (delta <= 0) {
+            // 已到期：放在下一个 tick 的槽位
+            tick = currentTick + 1;
+            delta = 1;
+        } else if (delta > MAX_DELTA) {
+            tick = currentTick + MAX_DELTA;
+            delta = MAX_DELTA;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int index = (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+        Node<K> head = slots[level][index];
+        node.level = level;
+        node.index = index;
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        slots[level][index] = node;
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.level < 0) {
+            return;
+        }
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            slots[node.level][node.index] = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.level = -1;
+    }
+
+    /**
+     * 槽位中的双向链表节点
+     */
+    private static final class Node<K> {
+        private final K key;
+        private long deadlineTick;
+        private int level = -1;
+        private int index;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(K key) {
+            this.key = key;
+        }
+    }
+}
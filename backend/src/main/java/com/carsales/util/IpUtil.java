@@ -0,0 +1,41 @@
+package com.carsales.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * IP 工具类
+ * 获取客户端真实 IP 地址（兼容反向代理）
+ */
+public final class IpUtil {
+
+    private IpUtil() {
+    }
+
+    /**
+     * 获取客户端 IP 地址
+     * 经过多级代理时 X-Forwarded-For 为逗号分隔列表，取第一个地址
+     *
+     * @param request HTTP 请求
+     * @return 客户端 IP
+     */
+    public static String getIpAddress(HttpServletRequest request) {
+        String ip = request.getHeader("X-Forwarded-For");
+        if (isUnknown(ip)) {
+            ip = request.getHeader("Proxy-Client-IP");
+        }
+        if (isUnknown(ip)) {
+            ip = request.getHeader("WL-Proxy-Client-IP");
+        }
+        if (isUnknown(ip)) {
+            ip = request.getRemoteAddr();
+        }
+        if (ip != null && ip.indexOf(',') > 0) {
+            ip = ip.substring(0, ip.indexOf(',')).trim();
+        }
+        return ip;
+    }
+
+    private static boolean isUnknown(String ip) {
+        return ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip);
+    }
+}
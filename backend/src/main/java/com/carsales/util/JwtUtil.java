@@ -1,20 +1,36 @@
 package com.carsales.util;
 
+import com.carsales.common.LoginUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT工具类
  * 用于生成和验证JWT Token
+ * 
+ * 已验签的 Token 按摘要缓存解析结果，相同 Token 重复请求时跳过 HMAC 校验和 JSON 解析，
+ * 缓存条目在 Token 的 exp 时间到达时自动淘汰
  */
 @Component
 public class JwtUtil {
@@ -31,6 +47,54 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
 
+    /**
+     * 已验签 Token 缓存的最大条目数
+     */
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    /**
+     * SHA-256 摘要器（MessageDigest 非线程安全，每个线程一个实例）
+     */
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    });
+
+    /**
+     * 已验签 Token 缓存：Token 摘要 -> 登录用户
+     */
+    private Cache<String, LoginUser> tokenCache;
+
+    /**
+     * 签名密钥（启动时构建一次）
+     */
+    private SecretKey key;
+
+    /**
+     * Token 解析器（线程安全，启动时构建一次）
+     */
+    private JwtParser parser;
+
+    /**
+     * 初始化签名密钥和解析器，避免每次调用都重新构建
+     */
+    @PostConstruct
+    public void init() {
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.tokenCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+    }
+
     /**
      * 生成JWT Token
      * 
@@ -48,10 +112,9 @@ public class JwtUtil {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(now)
                 .expiration(expiryDate)
@@ -66,13 +129,94 @@ public class JwtUtil {
      * @return Claims对象
      */
     public Claims parseToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return parser.parseSignedClaims(token).getPayload();
+    }
 
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * 验证Token并解析出登录用户（只做一次签名校验）
+     * 
+     * @param token JWT Token
+     * @return 登录用户
+     * @throws io.jsonwebtoken.ExpiredJwtException Token 已过期
+     * @throws io.jsonwebtoken.JwtException       Token 签名或格式无效
+     */
+    public LoginUser parseLoginUser(String token) {
+        String cacheKey = digest(token);
+        LoginUser cached = tokenCache.getIfPresent(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        // 缓存未命中：验签并解析（过期或无效时抛出异常，不会写入缓存）
+        Claims claims = parseToken(token);
+        LoginUser loginUser = new LoginUser(
+                claims.get("userId", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.getId(),
+                claims.getExpiration());
+
+        if (loginUser.getExpiration() != null) {
+            tokenCache.put(cacheKey, loginUser);
+        }
+        return loginUser;
+    }
+
+    /**
+     * 从缓存中移除指定 Token
+     * 
+     * @param token JWT Token
+     */
+    public void evictToken(String token) {
+        tokenCache.invalidate(digest(token));
+    }
+
+    /**
+     * 获取已验签 Token 缓存的统计信息
+     * 
+     * @return 命中数、未命中数、命中率、淘汰数、当前大小、最大容量
+     */
+    public Map<String, Object> getTokenCacheStats() {
+        CacheStats stats = tokenCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("size", tokenCache.estimatedSize());
+        result.put("maximumSize", cacheMaximumSize);
+        return result;
+    }
+
+    /**
+     * 计算 Token 的 SHA-256 摘要，作为缓存键（不在内存中保留原始 Token）
+     */
+    private String digest(String token) {
+        MessageDigest md = SHA256.get();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * 缓存过期策略：条目在 Token 的 exp 时间到达时过期
+     */
+    private static class TokenExpiry implements Expiry<String, LoginUser> {
+
+        @Override
+        public long expireAfterCreate(String key, LoginUser value, long currentTime) {
+            long remainingMillis = value.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LoginUser value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, LoginUser value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
     /**
@@ -82,8 +226,7 @@ public class JwtUtil {
      * @return 用户ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("userId", Long.class);
+        return parseLoginUser(token).getUserId();
     }
 
     /**
@@ -93,8 +236,7 @@ public class JwtUtil {
      * @return 用户名
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.getSubject();
+        return parseLoginUser(token).getUsername();
     }
 
     /**
@@ -104,8 +246,7 @@ public class JwtUtil {
      * @return 角色
      */
     public String getRoleFromToken(String token) {
-        Claims claims = parseToken(token);
-        return claims.get("role", String.class);
+        return parseLoginUser(token).getRole();
     }
 
     /**
@@ -116,9 +257,7 @@ public class JwtUtil {
      */
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = parseToken(token);
-            Date expiration = claims.getExpiration();
-            return expiration.before(new Date());
+            return parseLoginUser(token).isExpired();
         } catch (Exception e) {
             return true;
         }
@@ -133,8 +272,8 @@ public class JwtUtil {
      */
     public boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = getUsernameFromToken(token);
-            return tokenUsername.equals(username) && !isTokenExpired(token);
+            LoginUser loginUser = parseLoginUser(token);
+            return loginUser.getUsername().equals(username) && !loginUser.isExpired();
         } catch (Exception e) {
             return false;
         }
@@ -0,0 +1,84 @@
+package com.carsales.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * 按键限流的令牌桶
+ * 每个键一个令牌桶，桶容量决定允许的突发量，令牌按固定速率补充；
+ * 令牌桶存放在有界缓存中，长时间未访问的键自动清理
+ */
+public class TokenBucketRateLimiter {
+
+    /**
+     * 最多跟踪的键数量
+     */
+    private static final long MAXIMUM_KEYS = 100_000;
+
+    private final long capacity;
+    private final double refillPerNanos;
+    private final Cache<String, Bucket> buckets;
+
+    /**
+     * @param capacity        桶容量（允许的突发请求数）
+     * @param refillPerMinute 每分钟补充的令牌数
+     */
+    public TokenBucketRateLimiter(long capacity, long refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerNanos = refillPerMinute / (double) Duration.ofMinutes(1).toNanos();
+        // 桶从空补满所需时间之后不再访问的键可以安全丢弃（重建时即为满桶）
+        long fullRefillMinutes = Math.max(1, (capacity + refillPerMinute - 1) / Math.max(1, refillPerMinute));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_KEYS)
+                .expireAfterAccess(Duration.ofMinutes(fullRefillMinutes))
+                .build();
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key 限流键（如用户名、IP、API Key）
+     * @return true-允许, false-已超出限流
+     */
+    public boolean tryAcquire(String key) {
+        if (key == null) {
+            return true;
+        }
+        Bucket bucket = buckets.get(key, k -> new Bucket(capacity, System.nanoTime()));
+        return bucket.tryAcquire(capacity, refillPerNanos);
+    }
+
+    /**
+     * 当前跟踪的键数量
+     */
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * 单个令牌桶
+     */
+    private static final class Bucket {
+
+        private double tokens;
+        private long lastRefillNanos;
+
+        Bucket(long tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+
+        synchronized boolean tryAcquire(long capacity, double refillPerNanos) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNanos);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+}
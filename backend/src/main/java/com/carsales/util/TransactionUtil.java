@@ -0,0 +1,32 @@
+package com.carsales.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ */
+public final class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * 在当前事务提交后执行（回滚时不执行）；不在事务中时立即执行
+     * 用于同步内存索引、缓存版本等只应反映已提交数据的操作
+     *
+     * @param action 提交后执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.carsales.util;
+
+import com.carsales.common.LoginUser;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 当前请求的登录用户上下文
+ * 由 AuthInterceptor 写入请求属性，控制器、服务和切面通过此类读取，避免重复解析 Token
+ */
+public final class UserContext {
+
+    /**
+     * 请求属性名
+     */
+    public static final String LOGIN_USER_ATTRIBUTE = UserContext.class.getName() + ".LOGIN_USER";
+
+    private UserContext() {
+    }
+
+    /**
+     * 保存当前请求的登录用户
+     *
+     * @param request   HTTP 请求
+     * @param loginUser 登录用户
+     */
+    public static void set(HttpServletRequest request, LoginUser loginUser) {
+        request.setAttribute(LOGIN_USER_ATTRIBUTE, loginUser);
+    }
+
+    /**
+     * 获取当前请求的登录用户
+     *
+     * @return 登录用户，未登录或不在请求线程中时返回 null
+     */
+    public static LoginUser getCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object value = attributes.getAttribute(LOGIN_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return value instanceof LoginUser ? (LoginUser) value : null;
+    }
+
+    /**
+     * 获取当前请求的用户名
+     *
+     * @return 用户名，未登录时返回 null
+     */
+    public static String getCurrentUsername() {
+        LoginUser loginUser = getCurrentUser();
+        return loginUser != null ? loginUser.getUsername() : null;
+    }
+}
@@ -4,6 +4,8 @@
 -- ============================================================================
 
 -- 删除已存在的表（按依赖关系逆序删除）
+DROP TABLE IF EXISTS car_import_job;
+DROP TABLE IF EXISTS car_reservation;
 DROP TABLE IF EXISTS sales_order;
 DROP TABLE IF EXISTS customer;
 DROP TABLE IF EXISTS car_info;
@@ -38,6 +40,7 @@ CREATE TABLE car_info (
     price DECIMAL(12, 2) NOT NULL CHECK (price > 0),
     status INTEGER DEFAULT 0 CHECK (status IN (0, 1, 2)),
     purchase_date DATE,
+    version INTEGER NOT NULL DEFAULT 0,
     create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
     update_time DATETIME DEFAULT CURRENT_TIMESTAMP
 );
@@ -79,6 +82,76 @@ CREATE TABLE sales_order (
     FOREIGN KEY (car_id) REFERENCES car_info(id) ON DELETE RESTRICT ON UPDATE CASCADE
 );
 
+-- ----------------------------------------------------------------------------
+-- 5. sys_token_revocation 表（Token 注销表）
+-- 不随启动重建，保证重启后已注销的 Token 仍然无效
+-- ----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS sys_token_revocation (
+    id INTEGER PRIMARY KEY,
+    token_id VARCHAR(64) NOT NULL UNIQUE,
+    username VARCHAR(50),
+    expire_time DATETIME NOT NULL,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ----------------------------------------------------------------------------
+-- 6. sys_api_key 表（API Key 表）
+-- 不随启动重建，保证已发放的 Key 重启后仍然有效
+-- ----------------------------------------------------------------------------
+CREATE TABLE IF NOT EXISTS sys_api_key (
+    id INTEGER PRIMARY KEY,
+    name VARCHAR(50) NOT NULL,
+    key_prefix VARCHAR(20) NOT NULL,
+    key_hash VARCHAR(64) NOT NULL UNIQUE,
+    role VARCHAR(20) NOT NULL CHECK (role = 'SALESPERSON'),
+    rate_limit INTEGER NOT NULL DEFAULT 60 CHECK (rate_limit > 0),
+    status INTEGER DEFAULT 1 CHECK (status IN (0, 1)),
+    usage_count INTEGER DEFAULT 0,
+    last_used_time DATETIME,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ----------------------------------------------------------------------------
+-- 7. car_reservation 表（车辆预留表）
+-- ----------------------------------------------------------------------------
+CREATE TABLE car_reservation (
+    id INTEGER PRIMARY KEY,
+    car_id INTEGER NOT NULL,
+    sales_user_id INTEGER NOT NULL,
+    customer_id INTEGER,
+    expire_time DATETIME NOT NULL,
+    status INTEGER DEFAULT 0 CHECK (status IN (0, 1, 2, 3)),
+    remark VARCHAR(200),
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+
+    FOREIGN KEY (car_id) REFERENCES car_info(id) ON DELETE CASCADE ON UPDATE CASCADE,
+    FOREIGN KEY (sales_user_id) REFERENCES sys_user(id) ON DELETE RESTRICT ON UPDATE CASCADE
+);
+
+-- ----------------------------------------------------------------------------
+-- 8. car_import_job 表（车辆导入任务表）
+-- ----------------------------------------------------------------------------
+CREATE TABLE car_import_job (
+    id INTEGER PRIMARY KEY,
+    file_name VARCHAR(255),
+    status INTEGER DEFAULT 0 CHECK (status IN (0, 1, 2, 3, 4)),
+    commit_mode INTEGER DEFAULT 0 CHECK (commit_mode IN (0, 1)),
+    read_count INTEGER DEFAULT 0,
+    valid_count INTEGER DEFAULT 0,
+    inserted_count INTEGER DEFAULT 0,
+    failed_count INTEGER DEFAULT 0,
+    message TEXT,
+    error_file VARCHAR(255),
+    created_by INTEGER,
+    start_time DATETIME,
+    finish_time DATETIME,
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
 -- ============================================================================
 -- 创建索引
 -- ============================================================================
@@ -91,10 +164,12 @@ CREATE INDEX idx_car_vin ON car_info(vin);
 CREATE INDEX idx_car_brand ON car_info(brand);
 CREATE INDEX idx_car_status ON car_info(status);
 CREATE INDEX idx_car_price ON car_info(price);
+CREATE INDEX idx_car_create_id ON car_info(create_time, id);
 
 -- customer 表索引
 CREATE INDEX idx_customer_phone ON customer(phone);
 CREATE INDEX idx_customer_name ON customer(name);
+CREATE INDEX idx_customer_create_id ON customer(create_time, id);
 
 -- sales_order 表索引
 CREATE INDEX idx_order_sales_user ON sales_order(sales_user_id);
@@ -102,6 +177,16 @@ CREATE INDEX idx_order_customer ON sales_order(customer_id);
 CREATE INDEX idx_order_car ON sales_order(car_id);
 CREATE INDEX idx_order_date ON sales_order(order_date);
 CREATE INDEX idx_order_no ON sales_order(order_no);
+CREATE INDEX idx_order_date_create_id ON sales_order(order_date, create_time, id);
+
+-- car_reservation 表索引
+CREATE INDEX idx_reservation_status_car ON car_reservation(status, car_id);
+
+-- car_import_job 表索引
+CREATE INDEX idx_import_job_create ON car_import_job(create_time);
+
+CREATE INDEX IF NOT EXISTS idx_token_revocation_expire ON sys_token_revocation(expire_time);
+CREATE INDEX IF NOT EXISTS idx_token_revocation_create ON sys_token_revocation(create_time);
 
 -- ============================================================================
 -- 创建视图
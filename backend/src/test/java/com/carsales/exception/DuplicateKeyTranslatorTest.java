@@ -0,0 +1,52 @@
+package com.carsales.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 唯一约束冲突转换器测试
+ */
+@DisplayName("唯一约束冲突转换器测试")
+class DuplicateKeyTranslatorTest {
+
+    @Test
+    @DisplayName("测试 SQLite 唯一约束冲突转换")
+    void testSqliteMessages() {
+        DataIntegrityViolationException vin = new DataIntegrityViolationException("insert failed",
+                new SQLException("[SQLITE_CONSTRAINT_UNIQUE] A UNIQUE constraint failed (UNIQUE constraint failed: car_info.vin)"));
+        BusinessException vinException = DuplicateKeyTranslator.toBusinessException(vin);
+        assertThat(vinException.getCode()).isEqualTo(3004);
+        assertThat(vinException.getMessage()).isEqualTo("车架号已存在");
+
+        BusinessException idCard = DuplicateKeyTranslator.toBusinessException(
+                new SQLException("UNIQUE constraint failed: customer.id_card"));
+        assertThat(idCard.getCode()).isEqualTo(3003);
+        assertThat(idCard.getMessage()).isEqualTo("身份证号已存在");
+    }
+
+    @Test
+    @DisplayName("测试 PostgreSQL 唯一约束冲突转换")
+    void testPostgresMessages() {
+        DuplicateKeyException phone = new DuplicateKeyException("update failed", new SQLException(
+                "ERROR: duplicate key value violates unique constraint \"customer_phone_key\"\n"
+                        + "  Detail: Key (phone)=(13800138000) already exists."));
+        BusinessException phoneException = DuplicateKeyTranslator.toBusinessException(phone);
+        assertThat(phoneException.getCode()).isEqualTo(3003);
+        assertThat(phoneException.getMessage()).isEqualTo("手机号已存在");
+    }
+
+    @Test
+    @DisplayName("测试其他约束冲突原样返回")
+    void testOtherViolationsUnchanged() {
+        DataIntegrityViolationException check = new DataIntegrityViolationException("insert failed",
+                new SQLException("CHECK constraint failed: price > 0"));
+        assertThat(DuplicateKeyTranslator.toBusinessException(check)).isNull();
+        assertThat(DuplicateKeyTranslator.translate(check)).isSameAs(check);
+    }
+}
@@ -0,0 +1,216 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.carsales.common.LoginUser;
+import com.carsales.dto.ApiKeyCreateRequest;
+import com.carsales.dto.ApiKeyCreateResponse;
+import com.carsales.entity.ApiKey;
+import com.carsales.exception.BusinessException;
+import com.carsales.mapper.ApiKeyMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * API Key 服务测试类
+ * 测试哈希存储、认证查找、禁用、限流和调用次数回写
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("API Key 服务测试")
+class ApiKeyServiceTest {
+
+    @Mock
+    private ApiKeyMapper apiKeyMapper;
+
+    @InjectMocks
+    private ApiKeyService apiKeyService;
+
+    /**
+     * 模拟数据库中的 Key
+     */
+    private final List<ApiKey> stored = new ArrayList<>();
+
+    @BeforeAll
+    static void initTableInfo() {
+        // 回写调用次数时 LambdaUpdateWrapper#set 立即解析列名，需要实体的表信息缓存
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), ApiKey.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(apiKeyService, "secret", "test-api-key-secret");
+        apiKeyService.init();
+    }
+
+    @Test
+    @DisplayName("测试创建 Key 只保存哈希，明文 Key 可以认证")
+    void testCreateStoresHashAndAuthenticates() {
+        // Given
+        mockStorage();
+
+        // When
+        ApiKeyCreateResponse response = apiKeyService.createApiKey(createRequest("dms", 60));
+
+        // Then
+        String rawKey = response.getApiKey();
+        ApiKey saved = stored.get(0);
+        assertThat(rawKey).startsWith("csk_");
+        assertThat(saved.getKeyHash()).hasSize(64).isEqualTo(apiKeyService.hash(rawKey)).isNotEqualTo(rawKey);
+        assertThat(rawKey).startsWith(saved.getKeyPrefix());
+
+        LoginUser principal = apiKeyService.authenticate(rawKey);
+        assertThat(principal).isNotNull();
+        assertThat(principal.isApiKey()).isTrue();
+        assertThat(principal.getRole()).isEqualTo("SALESPERSON");
+        assertThat(principal.getUsername()).isEqualTo("apikey:dms");
+        assertThat(apiKeyService.authenticate(rawKey + "x")).isNull();
+    }
+
+    @Test
+    @DisplayName("测试不能创建管理员角色的 Key")
+    void testCreateAdminKeyRejected() {
+        ApiKeyCreateRequest request = createRequest("dms", 60);
+        request.setRole("ADMIN");
+
+        assertThatThrownBy(() -> apiKeyService.createApiKey(request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("SALESPERSON");
+        verifyNoInteractions(apiKeyMapper);
+    }
+
+    @Test
+    @DisplayName("测试数据库中已有的管理员 Key 不加载")
+    void testLegacyAdminKeyIgnored() {
+        ApiKey legacy = new ApiKey();
+        legacy.setId(1L);
+        legacy.setName("legacy");
+        legacy.setKeyHash(apiKeyService.hash("csk_legacy"));
+        legacy.setRole("ADMIN");
+        legacy.setRateLimit(60);
+        legacy.setStatus(1);
+        when(apiKeyMapper.selectList(any())).thenReturn(List.of(legacy));
+
+        apiKeyService.reload();
+
+        assertThat(apiKeyService.authenticate("csk_legacy")).isNull();
+    }
+
+    @Test
+    @DisplayName("测试禁用后立即不能认证")
+    void testRevokedKeyRejected() {
+        // Given
+        mockStorage();
+        String rawKey = apiKeyService.createApiKey(createRequest("dms", 60)).getApiKey();
+        assertThat(apiKeyService.authenticate(rawKey)).isNotNull();
+        when(apiKeyMapper.updateById(any(ApiKey.class))).thenAnswer(invocation -> {
+            stored.get(0).setStatus(invocation.<ApiKey>getArgument(0).getStatus());
+            return 1;
+        });
+
+        // When
+        apiKeyService.updateStatus(stored.get(0).getId(), 0);
+
+        // Then
+        assertThat(apiKeyService.authenticate(rawKey)).isNull();
+    }
+
+    @Test
+    @DisplayName("测试每个 Key 独立限流")
+    void testPerKeyRateLimit() {
+        // Given: 两个 Key，每分钟各 2 次
+        mockStorage();
+        String first = apiKeyService.createApiKey(createRequest("first", 2)).getApiKey();
+        String second = apiKeyService.createApiKey(createRequest("second", 2)).getApiKey();
+
+        // When
+        apiKeyService.authenticate(first);
+        apiKeyService.authenticate(first);
+
+        // Then
+        assertThatThrownBy(() -> apiKeyService.authenticate(first))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("API 调用过于频繁");
+        assertThat(apiKeyService.authenticate(second)).isNotNull();
+        assertThat(apiKeyService.getStats().get("throttledCount")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("测试调用次数批量回写")
+    @SuppressWarnings("unchecked")
+    void testUsageFlush() {
+        // Given
+        mockStorage();
+        String rawKey = apiKeyService.createApiKey(createRequest("dms", 60)).getApiKey();
+        for (int i = 0; i < 3; i++) {
+            apiKeyService.authenticate(rawKey);
+        }
+
+        // When
+        apiKeyService.flushUsage();
+        apiKeyService.flushUsage();
+
+        // Then: 只回写一次，增量为 3
+        ArgumentCaptor<LambdaUpdateWrapper<ApiKey>> captor = ArgumentCaptor.forClass(LambdaUpdateWrapper.class);
+        verify(apiKeyMapper, times(1)).update(isNull(), captor.capture());
+        assertThat(captor.getValue().getSqlSet()).contains("usage_count = COALESCE(usage_count, 0) + 3");
+    }
+
+    @Test
+    @DisplayName("测试回写失败时调用次数保留")
+    void testUsageFlushRetainedOnFailure() {
+        // Given
+        mockStorage();
+        String rawKey = apiKeyService.createApiKey(createRequest("dms", 60)).getApiKey();
+        apiKeyService.authenticate(rawKey);
+        apiKeyService.authenticate(rawKey);
+        when(apiKeyMapper.update(isNull(), any())).thenThrow(new RuntimeException("db down")).thenReturn(1);
+
+        // When
+        apiKeyService.flushUsage();
+
+        // Then: 列表中的调用次数包含未回写的部分，下次回写重试
+        assertThat(apiKeyService.listApiKeys().get(0).getUsageCount()).isEqualTo(2L);
+        apiKeyService.flushUsage();
+        verify(apiKeyMapper, times(2)).update(isNull(), any());
+    }
+
+    /**
+     * 插入时记录到 stored，重新加载时返回启用的 Key
+     */
+    private void mockStorage() {
+        when(apiKeyMapper.insert(any(ApiKey.class))).thenAnswer(invocation -> {
+            ApiKey apiKey = invocation.getArgument(0);
+            apiKey.setId((long) stored.size() + 1);
+            stored.add(apiKey);
+            return 1;
+        });
+        when(apiKeyMapper.selectList(any())).thenAnswer(invocation ->
+                stored.stream().filter(apiKey -> apiKey.getStatus() == 1).toList());
+    }
+
+    private static ApiKeyCreateRequest createRequest(String name, int rateLimit) {
+        ApiKeyCreateRequest request = new ApiKeyCreateRequest();
+        request.setName(name);
+        request.setRole("SALESPERSON");
+        request.setRateLimit(rateLimit);
+        return request;
+    }
+}
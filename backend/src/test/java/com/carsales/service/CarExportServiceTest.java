@@ -0,0 +1,199 @@
+package com.carsales.service;
+
+import com.carsales.dto.CarQueryRequest;
+import com.carsales.entity.CarInfo;
+import com.carsales.exception.BusinessException;
+import com.carsales.exception.ExportAbortedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 车辆文本格式导出服务测试类
+ * 测试 CSV 转义、NDJSON 分行、导出并发上限和最长时间
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("车辆文本格式导出服务测试")
+class CarExportServiceTest {
+
+    @Mock
+    private CarService carService;
+
+    private CarExportService carExportService;
+
+    @BeforeEach
+    void setUp() {
+        carExportService = new CarExportService(carService, new ObjectMapper().registerModule(new JavaTimeModule()));
+        carExportService.init();
+    }
+
+    private void mockCars() {
+        List<CarInfo> cars = List.of(
+                car(1L, "LSVNV2182E2000001", "宝马", "X5, M \"运动\"版"),
+                car(2L, "LSVNV2182E2000002", "奥迪", "A6L"));
+        when(carService.exportCars(any(), any())).thenAnswer(invocation -> {
+            Consumer<List<CarInfo>> pageWriter = invocation.getArgument(1);
+            pageWriter.accept(cars);
+            return cars.size();
+        });
+    }
+
+    @Test
+    @DisplayName("测试 CSV 导出列名和转义")
+    void testWriteCsv() throws Exception {
+        mockCars();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int total = carExportService.writeCsv(new CarQueryRequest(), out);
+
+        assertThat(total).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "id,vin,brand,model,color,year,price,status,purchaseDate,createTime,updateTime",
+                "1,LSVNV2182E2000001,宝马,\"X5, M \"\"运动\"\"版\",,,300000.00,0,,2024-01-01 10:00:00,",
+                "2,LSVNV2182E2000002,奥迪,A6L,,,300000.00,0,,2024-01-01 10:00:00,");
+    }
+
+    @Test
+    @DisplayName("测试 NDJSON 每行一个对象")
+    void testWriteNdjson() throws Exception {
+        mockCars();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int total = carExportService.writeNdjson(new CarQueryRequest(), out);
+
+        assertThat(total).isEqualTo(2);
+        String content = out.toString(StandardCharsets.UTF_8);
+        assertThat(content).endsWith("\n");
+        String[] lines = content.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{").contains("\"vin\":\"LSVNV2182E2000001\"");
+        assertThat(lines[1]).startsWith("{").contains("\"brand\":\"奥迪\"");
+    }
+
+    @Test
+    @DisplayName("测试导出格式校验")
+    void testParseFormat() {
+        assertThat(CarExportService.parseFormat(null)).isEqualTo("xlsx");
+        assertThat(CarExportService.parseFormat("CSV")).isEqualTo("csv");
+        assertThatThrownBy(() -> CarExportService.parseFormat("xml"))
+                .isInstanceOf(BusinessException.class);
+        verifyNoInteractions(carService);
+    }
+
+    @Test
+    @DisplayName("测试同时导出数达到上限时拒绝，写完后归还名额")
+    void testGuardLimitsConcurrentExports() throws Exception {
+        StreamingResponseBody first = carExportService.guard("csv", webRequest(), out -> out.write('a'));
+        StreamingResponseBody second = carExportService.guard("csv", webRequest(), out -> out.write('b'));
+
+        // 默认上限 2，第三个导出在写出前被拒绝
+        assertThatThrownBy(() -> carExportService.guard("csv", webRequest(), out -> out.write('c')))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(5007);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        first.writeTo(out);
+        second.writeTo(out);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("ab");
+        assertThat(carExportService.guard("csv", webRequest(), o -> o.write('c'))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("测试写出失败时中断导出并归还名额")
+    void testGuardAbortsOnFailure() {
+        ReflectionTestUtils.setField(carExportService, "maxConcurrent", 1);
+        carExportService.init();
+        StreamingResponseBody failing = carExportService.guard("csv", webRequest(), out -> {
+            out.write('a');
+            throw new IllegalStateException("db down");
+        });
+
+        assertThatThrownBy(() -> failing.writeTo(new ByteArrayOutputStream()))
+                .isInstanceOf(ExportAbortedException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(carExportService.guard("csv", webRequest(), out -> out.write('b'))).isNotNull();
+    }
+
+    @Test
+    @DisplayName("测试写出前请求已结束时归还名额且只归还一次")
+    void testGuardReleasesWhenRequestEndsBeforeWrite() throws Exception {
+        ReflectionTestUtils.setField(carExportService, "maxConcurrent", 1);
+        carExportService.init();
+        ServletWebRequest timedOut = webRequest();
+        StreamingResponseBody never = carExportService.guard("csv", timedOut, out -> out.write('a'));
+
+        // 异步超时或客户端断开：写出线程尚未执行，请求结束回调归还名额
+        afterCompletion(timedOut);
+        afterCompletion(timedOut);
+        ServletWebRequest next = webRequest();
+        StreamingResponseBody body = carExportService.guard("csv", next, out -> out.write('b'));
+
+        // 迟到的写出不再执行，也不再归还名额
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThatThrownBy(() -> never.writeTo(out))
+                .isInstanceOf(ExportAbortedException.class)
+                .hasMessageContaining("导出请求已结束");
+        body.writeTo(out);
+        afterCompletion(next);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("b");
+        assertThat(carExportService.guard("csv", webRequest(), o -> o.write('c'))).isNotNull();
+        assertThatThrownBy(() -> carExportService.guard("csv", webRequest(), o -> o.write('d')))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(5007);
+    }
+
+    @Test
+    @DisplayName("测试超过最长时间时在写出下一页前中断")
+    void testExportAbortedAfterMaxDuration() {
+        // 最长时间设为已过期，第一页写出前即中断
+        ReflectionTestUtils.setField(carExportService, "maxDurationSeconds", -1L);
+        mockCars();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> carExportService.writeCsv(new CarQueryRequest(), out))
+                .isInstanceOf(ExportAbortedException.class)
+                .hasMessageContaining("导出超过最长时间");
+    }
+
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+    private static void afterCompletion(ServletWebRequest webRequest) throws Exception {
+        WebAsyncUtils.getAsyncManager(webRequest).getCallableInterceptor(CarExportService.class.getName())
+                .afterCompletion(webRequest, null);
+    }
+
+    private CarInfo car(Long id, String vin, String brand, String model) {
+        CarInfo car = new CarInfo();
+        car.setId(id);
+        car.setVin(vin);
+        car.setBrand(brand);
+        car.setModel(model);
+        car.setPrice(new BigDecimal("300000.00"));
+        car.setStatus(0);
+        car.setCreateTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        return car;
+    }
+}
@@ -0,0 +1,152 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.carsales.dto.CarFacetsVO;
+import com.carsales.dto.CarQueryRequest;
+import com.carsales.entity.CarInfo;
+import com.carsales.mapper.CarMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 车辆分面统计服务测试类
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("车辆分面统计服务测试")
+class CarFacetServiceTest {
+
+    @Mock
+    private CarMapper carMapper;
+
+    private DataVersionService dataVersionService;
+    private CarFacetService carFacetService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CarInfo.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService = new DataVersionService();
+        CarInventoryIndex index = new CarInventoryIndex(carMapper, dataVersionService);
+        ReflectionTestUtils.setField(index, "enabled", true);
+
+        when(carMapper.selectList(any())).thenReturn(List.of(
+                car(1L, "Toyota", "150000", 0, 2022),
+                car(2L, "BMW", "380000", 0, 2023),
+                car(3L, "Toyota", "220000", 2, 2023),
+                car(4L, "BMW", "420000", 1, 2024),
+                car(5L, "Toyota", "180000", 0, 2024)));
+        index.rebuild();
+
+        carFacetService = new CarFacetService(carMapper, index, dataVersionService);
+    }
+
+    @Test
+    @DisplayName("测试分面统计不应用自身的筛选条件")
+    void testFacetsExcludeOwnFilter() {
+        CarQueryRequest request = new CarQueryRequest();
+        request.setBrand("Toyota");
+        request.setStatus(0);
+
+        CarFacetsVO facets = carFacetService.getFacets(request);
+
+        assertThat(facets.getTotal()).isEqualTo(2);
+        // 品牌分面只应用状态条件：在库的 Toyota 2 辆、BMW 1 辆
+        assertThat(facets.getBrands()).extracting(CarFacetsVO.FacetCount::getValue, CarFacetsVO.FacetCount::getCount)
+                .containsExactly(tuple("Toyota", 2L), tuple("BMW", 1L));
+        // 状态分面只应用品牌条件：Toyota 在库 2 辆、已售 1 辆
+        assertThat(facets.getStatuses()).extracting(CarFacetsVO.FacetCount::getLabel, CarFacetsVO.FacetCount::getCount)
+                .containsExactly(tuple("在库", 2L), tuple("已售", 1L));
+        // 价格区间：在库的 Toyota 都在 10-20 万
+        assertThat(facets.getPriceRanges().get(1).getCount()).isEqualTo(2);
+        // 年份分面应用全部条件
+        assertThat(facets.getYears()).extracting(CarFacetsVO.FacetCount::getValue)
+                .containsExactly("2024", "2022");
+    }
+
+    @Test
+    @DisplayName("测试统计结果缓存到下次库存写入")
+    void testFacetsCachedUntilWrite() {
+        CarQueryRequest request = new CarQueryRequest();
+
+        CarFacetsVO first = carFacetService.getFacets(request);
+        assertThat(carFacetService.getFacets(request)).isSameAs(first);
+
+        dataVersionService.bump(DataVersionService.CAR_INFO);
+        assertThat(carFacetService.getFacets(request)).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("测试索引不可用时按分面分组计数")
+    @SuppressWarnings("unchecked")
+    void testFacetsFromGroupedCounts() {
+        // Given: 索引未加载，数据库按分面返回分组计数
+        CarFacetService fallback = new CarFacetService(carMapper,
+                new CarInventoryIndex(carMapper, dataVersionService), dataVersionService);
+        when(carMapper.selectMaps(any())).thenReturn(
+                List.of(group("Toyota", 2), group("BMW", 1)),
+                List.of(group(0, 2), group(2, 1)),
+                List.of(group(1, 2)),
+                List.of(group(2024, 1), group(2022, 1)));
+        CarQueryRequest request = new CarQueryRequest();
+        request.setBrand("Toyota");
+        request.setStatus(0);
+
+        // When
+        CarFacetsVO facets = fallback.getFacets(request);
+
+        // Then: 结果与遍历索引一致，且不读取车辆明细
+        assertThat(facets.getTotal()).isEqualTo(2);
+        assertThat(facets.getBrands()).extracting(CarFacetsVO.FacetCount::getValue, CarFacetsVO.FacetCount::getCount)
+                .containsExactly(tuple("Toyota", 2L), tuple("BMW", 1L));
+        assertThat(facets.getStatuses()).extracting(CarFacetsVO.FacetCount::getLabel, CarFacetsVO.FacetCount::getCount)
+                .containsExactly(tuple("在库", 2L), tuple("已售", 1L));
+        assertThat(facets.getPriceRanges().get(1).getCount()).isEqualTo(2);
+        assertThat(facets.getYears()).extracting(CarFacetsVO.FacetCount::getValue)
+                .containsExactly("2024", "2022");
+
+        ArgumentCaptor<QueryWrapper<CarInfo>> captor = ArgumentCaptor.forClass(QueryWrapper.class);
+        verify(carMapper, times(4)).selectMaps(captor.capture());
+        QueryWrapper<CarInfo> brandQuery = captor.getAllValues().get(0);
+        assertThat(brandQuery.getSqlSelect()).contains("COUNT(*)");
+        assertThat(brandQuery.getCustomSqlSegment()).contains("status").contains("GROUP BY brand").doesNotContain("brand =");
+        // setUp 中加载索引时的一次查询
+        verify(carMapper, times(1)).selectList(any());
+    }
+
+    private static Map<String, Object> group(Object value, long count) {
+        return Map.of("facet_value", value, "facet_count", count);
+    }
+
+    private CarInfo car(Long id, String brand, String price, int status, int year) {
+        CarInfo car = new CarInfo();
+        car.setId(id);
+        car.setBrand(brand);
+        car.setPrice(new BigDecimal(price));
+        car.setStatus(status);
+        car.setYear(year);
+        car.setCreateTime(LocalDateTime.of(2024, 1, 1, 10, 0).plusMinutes(id));
+        return car;
+    }
+}
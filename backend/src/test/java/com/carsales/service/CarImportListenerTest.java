@@ -0,0 +1,193 @@
+package com.carsales.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.carsales.dto.CarImportDTO;
+import com.carsales.dto.CarImportErrorDTO;
+import com.carsales.entity.CarInfo;
+import com.carsales.mapper.CarMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 车辆导入监听器测试类
+ * 使用内存中生成的 Excel 测试分块写入和错误收集
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("车辆导入监听器测试")
+class CarImportListenerTest {
+
+    @Mock
+    private CarMapper carMapper;
+
+    @Mock
+    private CarInventoryIndex carInventoryIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CarInfo.class);
+    }
+
+    @Test
+    @DisplayName("测试按分块写入全部有效行")
+    void testImportInChunks() {
+        // Given
+        List<CarImportDTO> rows = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            rows.add(row("LSVNV2182E200000" + i, "BMW", "X" + i, "300000"));
+        }
+        CarImportListener listener = new CarImportListener(carMapper, carInventoryIndex, 2);
+
+        // When
+        read(rows, listener);
+
+        // Then
+        assertThat(listener.hasErrors()).isFalse();
+        assertThat(listener.getReadCount()).isEqualTo(5);
+        assertThat(listener.getSuccessCount()).isEqualTo(5);
+        assertThat(listener.getChunkCount()).isEqualTo(3);
+        verify(carMapper, times(2)).insert(argThat((Collection<CarInfo> cars) -> cars.size() == 2), eq(2));
+        verify(carMapper, times(1)).insert(argThat((Collection<CarInfo> cars) -> cars.size() == 1), eq(1));
+        verify(carMapper, never()).insert(any(CarInfo.class));
+        verify(carInventoryIndex, times(3)).upsertAfterCommit(anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试出现错误后只校验不写入并报告行号")
+    void testStopWritingAfterError() {
+        // Given
+        List<CarImportDTO> rows = List.of(
+                row("LSVNV2182E2000001", "BMW", "X1", "300000"),
+                row("LSVNV2182E2000002", "", "X2", "300000"),
+                row("LSVNV2182E2000003", "BMW", "X3", "0"),
+                row("LSVNV2182E2000004", "BMW", "X4", "300000"));
+        CarImportListener listener = new CarImportListener(carMapper, carInventoryIndex, 10);
+
+        // When
+        read(rows, listener);
+
+        // Then
+        assertThat(listener.getFailCount()).isEqualTo(2);
+        assertThat(listener.getErrors()).containsExactly("第3行：品牌不能为空", "第4行：价格必须大于0");
+        assertThat(listener.getSuccessCount()).isZero();
+        verify(carMapper, never()).insert(anyCollection(), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试文件内重复和数据库已存在的 VIN 报告行号")
+    void testDuplicateVins() {
+        // Given
+        List<CarImportDTO> rows = List.of(
+                row("LSVNV2182E2000001", "BMW", "X1", "300000"),
+                row("LSVNV2182E2000002", "BMW", "X2", "300000"),
+                row("LSVNV2182E2000001", "BMW", "X3", "300000"),
+                row("LSVNV2182E2000009", "BMW", "X4", "300000"));
+        doReturn(List.of("LSVNV2182E2000009")).when(carMapper).selectObjs(any());
+        CarImportListener listener = new CarImportListener(carMapper, carInventoryIndex, 10);
+
+        // When
+        read(rows, listener);
+
+        // Then：整块只查询一次数据库
+        assertThat(listener.getErrors()).containsExactly(
+                "第4行：车架号 LSVNV2182E2000001 与第2行重复",
+                "第5行：车架号 LSVNV2182E2000009 已存在");
+        verify(carMapper, times(1)).selectObjs(any());
+        verify(carMapper, never()).insert(anyCollection(), anyInt());
+    }
+
+    @Test
+    @DisplayName("测试分块提交模式跳过失败的行并生成错误文件")
+    void testChunkedCommitWithErrorFile(@TempDir Path tempDir) {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<TransactionStatus> callback = invocation.getArgument(0);
+            callback.accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        List<CarImportDTO> rows = List.of(
+                row("LSVNV2182E2000001", "BMW", "X1", "300000"),
+                row("LSVNV2182E2000002", "", "X2", "300000"),
+                row("LSVNV2182E2000003", "BMW", "X3", "300000"),
+                row("LSVNV2182E2000004", "BMW", "X4", "300000"));
+        CarImportErrorWriter errorWriter = new CarImportErrorWriter(tempDir.resolve("errors.xlsx"));
+        CarImportListener listener = new CarImportListener(carMapper, carInventoryIndex, 2,
+                transactionTemplate, errorWriter);
+
+        // When
+        read(rows, listener);
+        Path errorFile = errorWriter.finish();
+
+        // Then：有效行每块在独立事务中写入
+        assertThat(listener.getSuccessCount()).isEqualTo(3);
+        assertThat(listener.getFailCount()).isEqualTo(1);
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(carMapper, times(1)).insert(argThat((Collection<CarInfo> cars) -> cars.size() == 2), eq(2));
+        verify(carMapper, times(1)).insert(argThat((Collection<CarInfo> cars) -> cars.size() == 1), eq(1));
+
+        // 错误文件保留原数据、原行号和错误原因
+        assertThat(errorFile).isNotNull();
+        List<CarImportErrorDTO> errorRows = EasyExcel.read(errorFile.toFile())
+                .head(CarImportErrorDTO.class).sheet().doReadSync();
+        assertThat(errorRows).hasSize(1);
+        assertThat(errorRows.get(0).getVin()).isEqualTo("LSVNV2182E2000002");
+        assertThat(errorRows.get(0).getRowNum()).isEqualTo(3);
+        assertThat(errorRows.get(0).getReason()).isEqualTo("品牌不能为空");
+    }
+
+    @Test
+    @DisplayName("测试没有错误时不生成错误文件")
+    void testNoErrorFileWithoutErrors(@TempDir Path tempDir) {
+        CarImportErrorWriter errorWriter = new CarImportErrorWriter(tempDir.resolve("errors.xlsx"));
+        CarImportListener listener = new CarImportListener(carMapper, carInventoryIndex, 10, null, errorWriter);
+
+        read(List.of(row("LSVNV2182E2000001", "BMW", "X1", "300000")), listener);
+
+        assertThat(errorWriter.finish()).isNull();
+        assertThat(tempDir.resolve("errors.xlsx")).doesNotExist();
+    }
+
+    private static void read(List<CarImportDTO> rows, CarImportListener listener) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EasyExcel.write(out, CarImportDTO.class).sheet("车辆").doWrite(rows);
+        EasyExcel.read(new ByteArrayInputStream(out.toByteArray()), CarImportDTO.class, listener).sheet().doRead();
+    }
+
+    private static CarImportDTO row(String vin, String brand, String model, String price) {
+        CarImportDTO dto = new CarImportDTO();
+        dto.setVin(vin);
+        dto.setBrand(brand);
+        dto.setModel(model);
+        dto.setPrice(new BigDecimal(price));
+        return dto;
+    }
+}
@@ -0,0 +1,186 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.carsales.common.LoginUser;
+import com.carsales.entity.CarImportJob;
+import com.carsales.exception.BusinessException;
+import com.carsales.mapper.CarImportJobMapper;
+import com.carsales.mapper.CarMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * 车辆导入服务测试类
+ * 测试导入队列满时拒绝提交、排队中和导入中任务的取消
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("车辆导入服务测试")
+class CarImportServiceTest {
+
+    @Mock
+    private CarImportJobMapper jobMapper;
+
+    @Mock
+    private CarMapper carMapper;
+
+    @Mock
+    private CarInventoryIndex carInventoryIndex;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CarImportService carImportService;
+
+    @TempDir
+    Path errorDir;
+
+    private final LoginUser admin = new LoginUser(1L, "admin", "ADMIN", null, null);
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaUpdateWrapper#set 立即解析列名，需要实体的表信息缓存
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CarImportJob.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 1 个线程 + 1 个排队位置
+        ReflectionTestUtils.setField(carImportService, "poolSize", 1);
+        ReflectionTestUtils.setField(carImportService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(carImportService, "chunkSize", 1000);
+        ReflectionTestUtils.setField(carImportService, "errorDir", errorDir.toString());
+        carImportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        carImportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("测试导入队列已满时拒绝提交")
+    void testSubmitRejectedWhenQueueFull() throws InterruptedException {
+        // Given: 第一个任务占住导入线程，第二个任务占住排队位置
+        AtomicLong ids = new AtomicLong();
+        when(jobMapper.insert(any(CarImportJob.class))).thenAnswer(invocation -> {
+            invocation.<CarImportJob>getArgument(0).setId(ids.incrementAndGet());
+            return 1;
+        });
+        CountDownLatch workerStarted = new CountDownLatch(1);
+        CountDownLatch releaseWorker = new CountDownLatch(1);
+        when(jobMapper.update(isNull(), any())).thenAnswer(invocation -> {
+            workerStarted.countDown();
+            releaseWorker.await(5, TimeUnit.SECONDS);
+            // 按"排队期间已取消"处理，任务直接结束
+            return 0;
+        });
+
+        try {
+            carImportService.submit(excel(), null, admin);
+            assertThat(workerStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            carImportService.submit(excel(), "chunked", admin);
+
+            // When & Then
+            assertThatThrownBy(() -> carImportService.submit(excel(), null, admin))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("导入任务过多")
+                    .extracting("code").isEqualTo(5005);
+            verify(jobMapper, times(1)).deleteById(3L);
+            assertThat(carImportService.getStats().get("queueSize")).isEqualTo(1);
+        } finally {
+            releaseWorker.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("测试提交不支持的导入模式")
+    void testSubmitInvalidMode() {
+        assertThatThrownBy(() -> carImportService.submit(excel(), "parallel", admin))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("导入模式只能是 atomic 或 chunked");
+        verifyNoInteractions(jobMapper);
+    }
+
+    @Test
+    @DisplayName("测试取消排队中的任务")
+    void testCancelQueuedJob() {
+        // Given: 以"排队中"为条件更新成功
+        when(jobMapper.update(isNull(), any())).thenReturn(1);
+
+        // When
+        carImportService.cancel(10L);
+
+        // Then
+        verify(jobMapper, times(1)).update(isNull(), any());
+        verify(jobMapper, never()).selectById(any());
+    }
+
+    @Test
+    @DisplayName("测试取消本实例导入中的任务")
+    @SuppressWarnings("unchecked")
+    void testCancelRunningJob() {
+        // Given
+        CarImportListener listener = mock(CarImportListener.class);
+        ((Map<Long, CarImportListener>) ReflectionTestUtils.getField(carImportService, "running")).put(10L, listener);
+
+        // When
+        carImportService.cancel(10L);
+
+        // Then: 只通知监听器停止，最终状态由导入线程写入
+        verify(listener, times(1)).cancel();
+        verifyNoInteractions(jobMapper);
+    }
+
+    @Test
+    @DisplayName("测试取消已结束或不存在的任务")
+    void testCancelFinishedOrMissingJob() {
+        // Given
+        CarImportJob finished = new CarImportJob();
+        finished.setId(10L);
+        finished.setStatus(CarImportService.STATUS_SUCCEEDED);
+        when(jobMapper.update(isNull(), any())).thenReturn(0);
+        when(jobMapper.selectById(10L)).thenReturn(finished);
+        when(jobMapper.selectById(11L)).thenReturn(null);
+
+        // When & Then
+        assertThatThrownBy(() -> carImportService.cancel(10L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("导入任务已结束");
+        assertThatThrownBy(() -> carImportService.cancel(11L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("导入任务不存在");
+    }
+
+    private static MockMultipartFile excel() {
+        return new MockMultipartFile("file", "cars.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", new byte[] { 1, 2, 3 });
+    }
+}
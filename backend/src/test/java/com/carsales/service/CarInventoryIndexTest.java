@@ -0,0 +1,164 @@
+package com.carsales.service;
+
+import com.carsales.entity.CarInfo;
+import com.carsales.mapper.CarMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 车辆库存内存索引测试类
+ * 测试筛选、排序、分页及写入同步
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("车辆库存内存索引测试")
+class CarInventoryIndexTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private CarMapper carMapper;
+
+    private CarInventoryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CarInventoryIndex(carMapper, new DataVersionService());
+        ReflectionTestUtils.setField(index, "enabled", true);
+
+        when(carMapper.selectList(any())).thenReturn(List.of(
+                car(1L, "Toyota", "150000.00", 0, 1),
+                car(2L, "BMW", "380000.00", 0, 2),
+                car(3L, "Toyota", "220000.50", 2, 3),
+                car(4L, "BMW", "420000.00", 1, 4),
+                car(5L, "Toyota", "180000.00", 0, 5)));
+        index.rebuild();
+    }
+
+    @Test
+    @DisplayName("测试按品牌和状态筛选，按创建时间倒序")
+    void testFilterByBrandAndStatus() {
+        CarInventoryIndex.IndexPage page = index.query("Toyota", null, null, 0, 0, 10, true);
+
+        assertThat(page.getIds()).containsExactly(5L, 1L);
+        assertThat(page.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("测试价格区间筛选（含边界）")
+    void testFilterByPriceRange() {
+        CarInventoryIndex.IndexPage page = index.query(null,
+                new BigDecimal("180000"), new BigDecimal("380000"), null, 0, 10, true);
+
+        assertThat(page.getIds()).containsExactly(5L, 3L, 2L);
+        assertThat(page.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("测试分页")
+    void testPaging() {
+        CarInventoryIndex.IndexPage second = index.query(null, null, null, null, 2, 2, true);
+
+        assertThat(second.getIds()).containsExactly(3L, 2L);
+        assertThat(second.getTotal()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("测试未知品牌返回空结果")
+    void testUnknownBrand() {
+        CarInventoryIndex.IndexPage page = index.query("Tesla", null, null, null, 0, 10, true);
+
+        assertThat(page.getIds()).isEmpty();
+        assertThat(page.getTotal()).isZero();
+    }
+
+    @Test
+    @DisplayName("测试写入和删除同步到索引")
+    void testUpsertAndRemove() {
+        // 修改状态：在库 -> 已售
+        index.upsertAfterCommit(car(5L, "Toyota", "180000.00", 2, 5));
+        // 新增车辆
+        index.upsertAfterCommit(car(6L, "Tesla", "260000.00", 0, 6));
+        // 删除车辆
+        index.removeAfterCommit(1L);
+
+        assertThat(index.query("Toyota", null, null, 0, 0, 10, true).getIds()).isEmpty();
+        assertThat(index.query(null, null, null, 2, 0, 10, true).getIds()).containsExactly(5L, 3L);
+        assertThat(index.query("Tesla", null, null, null, 0, 10, true).getIds()).containsExactly(6L);
+        assertThat(index.query(null, null, null, null, 0, 10, true).getTotal()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("测试写入后顺序数组按创建时间增量维护")
+    void testOrderMaintainedIncrementally() {
+        // 插入到中间、修改创建时间移到最前、相同创建时间按 ID 倒序
+        index.upsertAfterCommit(car(6L, "Tesla", "260000.00", 0, 3));
+        index.upsertAfterCommit(car(1L, "Toyota", "150000.00", 0, 9));
+        index.upsertAfterCommit(car(7L, "Tesla", "260000.00", 0, 3));
+        index.removeAfterCommit(4L);
+
+        assertThat(index.query(null, null, null, null, 0, 10, true).getIds())
+                .containsExactly(1L, 5L, 7L, 6L, 3L, 2L);
+    }
+
+    @Test
+    @DisplayName("测试按 VIN 片段查询（任意位置，不区分大小写，按创建时间倒序）")
+    void testSearchVin() {
+        assertThat(index.searchVin("005555", 10)).containsExactly(5L);
+        assertThat(index.searchVin("e2003333", 10)).containsExactly(3L);
+        assertThat(index.searchVin("lsvnv", 3)).containsExactly(5L, 4L, 3L);
+        assertThat(index.searchVin("ZZZZ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("测试 VIN 修改和车辆删除同步到 VIN 索引")
+    void testSearchVinAfterUpdate() {
+        CarInfo changed = car(5L, "Toyota", "180000.00", 0, 5);
+        changed.setVin("LFV2A21K9A3099999");
+        index.upsertAfterCommit(changed);
+        index.removeAfterCommit(1L);
+
+        assertThat(index.searchVin("5555", 10)).isEmpty();
+        assertThat(index.searchVin("099999", 10)).containsExactly(5L);
+        assertThat(index.searchVin("001111", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("测试重建复用上一代 VIN 倒排表后不残留旧条目")
+    void testSearchVinAfterRepeatedRebuild() {
+        CarInfo replaced = car(6L, "BMW", "300000.00", 0, 6);
+        replaced.setVin("LFV2A21K9A3099999");
+        when(carMapper.selectList(any())).thenReturn(List.of(car(1L, "Toyota", "150000.00", 0, 1), replaced));
+
+        // 第二次重建复用初始空索引的倒排表，第三次复用 setUp 时建立的倒排表
+        index.rebuild();
+        index.rebuild();
+
+        assertThat(index.searchVin("005555", 10)).isEmpty();
+        assertThat(index.searchVin("lsvnv", 10)).containsExactly(1L);
+        assertThat(index.searchVin("099999", 10)).containsExactly(6L);
+    }
+
+    private CarInfo car(Long id, String brand, String price, int status, int minutes) {
+        CarInfo car = new CarInfo();
+        car.setId(id);
+        car.setVin(String.format("LSVNV2182E2%06d", id * 1111));
+        car.setBrand(brand);
+        car.setPrice(new BigDecimal(price));
+        car.setStatus(status);
+        car.setCreateTime(BASE_TIME.plusMinutes(minutes));
+        return car;
+    }
+}
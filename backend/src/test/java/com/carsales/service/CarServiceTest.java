@@ -0,0 +1,192 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.carsales.dto.CarBulkUpdateRequest;
+import com.carsales.dto.CarQueryRequest;
+import com.carsales.entity.CarInfo;
+import com.carsales.exception.BusinessException;
+import com.carsales.mapper.CarMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * 车辆服务测试类
+ * 测试乐观锁状态变更、批量更新、流式导出
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("车辆服务测试")
+class CarServiceTest {
+
+    @Mock
+    private CarMapper carMapper;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private PageCountService pageCountService;
+
+    @Mock
+    private CarInventoryIndex carInventoryIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CarService carService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaUpdateWrapper#set 立即解析列名，需要实体的表信息缓存
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CarInfo.class);
+    }
+
+    @Test
+    @DisplayName("测试条件更新成功后状态变更")
+    void testTransitionStatus() {
+        // Given
+        when(carMapper.selectById(2001L)).thenReturn(car(0, 3), car(1, 4));
+        when(carMapper.update(isNull(), any())).thenReturn(1);
+
+        // When
+        CarInfo result = carService.transitionStatus(2001L, CarService.STATUS_AVAILABLE, CarService.STATUS_LOCKED, null);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(1);
+        assertThat(result.getVersion()).isEqualTo(4);
+        verify(carInventoryIndex, times(1)).upsertAfterCommit(result);
+        verify(dataVersionService, times(1)).bump(DataVersionService.CAR_INFO);
+    }
+
+    @Test
+    @DisplayName("测试并发修改后条件更新失败立即返回冲突")
+    void testTransitionStatusConflict() {
+        // Given: 版本 3 已被其他操作改为已售
+        when(carMapper.update(isNull(), any())).thenReturn(0);
+        when(carMapper.selectById(2001L)).thenReturn(car(2, 4));
+
+        // When & Then
+        assertThatThrownBy(() -> carService.transitionStatus(2001L,
+                CarService.STATUS_AVAILABLE, CarService.STATUS_SOLD, 3))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("当前状态：已售");
+        verify(carInventoryIndex, never()).upsertAfterCommit(any(CarInfo.class));
+    }
+
+    @Test
+    @DisplayName("测试当前状态不符时不执行更新")
+    void testTransitionStatusFromWrongStatus() {
+        // Given
+        when(carMapper.selectById(2001L)).thenReturn(car(1, 5));
+
+        // When & Then
+        assertThatThrownBy(() -> carService.transitionStatus(2001L,
+                CarService.STATUS_AVAILABLE, CarService.STATUS_SOLD, null))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("当前状态：锁定");
+        verify(carMapper, never()).update(any(), any());
+    }
+
+    @Test
+    @DisplayName("测试不支持的状态变更")
+    void testTransitionStatusNotAllowed() {
+        assertThatThrownBy(() -> carService.transitionStatus(2001L,
+                CarService.STATUS_SOLD, CarService.STATUS_AVAILABLE, 1))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("不支持的车辆状态变更");
+        verifyNoInteractions(carMapper);
+    }
+
+    @Test
+    @DisplayName("测试按ID批量更新分块执行")
+    void testBulkUpdateByIdsInChunks() {
+        // Given: 1200 辆车，每块 500 辆
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(carMapper.update(isNull(), any())).thenReturn(500, 500, 200);
+        CarBulkUpdateRequest request = new CarBulkUpdateRequest();
+        request.setIds(LongStream.rangeClosed(1, 1200).boxed().toList());
+        request.setPriceChangePercent(new BigDecimal("-3"));
+
+        // When
+        Map<String, Object> result = carService.bulkUpdate(request);
+
+        // Then
+        assertThat(result.get("updatedCount")).isEqualTo(1200L);
+        assertThat(result.get("chunks")).isEqualTo(3);
+        verify(carMapper, times(3)).update(isNull(), any());
+        verify(carInventoryIndex, times(3)).refreshAfterCommit(anyCollection());
+    }
+
+    @Test
+    @DisplayName("测试批量更新缺少修改内容或筛选条件")
+    void testBulkUpdateValidation() {
+        CarBulkUpdateRequest noPatch = new CarBulkUpdateRequest();
+        noPatch.setBrand("宝马");
+        assertThatThrownBy(() -> carService.bulkUpdate(noPatch))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("请指定要修改的价格或调价幅度");
+
+        CarBulkUpdateRequest noFilter = new CarBulkUpdateRequest();
+        noFilter.setPriceChangePercent(new BigDecimal("-3"));
+        assertThatThrownBy(() -> carService.bulkUpdate(noFilter))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("请指定车辆ID或筛选条件");
+        verifyNoInteractions(carMapper);
+    }
+
+    @Test
+    @DisplayName("测试导出按页写出游标数据")
+    @SuppressWarnings("unchecked")
+    void testExportCarsInPages() {
+        // Given
+        List<CarInfo> cars = LongStream.rangeClosed(1, 2500).mapToObj(id -> {
+            CarInfo car = new CarInfo();
+            car.setId(id);
+            return car;
+        }).toList();
+        Cursor<CarInfo> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(cars.iterator());
+        when(carMapper.selectCursor(any())).thenReturn(cursor);
+        List<Integer> pageSizes = new ArrayList<>();
+
+        // When
+        int total = carService.exportCars(new CarQueryRequest(), page -> pageSizes.add(page.size()));
+
+        // Then
+        assertThat(total).isEqualTo(2500);
+        assertThat(pageSizes).containsExactly(1000, 1000, 500);
+        verify(carMapper, never()).selectList(any());
+    }
+
+    private CarInfo car(int status, int version) {
+        CarInfo car = new CarInfo();
+        car.setId(2001L);
+        car.setVin("LSVAA4182ES123456");
+        car.setStatus(status);
+        car.setVersion(version);
+        return car;
+    }
+}
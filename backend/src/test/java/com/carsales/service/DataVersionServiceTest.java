@@ -0,0 +1,59 @@
+package com.carsales.service;
+
+import com.carsales.util.ETagUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 数据版本服务测试类
+ * 测试版本号递增以及基于版本号的 ETag 生成
+ */
+@DisplayName("数据版本服务测试")
+class DataVersionServiceTest {
+
+    private DataVersionService dataVersionService;
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService = new DataVersionService();
+    }
+
+    @Test
+    @DisplayName("测试列表 ETag 在数据变更后变化")
+    void testListETagChangesAfterBump() {
+        String first = dataVersionService.listETag("cars", "brand=BMW", DataVersionService.CAR_INFO);
+        assertThat(first).startsWith("\"").endsWith("\"");
+        assertThat(dataVersionService.listETag("cars", "brand=BMW", DataVersionService.CAR_INFO)).isEqualTo(first);
+
+        // 其他表变更不影响
+        dataVersionService.bump(DataVersionService.CUSTOMER);
+        assertThat(dataVersionService.listETag("cars", "brand=BMW", DataVersionService.CAR_INFO)).isEqualTo(first);
+
+        dataVersionService.bump(DataVersionService.CAR_INFO);
+        assertThat(dataVersionService.listETag("cars", "brand=BMW", DataVersionService.CAR_INFO)).isNotEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("测试列表 ETag 区分查询条件和接口")
+    void testListETagDependsOnFilterAndScope() {
+        String bmw = dataVersionService.listETag("cars", "brand=BMW", DataVersionService.CAR_INFO);
+        assertThat(dataVersionService.listETag("cars", "brand=Audi", DataVersionService.CAR_INFO)).isNotEqualTo(bmw);
+        assertThat(dataVersionService.listETag("cars-cursor", "brand=BMW", DataVersionService.CAR_INFO)).isNotEqualTo(bmw);
+    }
+
+    @Test
+    @DisplayName("测试单条记录 ETag")
+    void testRowETag() {
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 10, 0);
+        String tag = ETagUtil.forRow("car", 1L, 3, time);
+        assertThat(ETagUtil.forRow("car", 1L, 3, time)).isEqualTo(tag);
+        assertThat(ETagUtil.forRow("car", 1L, 4, time)).isNotEqualTo(tag);
+        assertThat(ETagUtil.forRow("car", 1L, 3, time.plusSeconds(1))).isNotEqualTo(tag);
+        assertThat(ETagUtil.forRow("customer", 1L, null, null)).isEqualTo("\"customer-1-0\"");
+    }
+}
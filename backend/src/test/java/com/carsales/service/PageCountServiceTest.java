@@ -0,0 +1,82 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.carsales.common.CountMode;
+import com.carsales.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 分页总数服务测试类
+ * 测试不同统计方式下是否执行 COUNT 以及总数缓存的失效
+ */
+@DisplayName("分页总数服务测试")
+class PageCountServiceTest {
+
+    private DataVersionService dataVersionService;
+    private PageCountService pageCountService;
+
+    @BeforeEach
+    void setUp() {
+        dataVersionService = new DataVersionService();
+        pageCountService = new PageCountService(dataVersionService);
+    }
+
+    @Test
+    @DisplayName("测试精确统计和不统计")
+    void testExactAndNone() {
+        Page<Object> exact = pageCountService.newPage(1, 10, CountMode.EXACT, DataVersionService.CAR_INFO, "k");
+        assertThat(exact.searchCount()).isTrue();
+
+        Page<Object> none = pageCountService.newPage(1, 10, CountMode.NONE, DataVersionService.CAR_INFO, "k");
+        assertThat(none.searchCount()).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试每页条数和页码限制在合法范围")
+    void testPageSizeClamped() {
+        Page<Object> huge = pageCountService.newPage(1, 2_000_000_000L, CountMode.EXACT, DataVersionService.CAR_INFO, "k");
+        assertThat(huge.getSize()).isEqualTo(100);
+
+        Page<Object> zero = pageCountService.newPage(0, 0, CountMode.EXACT, DataVersionService.CAR_INFO, "k");
+        assertThat(zero.getSize()).isEqualTo(1);
+        assertThat(zero.getCurrent()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("测试估算模式缓存总数并在数据变更后失效")
+    void testEstimateCachedUntilDataChanges() {
+        // 首次查询执行 COUNT 并写入缓存
+        Page<Object> first = pageCountService.newPage(1, 10, CountMode.ESTIMATE, DataVersionService.CAR_INFO, "BMW");
+        assertThat(first.searchCount()).isTrue();
+        first.setTotal(42);
+        pageCountService.afterQuery(first, CountMode.ESTIMATE, DataVersionService.CAR_INFO, "BMW");
+
+        // 再次查询命中缓存，跳过 COUNT
+        Page<Object> cached = pageCountService.newPage(2, 10, CountMode.ESTIMATE, DataVersionService.CAR_INFO, "BMW");
+        assertThat(cached.searchCount()).isFalse();
+        assertThat(cached.getTotal()).isEqualTo(42);
+
+        // 其他筛选条件不共享缓存
+        Page<Object> other = pageCountService.newPage(1, 10, CountMode.ESTIMATE, DataVersionService.CAR_INFO, "Audi");
+        assertThat(other.searchCount()).isTrue();
+
+        // 表数据变更后重新统计
+        dataVersionService.bump(DataVersionService.CAR_INFO);
+        Page<Object> afterWrite = pageCountService.newPage(1, 10, CountMode.ESTIMATE, DataVersionService.CAR_INFO, "BMW");
+        assertThat(afterWrite.searchCount()).isTrue();
+    }
+
+    @Test
+    @DisplayName("测试解析统计方式")
+    void testCountModeOf() {
+        assertThat(CountMode.of(null)).isEqualTo(CountMode.EXACT);
+        assertThat(CountMode.of("none")).isEqualTo(CountMode.NONE);
+        assertThat(CountMode.of("Estimate")).isEqualTo(CountMode.ESTIMATE);
+        assertThatThrownBy(() -> CountMode.of("fast"))
+                .isInstanceOf(BusinessException.class);
+    }
+}
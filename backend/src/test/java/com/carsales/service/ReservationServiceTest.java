@@ -0,0 +1,203 @@
+package com.carsales.service;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.carsales.common.LoginUser;
+import com.carsales.entity.CarInfo;
+import com.carsales.entity.CarReservation;
+import com.carsales.exception.BusinessException;
+import com.carsales.mapper.CarMapper;
+import com.carsales.mapper.CarReservationMapper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * 车辆预留服务测试类
+ * 测试到期释放、释放与到期并发、下单时的预留归属校验
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("车辆预留服务测试")
+class ReservationServiceTest {
+
+    private static final Long RESERVATION_ID = 7001L;
+    private static final Long CAR_ID = 2001L;
+    private static final Long SALES_USER_ID = 11L;
+
+    @Mock
+    private CarReservationMapper reservationMapper;
+
+    @Mock
+    private CarMapper carMapper;
+
+    @Mock
+    private CarService carService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ReservationService reservationService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaUpdateWrapper#set 立即解析列名，需要实体的表信息缓存
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), CarReservation.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 1 毫秒一个 tick，已过期的预留在下一次 tick() 时到期
+        ReflectionTestUtils.setField(reservationService, "tickMillis", 1L);
+        reservationService.init();
+    }
+
+    @Test
+    @DisplayName("测试预留到期释放车辆")
+    void testExpiryReleasesCar() throws InterruptedException {
+        // Given: 启动时加载一条已过期的预留，车辆为锁定状态
+        loadExpiredReservation();
+        runTransactionsInline();
+        when(reservationMapper.selectById(RESERVATION_ID)).thenReturn(reservation(ReservationService.STATUS_ACTIVE));
+        when(reservationMapper.update(isNull(), any())).thenReturn(1);
+        when(carMapper.selectById(CAR_ID)).thenReturn(car(CarService.STATUS_LOCKED, 5));
+
+        // When
+        Thread.sleep(5);
+        reservationService.tick();
+
+        // Then
+        verify(carService, times(1)).transitionStatus(CAR_ID, CarService.STATUS_LOCKED, CarService.STATUS_AVAILABLE, 5);
+        assertThat(reservationService.getStats().get("expired")).isEqualTo(1L);
+        assertThat(reservationService.getStats().get("pending")).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("测试到期处理时预留已被释放，不再释放车辆")
+    void testExpiryLosesToRelease() throws InterruptedException {
+        // Given: 读取时仍为预留中，条件更新时已被其他操作释放
+        loadExpiredReservation();
+        runTransactionsInline();
+        when(reservationMapper.selectById(RESERVATION_ID)).thenReturn(reservation(ReservationService.STATUS_ACTIVE));
+        when(reservationMapper.update(isNull(), any())).thenReturn(0);
+
+        // When
+        Thread.sleep(5);
+        reservationService.tick();
+
+        // Then
+        verifyNoInteractions(carMapper, carService);
+        assertThat(reservationService.getStats().get("expired")).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("测试预留已到期后释放失败，不重复释放车辆")
+    void testReleaseLosesToExpiry() {
+        // Given: 条件更新时预留已到期
+        when(reservationMapper.selectById(RESERVATION_ID)).thenReturn(reservation(ReservationService.STATUS_ACTIVE));
+        when(reservationMapper.update(isNull(), any())).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> reservationService.release(RESERVATION_ID, salesperson(SALES_USER_ID)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("预留已结束");
+        verifyNoInteractions(carMapper, carService);
+    }
+
+    @Test
+    @DisplayName("测试到期时车辆已不是锁定状态则跳过释放")
+    void testExpirySkipsCarNoLongerLocked() throws InterruptedException {
+        // Given: 车辆已被下单售出
+        loadExpiredReservation();
+        runTransactionsInline();
+        when(reservationMapper.selectById(RESERVATION_ID)).thenReturn(reservation(ReservationService.STATUS_ACTIVE));
+        when(reservationMapper.update(isNull(), any())).thenReturn(1);
+        when(carMapper.selectById(CAR_ID)).thenReturn(car(CarService.STATUS_SOLD, 6));
+
+        // When
+        Thread.sleep(5);
+        reservationService.tick();
+
+        // Then
+        verify(carService, never()).transitionStatus(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("测试下单时车辆被其他销售员预留")
+    void testConsumeForOrderRejectsOtherSalesperson() {
+        // Given
+        when(reservationMapper.selectOne(any())).thenReturn(reservation(ReservationService.STATUS_ACTIVE));
+
+        // When & Then
+        assertThatThrownBy(() -> reservationService.consumeForOrder(CAR_ID, 99L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("车辆已被其他销售员预留");
+        verify(reservationMapper, never()).update(isNull(), any());
+    }
+
+    @Test
+    @DisplayName("测试下单时结束本人的预留")
+    void testConsumeForOrderOwnReservation() {
+        // Given
+        when(reservationMapper.selectOne(any())).thenReturn(reservation(ReservationService.STATUS_ACTIVE));
+        when(reservationMapper.update(isNull(), any())).thenReturn(1);
+
+        // When & Then
+        assertThat(reservationService.consumeForOrder(CAR_ID, SALES_USER_ID)).isTrue();
+    }
+
+    private void loadExpiredReservation() {
+        CarReservation expired = reservation(ReservationService.STATUS_ACTIVE);
+        expired.setExpireTime(LocalDateTime.now().minusMinutes(1));
+        when(reservationMapper.selectList(any())).thenReturn(List.of(expired));
+        reservationService.loadOnStartup();
+    }
+
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static CarReservation reservation(int status) {
+        CarReservation reservation = new CarReservation();
+        reservation.setId(RESERVATION_ID);
+        reservation.setCarId(CAR_ID);
+        reservation.setSalesUserId(SALES_USER_ID);
+        reservation.setExpireTime(LocalDateTime.now().plusMinutes(30));
+        reservation.setStatus(status);
+        return reservation;
+    }
+
+    private static CarInfo car(int status, int version) {
+        CarInfo car = new CarInfo();
+        car.setId(CAR_ID);
+        car.setStatus(status);
+        car.setVersion(version);
+        return car;
+    }
+
+    private static LoginUser salesperson(Long userId) {
+        return new LoginUser(userId, "sales" + userId, "SALESPERSON", null, null);
+    }
+}
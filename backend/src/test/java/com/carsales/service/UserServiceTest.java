@@ -1,22 +1,33 @@
 package com.carsales.service;
 
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.carsales.common.LoginUser;
+import com.carsales.config.BCryptCalibration;
+import com.carsales.config.LoginAdmissionProperties;
 import com.carsales.dto.LoginRequest;
 import com.carsales.dto.LoginResponse;
 import com.carsales.entity.SysUser;
 import com.carsales.exception.BusinessException;
 import com.carsales.mapper.UserMapper;
 import com.carsales.util.JwtUtil;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.Date;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,12 +47,27 @@ class UserServiceTest {
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Mock
+    private TokenBlocklistService tokenBlocklistService;
+
+    @Spy
+    private LoginAdmissionService loginAdmissionService = new LoginAdmissionService(new LoginAdmissionProperties());
+
+    @Spy
+    private BCryptCalibration bCryptCalibration = new BCryptCalibration(10, 50, 80);
+
     @InjectMocks
     private UserService userService;
 
     private SysUser testUser;
     private LoginRequest loginRequest;
 
+    @BeforeAll
+    static void initTableInfo() {
+        // 重新哈希密码时 LambdaUpdateWrapper#set 立即解析列名，需要实体的表信息缓存
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), SysUser.class);
+    }
+
     @BeforeEach
     void setUp() {
         // 准备测试数据
@@ -68,7 +94,7 @@ class UserServiceTest {
                 .thenReturn("mock-jwt-token");
 
         // When
-        LoginResponse response = userService.login(loginRequest);
+        LoginResponse response = userService.login(loginRequest, "127.0.0.1");
 
         // Then
         assertThat(response).isNotNull();
@@ -85,6 +111,27 @@ class UserServiceTest {
         verify(jwtUtil, times(1)).generateToken(testUser.getId(), testUser.getUsername(), testUser.getRole());
     }
 
+    @Test
+    @DisplayName("测试密码强度与校准强度不一致时登录后重新哈希")
+    void testLoginRehashesPasswordWithStaleStrength() {
+        // Given
+        testUser.setPassword("$2a$08$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lE9lBOsl7iKTVKIUi");
+        when(userMapper.selectOne(any())).thenReturn(testUser);
+        when(passwordEncoder.matches("123456", testUser.getPassword())).thenReturn(true);
+        when(passwordEncoder.encode("123456")).thenReturn("$2a$10$rehashedPasswordHash");
+        when(userMapper.update(isNull(), any())).thenReturn(1);
+        when(jwtUtil.generateToken(testUser.getId(), testUser.getUsername(), testUser.getRole()))
+                .thenReturn("mock-jwt-token");
+
+        // When
+        LoginResponse response = userService.login(loginRequest, "127.0.0.1");
+
+        // Then
+        assertThat(response.getToken()).isEqualTo("mock-jwt-token");
+        verify(userMapper, timeout(2000)).update(isNull(), any());
+        verify(passwordEncoder, times(1)).encode("123456");
+    }
+
     @Test
     @DisplayName("测试用户不存在时登录失败")
     void testLoginWithNonExistentUser() {
@@ -92,7 +139,7 @@ class UserServiceTest {
         when(userMapper.selectOne(any())).thenReturn(null);
 
         // When & Then
-        assertThatThrownBy(() -> userService.login(loginRequest))
+        assertThatThrownBy(() -> userService.login(loginRequest, "127.0.0.1"))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("用户名或密码错误");
 
@@ -112,7 +159,7 @@ class UserServiceTest {
         loginRequest.setPassword("wrongpassword");
 
         // When & Then
-        assertThatThrownBy(() -> userService.login(loginRequest))
+        assertThatThrownBy(() -> userService.login(loginRequest, "127.0.0.1"))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("用户名或密码错误");
 
@@ -130,7 +177,7 @@ class UserServiceTest {
         when(userMapper.selectOne(any())).thenReturn(testUser);
 
         // When & Then
-        assertThatThrownBy(() -> userService.login(loginRequest))
+        assertThatThrownBy(() -> userService.login(loginRequest, "127.0.0.1"))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("用户已被禁用");
 
@@ -140,6 +187,42 @@ class UserServiceTest {
         verify(jwtUtil, never()).generateToken(any(), any(), any());
     }
 
+    @Test
+    @DisplayName("测试同一用户名频繁登录被限流")
+    void testLoginThrottledByUsername() {
+        // Given
+        when(userMapper.selectOne(any())).thenReturn(testUser);
+        when(passwordEncoder.matches("wrongpassword", testUser.getPassword())).thenReturn(false);
+        loginRequest.setPassword("wrongpassword");
+
+        // When: 默认每个用户名允许突发 5 次
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> userService.login(loginRequest, "127.0.0.1"))
+                    .hasMessageContaining("用户名或密码错误");
+        }
+
+        // Then
+        assertThatThrownBy(() -> userService.login(loginRequest, "127.0.0.1"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("过于频繁");
+        verify(passwordEncoder, times(5)).matches("wrongpassword", testUser.getPassword());
+    }
+
+    @Test
+    @DisplayName("测试登出时注销Token")
+    void testLogoutRevokesToken() {
+        // Given
+        LoginUser loginUser = new LoginUser(1001L, "admin", "ADMIN", "token-id",
+                new Date(System.currentTimeMillis() + 60_000));
+        when(jwtUtil.parseLoginUser("mock-jwt-token")).thenReturn(loginUser);
+
+        // When
+        userService.logout("mock-jwt-token");
+
+        // Then
+        verify(tokenBlocklistService, times(1)).revoke(loginUser);
+    }
+
     @Test
     @DisplayName("测试根据用户名查询用户")
     void testGetUserByUsername() {
@@ -176,6 +259,54 @@ class UserServiceTest {
         verify(userMapper, times(1)).selectById(1001L);
     }
 
+    @Test
+    @DisplayName("测试重复查询用户命中缓存")
+    void testGetUserByIdCached() {
+        // Given
+        when(userMapper.selectById(1001L)).thenReturn(testUser);
+
+        // When
+        SysUser first = userService.getUserById(1001L);
+        SysUser second = userService.getUserById(1001L);
+        SysUser byUsername = userService.getUserByUsername("admin");
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(byUsername).isSameAs(first);
+
+        // Verify
+        verify(userMapper, times(1)).selectById(1001L);
+        verify(userMapper, never()).selectOne(any());
+    }
+
+    @Test
+    @DisplayName("测试修改用户状态后缓存立即失效")
+    void testUpdateUserStatusEvictsCache() {
+        // Given
+        when(userMapper.selectById(1001L)).thenReturn(testUser);
+        when(userMapper.updateById(any(SysUser.class))).thenReturn(1);
+        userService.getUserById(1001L);
+
+        // When
+        userService.updateUserStatus(1001L, 0);
+        userService.getUserById(1001L);
+
+        // Then
+        verify(userMapper, times(2)).selectById(1001L);
+    }
+
+    @Test
+    @DisplayName("测试修改不存在用户的状态失败")
+    void testUpdateUserStatusWithNonExistentUser() {
+        // Given
+        when(userMapper.updateById(any(SysUser.class))).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> userService.updateUserStatus(9999L, 0))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("用户不存在");
+    }
+
     @Test
     @DisplayName("测试密码加密")
     void testEncodePassword() {
@@ -0,0 +1,72 @@
+package com.carsales.util;
+
+import com.carsales.common.CursorPage;
+import com.carsales.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 游标分页工具类测试
+ */
+@DisplayName("游标分页工具类测试")
+class CursorUtilTest {
+
+    @Test
+    @DisplayName("测试游标编码后可解码还原")
+    void testEncodeAndDecode() {
+        LocalDate orderDate = LocalDate.of(2024, 5, 1);
+        LocalDateTime createTime = LocalDateTime.of(2024, 5, 1, 10, 30, 15);
+
+        String cursor = CursorUtil.encode(orderDate, createTime, 1001L);
+        String[] values = CursorUtil.decode(cursor, 3);
+
+        assertThat(CursorUtil.parseDate(values[0])).isEqualTo(orderDate);
+        assertThat(CursorUtil.parseDateTime(values[1])).isEqualTo(createTime);
+        assertThat(CursorUtil.parseLong(values[2])).isEqualTo(1001L);
+    }
+
+    @Test
+    @DisplayName("测试非法游标抛出参数格式错误")
+    void testDecodeInvalidCursor() {
+        assertThatThrownBy(() -> CursorUtil.decode("not*base64", 2))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("游标格式错误");
+
+        String wrongParts = CursorUtil.encode("2024-05-01T10:30:15");
+        assertThatThrownBy(() -> CursorUtil.decode(wrongParts, 2))
+                .isInstanceOf(BusinessException.class);
+
+        String[] values = CursorUtil.decode(CursorUtil.encode("abc", "xyz"), 2);
+        assertThatThrownBy(() -> CursorUtil.parseLong(values[1]))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    @DisplayName("测试多查一条判断是否还有下一页")
+    void testToPage() {
+        CursorPage<Long> more = CursorUtil.toPage(List.of(5L, 4L, 3L), 2, id -> "c" + id);
+        assertThat(more.getRecords()).containsExactly(5L, 4L);
+        assertThat(more.isHasMore()).isTrue();
+        assertThat(more.getNextCursor()).isEqualTo("c4");
+
+        CursorPage<Long> last = CursorUtil.toPage(List.of(2L, 1L), 2, id -> "c" + id);
+        assertThat(last.getRecords()).containsExactly(2L, 1L);
+        assertThat(last.isHasMore()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("测试每页条数限制")
+    void testLimit() {
+        assertThat(CursorUtil.limit(null)).isEqualTo(10);
+        assertThat(CursorUtil.limit(0)).isEqualTo(10);
+        assertThat(CursorUtil.limit(20)).isEqualTo(20);
+        assertThat(CursorUtil.limit(1000)).isEqualTo(CursorUtil.MAX_PAGE_SIZE);
+    }
+}
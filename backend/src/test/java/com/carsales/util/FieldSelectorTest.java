@@ -0,0 +1,57 @@
+package com.carsales.util;
+
+import com.carsales.exception.BusinessException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 字段选择工具类测试
+ */
+@DisplayName("字段选择工具类测试")
+class FieldSelectorTest {
+
+    private static final List<String> ALLOWED = List.of("id", "brand", "model", "price", "createTime");
+
+    @Test
+    @DisplayName("测试未指定字段时返回全部")
+    void testBlankMeansAll() {
+        assertThat(FieldSelector.parse(null, ALLOWED, "id")).isNull();
+        assertThat(FieldSelector.parse("  ", ALLOWED, "id")).isNull();
+    }
+
+    @Test
+    @DisplayName("测试解析字段并加入必须字段")
+    void testParseAddsRequired() {
+        Set<String> fields = FieldSelector.parse("brand, price,,brand", ALLOWED, "id", "createTime");
+        assertThat(fields).containsExactly("id", "createTime", "brand", "price");
+    }
+
+    @Test
+    @DisplayName("测试白名单外的字段被拒绝")
+    void testRejectUnknownField() {
+        assertThatThrownBy(() -> FieldSelector.parse("brand,idCard", ALLOWED))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("idCard");
+    }
+
+    @Test
+    @DisplayName("测试按声明顺序生成 SELECT 列表")
+    void testColumns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("id", "o.id");
+        columns.put("orderNo", "o.order_no");
+        columns.put("customerName", "c.name AS customer_name");
+
+        assertThat(FieldSelector.columns(Set.of("customerName", "id"), columns))
+                .isEqualTo("o.id, c.name AS customer_name");
+        assertThat(FieldSelector.columns(null, columns))
+                .isEqualTo("o.id, o.order_no, c.name AS customer_name");
+    }
+}
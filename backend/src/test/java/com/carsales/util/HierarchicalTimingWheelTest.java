@@ -0,0 +1,72 @@
+package com.carsales.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 分层时间轮测试
+ */
+@DisplayName("分层时间轮测试")
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("测试任务在到期时间触发，不提前")
+    void testExpireAtDeadline() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, START);
+        wheel.schedule(1L, START + 5 * TICK);
+
+        assertThat(wheel.advance(START + 4 * TICK)).isEmpty();
+        assertThat(wheel.advance(START + 5 * TICK)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("测试跨层级联后按到期顺序触发")
+    void testCascadeAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, START);
+        long[] delays = { 3, 70, 4_000, 5_000, 300_000 };
+        for (long delay : delays) {
+            wheel.schedule(delay, START + delay * TICK);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long delay : delays) {
+            assertThat(wheel.advance(START + (delay - 1) * TICK)).isEmpty();
+            List<Long> expired = wheel.advance(START + delay * TICK);
+            assertThat(expired).containsExactly(delay);
+            fired.addAll(expired);
+        }
+        assertThat(fired).containsExactly(3L, 70L, 4_000L, 5_000L, 300_000L);
+    }
+
+    @Test
+    @DisplayName("测试取消和覆盖到期时间")
+    void testCancelAndReschedule() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, START);
+        wheel.schedule(1L, START + 10 * TICK);
+        wheel.schedule(2L, START + 10 * TICK);
+        wheel.schedule(2L, START + 100 * TICK);
+
+        assertThat(wheel.cancel(1L)).isTrue();
+        assertThat(wheel.cancel(1L)).isFalse();
+        assertThat(wheel.advance(START + 10 * TICK)).isEmpty();
+        assertThat(wheel.advance(START + 100 * TICK)).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("测试已过期的任务在下一个 tick 触发")
+    void testPastDeadline() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, START);
+        wheel.schedule(1L, START - 60 * TICK);
+
+        assertThat(wheel.advance(START + TICK)).containsExactly(1L);
+    }
+}
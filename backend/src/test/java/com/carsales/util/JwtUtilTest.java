@@ -0,0 +1,84 @@
+package com.carsales.util;
+
+import com.carsales.common.LoginUser;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * JWT工具类测试
+ * 测试 Token 生成、验签及已验签 Token 缓存
+ */
+@DisplayName("JWT工具类测试")
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(86400000L);
+    }
+
+    private JwtUtil newJwtUtil(long expiration) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret",
+                "car-sales-system-secret-key-for-jwt-token-generation-minimum-256-bits");
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        ReflectionTestUtils.setField(util, "cacheMaximumSize", 100L);
+        util.init();
+        return util;
+    }
+
+    @Test
+    @DisplayName("测试生成并解析Token")
+    void testParseLoginUser() {
+        String token = jwtUtil.generateToken(1001L, "admin", "ADMIN");
+
+        LoginUser loginUser = jwtUtil.parseLoginUser(token);
+
+        assertThat(loginUser.getUserId()).isEqualTo(1001L);
+        assertThat(loginUser.getUsername()).isEqualTo("admin");
+        assertThat(loginUser.getRole()).isEqualTo("ADMIN");
+        assertThat(loginUser.isExpired()).isFalse();
+    }
+
+    @Test
+    @DisplayName("测试重复解析同一Token命中缓存")
+    void testTokenCacheHit() {
+        String token = jwtUtil.generateToken(1001L, "admin", "ADMIN");
+
+        LoginUser first = jwtUtil.parseLoginUser(token);
+        LoginUser second = jwtUtil.parseLoginUser(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.getTokenCacheStats().get("hitCount")).isEqualTo(1L);
+        assertThat(jwtUtil.getTokenCacheStats().get("missCount")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("测试篡改的Token验签失败且不写入缓存")
+    void testTamperedTokenRejected() {
+        String token = jwtUtil.generateToken(1001L, "admin", "ADMIN");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.parseLoginUser(tampered))
+                .isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.getTokenCacheStats().get("size")).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("测试过期Token解析失败")
+    void testExpiredTokenRejected() {
+        JwtUtil expiredUtil = newJwtUtil(-1000L);
+        String token = expiredUtil.generateToken(1001L, "admin", "ADMIN");
+
+        assertThatThrownBy(() -> expiredUtil.parseLoginUser(token))
+                .isInstanceOf(ExpiredJwtException.class);
+        assertThat(expiredUtil.isTokenExpired(token)).isTrue();
+    }
+}
@@ -16,6 +16,10 @@ DROP VIEW IF EXISTS v_sales_statistics CASCADE;
 DROP FUNCTION IF EXISTS proc_create_order(BIGINT, BIGINT, BIGINT, NUMERIC) CASCADE;
 
 -- 删除表（按依赖关系逆序删除）
+DROP TABLE IF EXISTS car_import_job CASCADE;
+DROP TABLE IF EXISTS car_reservation CASCADE;
+DROP TABLE IF EXISTS sys_api_key CASCADE;
+DROP TABLE IF EXISTS sys_token_revocation CASCADE;
 DROP TABLE IF EXISTS sales_order CASCADE;
 DROP TABLE IF EXISTS customer CASCADE;
 DROP TABLE IF EXISTS car_info CASCADE;
@@ -69,6 +73,7 @@ CREATE TABLE car_info (
     price NUMERIC(12, 2) NOT NULL,                  -- 价格
     status SMALLINT DEFAULT 0,                      -- 状态：0-在库, 1-锁定, 2-已售
     purchase_date DATE,                             -- 进货日期
+    version INTEGER NOT NULL DEFAULT 0,             -- 乐观锁版本号
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     
@@ -85,6 +90,7 @@ COMMENT ON COLUMN car_info.brand IS '品牌';
 COMMENT ON COLUMN car_info.model IS '型号';
 COMMENT ON COLUMN car_info.price IS '价格';
 COMMENT ON COLUMN car_info.status IS '状态：0-在库, 1-锁定, 2-已售';
+COMMENT ON COLUMN car_info.version IS '乐观锁版本号（状态变更使用 WHERE id AND status AND version 条件更新）';
 
 -- ----------------------------------------------------------------------------
 -- 3. customer 表（客户信息表）
@@ -154,6 +160,112 @@ COMMENT ON COLUMN sales_order.actual_price IS '实际成交价';
 COMMENT ON COLUMN sales_order.discount_amount IS '优惠金额';
 COMMENT ON COLUMN sales_order.status IS '订单状态：1-已完成, 2-已取消';
 
+-- ----------------------------------------------------------------------------
+-- 5. sys_token_revocation 表（Token 注销表）
+-- ----------------------------------------------------------------------------
+CREATE TABLE sys_token_revocation (
+    id BIGINT PRIMARY KEY,                          -- 主键（雪花算法生成）
+    token_id VARCHAR(64) NOT NULL UNIQUE,           -- Token ID（jti）
+    username VARCHAR(50),                           -- 用户名
+    expire_time TIMESTAMP NOT NULL,                 -- Token 原过期时间（过期后可清理）
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE sys_token_revocation IS 'Token 注销表（登出后的 Token 黑名单）';
+COMMENT ON COLUMN sys_token_revocation.token_id IS 'Token ID（jti）';
+COMMENT ON COLUMN sys_token_revocation.expire_time IS 'Token 原过期时间';
+
+-- ----------------------------------------------------------------------------
+-- 6. sys_api_key 表（API Key 表）
+-- ----------------------------------------------------------------------------
+CREATE TABLE sys_api_key (
+    id BIGINT PRIMARY KEY,                          -- 主键（雪花算法生成）
+    name VARCHAR(50) NOT NULL,                      -- 名称（调用方标识）
+    key_prefix VARCHAR(20) NOT NULL,                -- Key 前缀（仅用于展示）
+    key_hash VARCHAR(64) NOT NULL UNIQUE,           -- Key 的 HMAC-SHA256 哈希
+    role VARCHAR(20) NOT NULL,                      -- 角色：SALESPERSON
+    rate_limit INTEGER NOT NULL DEFAULT 60,         -- 每分钟允许的调用次数
+    status SMALLINT DEFAULT 1,                      -- 状态：0-禁用, 1-启用
+    usage_count BIGINT DEFAULT 0,                   -- 累计调用次数
+    last_used_time TIMESTAMP,                       -- 最后调用时间
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- 约束
+    CONSTRAINT chk_api_key_role CHECK (role = 'SALESPERSON'),
+    CONSTRAINT chk_api_key_status CHECK (status IN (0, 1)),
+    CONSTRAINT chk_api_key_rate_limit CHECK (rate_limit > 0)
+);
+
+COMMENT ON TABLE sys_api_key IS 'API Key 表（机器调用方凭证）';
+COMMENT ON COLUMN sys_api_key.key_prefix IS 'Key 前缀（仅用于展示和识别）';
+COMMENT ON COLUMN sys_api_key.key_hash IS 'Key 的 HMAC-SHA256 哈希（不保存明文）';
+COMMENT ON COLUMN sys_api_key.rate_limit IS '每分钟允许的调用次数';
+COMMENT ON COLUMN sys_api_key.usage_count IS '累计调用次数（定期批量回写）';
+
+-- ----------------------------------------------------------------------------
+-- 7. car_reservation 表（车辆预留表）
+-- ----------------------------------------------------------------------------
+CREATE TABLE car_reservation (
+    id BIGINT PRIMARY KEY,                          -- 主键（雪花算法生成）
+    car_id BIGINT NOT NULL,                         -- 车辆ID
+    sales_user_id BIGINT NOT NULL,                  -- 预留的销售员ID
+    customer_id BIGINT,                             -- 意向客户ID（可选）
+    expire_time TIMESTAMP NOT NULL,                 -- 到期时间（到期自动释放）
+    status SMALLINT DEFAULT 0,                      -- 状态：0-预留中, 1-已释放, 2-已成交, 3-已过期
+    remark VARCHAR(200),                            -- 备注
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- 外键约束
+    CONSTRAINT fk_reservation_car FOREIGN KEY (car_id)
+        REFERENCES car_info(id) ON DELETE CASCADE ON UPDATE CASCADE,
+    CONSTRAINT fk_reservation_sales_user FOREIGN KEY (sales_user_id)
+        REFERENCES sys_user(id) ON DELETE RESTRICT ON UPDATE CASCADE,
+
+    -- 检查约束
+    CONSTRAINT chk_reservation_status CHECK (status IN (0, 1, 2, 3))
+);
+
+COMMENT ON TABLE car_reservation IS '车辆预留表（销售员限时锁定车辆）';
+COMMENT ON COLUMN car_reservation.car_id IS '车辆ID（外键）';
+COMMENT ON COLUMN car_reservation.sales_user_id IS '预留的销售员ID（外键）';
+COMMENT ON COLUMN car_reservation.expire_time IS '到期时间（由内存时间轮到期释放）';
+COMMENT ON COLUMN car_reservation.status IS '状态：0-预留中, 1-已释放, 2-已成交, 3-已过期';
+
+-- ----------------------------------------------------------------------------
+-- 8. car_import_job 表（车辆导入任务表）
+-- ----------------------------------------------------------------------------
+CREATE TABLE car_import_job (
+    id BIGINT PRIMARY KEY,                          -- 主键（雪花算法生成）
+    file_name VARCHAR(255),                         -- 上传的文件名
+    status SMALLINT DEFAULT 0,                      -- 状态：0-排队中, 1-导入中, 2-已完成, 3-失败, 4-已取消
+    commit_mode SMALLINT DEFAULT 0,                 -- 提交模式：0-整体提交, 1-分块提交
+    read_count INTEGER DEFAULT 0,                   -- 已读取行数
+    valid_count INTEGER DEFAULT 0,                  -- 校验通过行数
+    inserted_count INTEGER DEFAULT 0,               -- 已写入行数
+    failed_count INTEGER DEFAULT 0,                 -- 失败行数
+    message TEXT,                                   -- 结果说明（失败原因、错误行摘要）
+    error_file VARCHAR(255),                        -- 错误文件名（失败的行和原因）
+    created_by BIGINT,                              -- 提交任务的用户ID
+    start_time TIMESTAMP,                           -- 开始导入时间
+    finish_time TIMESTAMP,                          -- 结束时间
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+
+    -- 检查约束
+    CONSTRAINT chk_import_job_status CHECK (status IN (0, 1, 2, 3, 4)),
+    CONSTRAINT chk_import_job_mode CHECK (commit_mode IN (0, 1))
+);
+
+COMMENT ON TABLE car_import_job IS '车辆导入任务表（后台异步导入的进度和结果）';
+COMMENT ON COLUMN car_import_job.status IS '状态：0-排队中, 1-导入中, 2-已完成, 3-失败, 4-已取消';
+COMMENT ON COLUMN car_import_job.read_count IS '已读取行数（导入中的进度以内存为准，结束时写入）';
+COMMENT ON COLUMN car_import_job.message IS '结果说明（失败原因、错误行摘要）';
+COMMENT ON COLUMN car_import_job.commit_mode IS '提交模式：0-整体提交（任何一行失败整体回滚）, 1-分块提交（每块独立提交，跳过失败的行）';
+COMMENT ON COLUMN car_import_job.error_file IS '错误文件名（位于 car-import.error-dir，过期后删除）';
+
 
 -- ============================================================================
 -- 第三部分：创建索引
@@ -172,20 +284,24 @@ CREATE INDEX idx_car_vin ON car_info(vin);
 CREATE INDEX idx_car_brand ON car_info(brand);
 CREATE INDEX idx_car_status ON car_info(status);
 CREATE INDEX idx_car_price ON car_info(price);
+CREATE INDEX idx_car_create_id ON car_info(create_time, id);
 
 COMMENT ON INDEX idx_car_vin IS '车架号索引（唯一性已由UNIQUE约束保证）';
 COMMENT ON INDEX idx_car_brand IS '品牌索引（用于品牌筛选查询）';
 COMMENT ON INDEX idx_car_status IS '状态索引（用于状态筛选查询）';
 COMMENT ON INDEX idx_car_price IS '价格索引（用于价格区间查询）';
+COMMENT ON INDEX idx_car_create_id IS '创建时间+ID复合索引（用于游标分页）';
 
 -- ----------------------------------------------------------------------------
 -- customer 表索引
 -- ----------------------------------------------------------------------------
 CREATE INDEX idx_customer_phone ON customer(phone);
 CREATE INDEX idx_customer_name ON customer(name);
+CREATE INDEX idx_customer_create_id ON customer(create_time, id);
 
 COMMENT ON INDEX idx_customer_phone IS '手机号索引（用于精确查询）';
 COMMENT ON INDEX idx_customer_name IS '姓名索引（用于模糊查询）';
+COMMENT ON INDEX idx_customer_create_id IS '创建时间+ID复合索引（用于游标分页）';
 
 -- ----------------------------------------------------------------------------
 -- sales_order 表索引
@@ -195,12 +311,37 @@ CREATE INDEX idx_order_customer ON sales_order(customer_id);
 CREATE INDEX idx_order_car ON sales_order(car_id);
 CREATE INDEX idx_order_date ON sales_order(order_date);
 CREATE INDEX idx_order_no ON sales_order(order_no);
+CREATE INDEX idx_order_date_create_id ON sales_order(order_date, create_time, id);
 
 COMMENT ON INDEX idx_order_sales_user IS '销售员ID索引（用于按销售员筛选）';
 COMMENT ON INDEX idx_order_customer IS '客户ID索引（用于查询客户订单）';
 COMMENT ON INDEX idx_order_car IS '车辆ID索引（用于查询车辆销售记录）';
 COMMENT ON INDEX idx_order_date IS '订单日期索引（用于日期区间查询）';
 COMMENT ON INDEX idx_order_no IS '订单编号索引（用于订单号查询）';
+COMMENT ON INDEX idx_order_date_create_id IS '订单日期+创建时间+ID复合索引（用于游标分页）';
+
+-- ----------------------------------------------------------------------------
+-- sys_token_revocation 表索引
+-- ----------------------------------------------------------------------------
+CREATE INDEX idx_token_revocation_expire ON sys_token_revocation(expire_time);
+CREATE INDEX idx_token_revocation_create ON sys_token_revocation(create_time);
+
+COMMENT ON INDEX idx_token_revocation_expire IS '过期时间索引（用于清理过期记录）';
+COMMENT ON INDEX idx_token_revocation_create IS '创建时间索引（用于多实例增量同步）';
+
+-- ----------------------------------------------------------------------------
+-- car_reservation 表索引
+-- ----------------------------------------------------------------------------
+CREATE INDEX idx_reservation_status_car ON car_reservation(status, car_id);
+
+COMMENT ON INDEX idx_reservation_status_car IS '状态+车辆ID复合索引（用于启动时加载预留中记录和按车辆查找）';
+
+-- ----------------------------------------------------------------------------
+-- car_import_job 表索引
+-- ----------------------------------------------------------------------------
+CREATE INDEX idx_import_job_create ON car_import_job(create_time);
+
+COMMENT ON INDEX idx_import_job_create IS '创建时间索引（用于按时间倒序查看导入任务）';
 
 
 -- ============================================================================
@@ -381,6 +522,7 @@ BEGIN
     -- 更新车辆状态为已售
     UPDATE car_info
     SET status = 2,
+        version = version + 1,
         update_time = CURRENT_TIMESTAMP
     WHERE id = p_car_id;
     
@@ -1,12 +1,12 @@
 import request from '@/utils/request'
-import type { Car, PageResult } from '@/types'
+import type { Car, CursorPage } from '@/types'
 
 /**
  * 车辆查询参数
  */
 export interface CarQueryParams {
-    page: number
-    size: number
+    cursor?: string
+    pageSize: number
     brand?: string
     status?: 0 | 1 | 2
     minPrice?: number
@@ -18,10 +18,10 @@ export interface CarQueryParams {
  */
 export const carApi = {
     /**
-     * 查询车辆列表（分页）
+     * 查询车辆列表（游标分页，传入上一页返回的 nextCursor 加载下一页）
      */
     getCarList(params: CarQueryParams) {
-        return request.get<PageResult<Car>>('/cars', { params })
+        return request.get<CursorPage<Car>>('/cars/cursor', { params })
     },
 
     /**
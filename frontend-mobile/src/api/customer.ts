@@ -1,12 +1,12 @@
 import request from '@/utils/request'
-import type { Customer, PageResult } from '@/types'
+import type { Customer, CursorPage } from '@/types'
 
 /**
  * 客户查询参数
  */
 export interface CustomerQueryParams {
-    page: number
-    size: number
+    cursor?: string
+    pageSize: number
     name?: string
     phone?: string
 }
@@ -16,10 +16,10 @@ export interface CustomerQueryParams {
  */
 export const customerApi = {
     /**
-     * 查询客户列表（分页）
+     * 查询客户列表（游标分页，传入上一页返回的 nextCursor 加载下一页）
      */
     getCustomerList(params: CustomerQueryParams) {
-        return request.get<PageResult<Customer>>('/customers', { params })
+        return request.get<CursorPage<Customer>>('/customers/cursor', { params })
     },
 
     /**
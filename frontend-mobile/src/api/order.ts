@@ -1,12 +1,12 @@
 import request from '@/utils/request'
-import type { Order, OrderDetail, PageResult } from '@/types'
+import type { Order, OrderDetail, CursorPage } from '@/types'
 
 /**
  * 订单查询参数
  */
 export interface OrderQueryParams {
-    page: number
-    size: number
+    cursor?: string
+    pageSize: number
     startDate?: string
     endDate?: string
     salesUserId?: string
@@ -31,10 +31,10 @@ export interface OrderCreateRequest {
  */
 export const orderApi = {
     /**
-     * 查询订单列表（分页）
+     * 查询订单列表（游标分页，传入上一页返回的 nextCursor 加载下一页）
      */
     getOrderList(params: OrderQueryParams) {
-        return request.get<PageResult<OrderDetail>>('/orders', { params })
+        return request.get<CursorPage<OrderDetail>>('/orders/cursor', { params })
     },
 
     /**
@@ -15,6 +15,13 @@ export interface PageResult<T> {
     pages: number
 }
 
+// 游标分页响应
+export interface CursorPage<T> {
+    records: T[]
+    nextCursor: string | null
+    hasMore: boolean
+}
+
 // 用户类型
 export interface User {
     id: string
@@ -52,6 +52,23 @@ export interface Car {
     updateTime: string
 }
 
+// 车辆导入任务类型
+export interface CarImportJob {
+    id: string
+    fileName: string
+    status: 0 | 1 | 2 | 3 | 4  // 0-排队中, 1-导入中, 2-已完成, 3-失败, 4-已取消
+    commitMode: 0 | 1  // 0-整体提交, 1-分块提交
+    readCount: number
+    validCount: number
+    insertedCount: number
+    failedCount: number
+    message?: string
+    errorFile?: string  // 有失败的行时生成错误文件
+    startTime?: string
+    finishTime?: string
+    createTime: string
+}
+
 // 客户类型
 export interface Customer {
     id: string